@@ -51,6 +51,7 @@ function Incidents() {
                     <option value="LATENCY_SPIKE">Latency Spike</option>
                     <option value="NEW_ERROR_PATTERN">New Error Pattern</option>
                     <option value="RESOURCE_EXHAUSTION">Resource Exhaustion</option>
+                    <option value="CLUSTER_BURST">Cluster Burst</option>
                 </select>
             </div>
 
@@ -127,6 +127,11 @@ function LogExplorer() {
                                             textOverflow: 'ellipsis',
                                             whiteSpace: 'nowrap'
                                         }}>
+                                            {log.occurrenceCount > 1 && (
+                                                <span style={{ color: '#94a3b8', marginRight: '0.5rem' }}>
+                                                    ×{log.occurrenceCount}
+                                                </span>
+                                            )}
                                             {log.message}
                                         </td>
                                         <td>
@@ -26,6 +26,9 @@ export async function fetchLogs(filters = {}) {
     if (filters.level) params.append('level', filters.level);
     if (filters.serviceName) params.append('serviceName', filters.serviceName);
     if (filters.search) params.append('search', filters.search);
+    if (filters.from) params.append('from', filters.from);
+    if (filters.to) params.append('to', filters.to);
+    if (filters.cursor) params.append('cursor', filters.cursor);
     params.append('limit', filters.limit || 100);
 
     const response = await fetch(`${API_BASE}/logs?${params}`);
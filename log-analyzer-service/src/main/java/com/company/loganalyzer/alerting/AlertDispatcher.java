@@ -0,0 +1,313 @@
+package com.company.loganalyzer.alerting;
+
+import com.company.loganalyzer.config.AlertingConfig;
+import com.company.loganalyzer.model.IncidentEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers alerts to every {@link AlertService} off the caller's thread.
+ * <p>
+ * Each sink has its own bounded queue and worker thread, so a slow or failing
+ * sink delays neither ingestion nor the other sinks. A queue holds at most one
+ * pending alert per service: a newer incident of the same service replaces the
+ * queued one. A service alerted within the suppression window is not alerted
+ * again. Failed deliveries are retried with exponential backoff, resending only
+ * the alerts a sink reports as undelivered; alerts that arrive while a queue is
+ * full are dropped and counted. Alerts raised inside a transaction are only
+ * enqueued once it commits.
+ */
+@Component
+public class AlertDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertDispatcher.class);
+    private static final long IDLE_WAIT_MS = 1000;
+
+    private final AlertingConfig.Dispatch config;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final Map<String, Long> lastAlertedMillis = new ConcurrentHashMap<>();
+    private final Counter suppressedCounter;
+
+    private volatile boolean running = true;
+
+    public AlertDispatcher(List<AlertService> sinks, AlertingConfig alertingConfig, MeterRegistry meterRegistry) {
+        this.config = alertingConfig.getDispatch();
+        this.suppressedCounter = meterRegistry.counter("loganalyzer.alerts.suppressed");
+        for (AlertService sink : sinks) {
+            lanes.add(new Lane(sink, meterRegistry));
+        }
+        lanes.forEach(Lane::start);
+    }
+
+    /**
+     * Queue an alert for {@code incident}, after the current transaction commits
+     * if there is one. Never blocks.
+     */
+    public void dispatch(IncidentEntity incident) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(incident);
+                }
+            });
+        } else {
+            enqueue(incident);
+        }
+    }
+
+    private void enqueue(IncidentEntity incident) {
+        long now = System.currentTimeMillis();
+        String service = serviceOf(incident);
+        boolean[] suppressed = new boolean[1];
+        lastAlertedMillis.compute(service, (k, last) -> {
+            if (last != null && now - last < config.getSuppressionWindowMs()) {
+                suppressed[0] = true;
+                return last;
+            }
+            return now;
+        });
+        if (suppressed[0]) {
+            suppressedCounter.increment();
+            log.debug("Suppressed alert for incident {} of service {}", incident.getId(), service);
+            return;
+        }
+        long enqueuedNanos = System.nanoTime();
+        for (Lane lane : lanes) {
+            lane.offer(service, incident, enqueuedNanos);
+        }
+        if (lastAlertedMillis.size() > config.getQueueCapacity()) {
+            lastAlertedMillis.values().removeIf(last -> now - last >= config.getSuppressionWindowMs());
+        }
+    }
+
+    /**
+     * Alerts queued across all sinks.
+     */
+    public int queueDepth() {
+        return lanes.stream().mapToInt(lane -> lane.depth.get()).sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        lanes.forEach(Lane::wake);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getShutdownTimeoutMs());
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (lane.thread.isAlive()) {
+                lane.thread.interrupt();
+                log.warn("Alert sink {} did not drain in time, {} alerts not delivered", lane.name,
+                        lane.depth.get());
+            }
+        }
+    }
+
+    private static String serviceOf(IncidentEntity incident) {
+        return incident.getServiceName() != null ? incident.getServiceName() : "unknown";
+    }
+
+    private record PendingAlert(IncidentEntity incident, long enqueuedNanos) {
+    }
+
+    /**
+     * Queue and worker of one sink.
+     */
+    private final class Lane implements Runnable {
+
+        private final AlertService sink;
+        private final String name;
+        private final Thread thread;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        // Insertion ordered, so services are delivered in the order they were first queued
+        private final LinkedHashMap<String, PendingAlert> pending = new LinkedHashMap<>();
+        private final AtomicInteger depth = new AtomicInteger();
+
+        private final Timer latencyTimer;
+        private final Counter deliveredCounter;
+        private final Counter failedCounter;
+        private final Counter droppedCounter;
+        private final Counter coalescedCounter;
+
+        Lane(AlertService sink, MeterRegistry meterRegistry) {
+            this.sink = sink;
+            this.name = ClassUtils.getUserClass(sink).getSimpleName();
+            this.thread = new Thread(this, "alert-dispatch-" + name);
+            thread.setDaemon(true);
+
+            this.latencyTimer = Timer.builder("loganalyzer.alerts.delivery.latency")
+                    .description("Time from queueing an alert to its delivery")
+                    .tag("sink", name)
+                    .register(meterRegistry);
+            this.deliveredCounter = meterRegistry.counter("loganalyzer.alerts.delivered", "sink", name);
+            this.failedCounter = meterRegistry.counter("loganalyzer.alerts.failed", "sink", name);
+            this.droppedCounter = meterRegistry.counter("loganalyzer.alerts.dropped", "sink", name);
+            this.coalescedCounter = meterRegistry.counter("loganalyzer.alerts.coalesced", "sink", name);
+            Gauge.builder("loganalyzer.alerts.queue.depth", depth, AtomicInteger::get)
+                    .description("Alerts waiting for delivery")
+                    .tag("sink", name)
+                    .register(meterRegistry);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void offer(String service, IncidentEntity incident, long enqueuedNanos) {
+            lock.lock();
+            try {
+                PendingAlert queued = pending.get(service);
+                if (queued != null) {
+                    // Keep the original queue time so latency covers the whole wait
+                    pending.put(service, new PendingAlert(incident, queued.enqueuedNanos()));
+                    coalescedCounter.increment();
+                    return;
+                }
+                if (pending.size() >= config.getQueueCapacity()) {
+                    droppedCounter.increment();
+                    log.warn("Alert queue of {} is full, dropping alert for incident {} of service {}", name,
+                            incident.getId(), service);
+                    return;
+                }
+                pending.put(service, new PendingAlert(incident, enqueuedNanos));
+                depth.set(pending.size());
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void wake() {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                List<PendingAlert> batch;
+                try {
+                    batch = take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (batch == null) {
+                    return;
+                }
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            }
+        }
+
+        /**
+         * Up to a batch of pending alerts, empty after an idle wait, or null once
+         * shut down and drained.
+         */
+        private List<PendingAlert> take() throws InterruptedException {
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    if (!running) {
+                        return null;
+                    }
+                    notEmpty.await(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+                }
+                List<PendingAlert> batch = new ArrayList<>(Math.min(pending.size(), config.getBatchSize()));
+                Iterator<PendingAlert> it = pending.values().iterator();
+                while (it.hasNext() && batch.size() < config.getBatchSize()) {
+                    batch.add(it.next());
+                    it.remove();
+                }
+                depth.set(pending.size());
+                return batch;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Sends the batch, retrying only the alerts not yet delivered when the
+         * sink reports partial progress.
+         */
+        private void deliver(List<PendingAlert> batch) {
+            List<IncidentEntity> incidents = batch.stream().map(PendingAlert::incident).toList();
+            int done = 0;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    sink.sendAlerts(incidents.subList(done, incidents.size()));
+                    delivered(batch.subList(done, batch.size()));
+                    break;
+                } catch (Exception e) {
+                    if (e instanceof PartialDeliveryException partial) {
+                        int next = done + Math.min(partial.getDelivered(), batch.size() - done);
+                        delivered(batch.subList(done, next));
+                        done = next;
+                    }
+                    int remaining = batch.size() - done;
+                    if (attempt >= config.getMaxAttempts()) {
+                        failedCounter.increment(remaining);
+                        log.error("Failed to deliver {} alerts to {} after {} attempts", remaining, name,
+                                attempt, e);
+                        break;
+                    }
+                    long backoff = backoffMillis(attempt);
+                    log.warn("Delivering {} alerts to {} failed (attempt {}), retrying in {} ms: {}", remaining,
+                            name, attempt, backoff, e.getMessage());
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException ie) {
+                        failedCounter.increment(remaining);
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void delivered(List<PendingAlert> alerts) {
+            long now = System.nanoTime();
+            for (PendingAlert alert : alerts) {
+                latencyTimer.record(now - alert.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            }
+            deliveredCounter.increment(alerts.size());
+        }
+
+        /**
+         * Exponential backoff with jitter, so sinks recovering from an outage are
+         * not hit by every lane at once.
+         */
+        private long backoffMillis(int attempt) {
+            long base = Math.min(config.getMaxBackoffMs(),
+                    config.getInitialBackoffMs() << Math.min(attempt - 1, 20));
+            return base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+        }
+    }
+}
@@ -2,6 +2,26 @@ package com.company.loganalyzer.alerting;
 
 import com.company.loganalyzer.model.IncidentEntity;
 
+import java.util.List;
+
 public interface AlertService {
     void sendAlert(IncidentEntity incident);
+
+    /**
+     * Deliver several incidents at once. Sinks that can send a batch in one
+     * request override this; the default sends them one by one.
+     * <p>
+     * A failure after some incidents went out throws
+     * {@link PartialDeliveryException} with the number delivered, so they are
+     * not sent again on retry.
+     */
+    default void sendAlerts(List<IncidentEntity> incidents) {
+        for (int i = 0; i < incidents.size(); i++) {
+            try {
+                sendAlert(incidents.get(i));
+            } catch (RuntimeException e) {
+                throw i == 0 ? e : new PartialDeliveryException(i, e);
+            }
+        }
+    }
 }
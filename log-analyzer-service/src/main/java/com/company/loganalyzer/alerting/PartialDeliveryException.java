@@ -0,0 +1,20 @@
+package com.company.loganalyzer.alerting;
+
+/**
+ * Thrown by {@link AlertService#sendAlerts} when only the first
+ * {@link #getDelivered()} incidents of a batch were delivered, so a retry can
+ * resend just the rest.
+ */
+public class PartialDeliveryException extends RuntimeException {
+
+    private final int delivered;
+
+    public PartialDeliveryException(int delivered, Throwable cause) {
+        super(cause.getMessage(), cause);
+        this.delivered = delivered;
+    }
+
+    public int getDelivered() {
+        return delivered;
+    }
+}
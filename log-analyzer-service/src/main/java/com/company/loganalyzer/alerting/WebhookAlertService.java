@@ -0,0 +1,174 @@
+package com.company.loganalyzer.alerting;
+
+import com.company.loganalyzer.config.AlertingConfig;
+import com.company.loganalyzer.model.IncidentEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Posts incidents as JSON to an HTTP webhook such as a paging gateway.
+ * <p>
+ * A single {@link HttpClient} is shared by all requests, so connections are
+ * pooled and kept alive (and multiplexed when the endpoint speaks HTTP/2).
+ * Batches are split into requests of at most {@code maxBatchSize} incidents.
+ * A failed request throws, which lets {@link AlertDispatcher} retry it, from
+ * the first request that failed when earlier ones of the batch went out; while
+ * the circuit breaker is open requests fail without touching the network.
+ */
+@Service
+@ConditionalOnProperty(prefix = "alerting.webhook", name = "enabled", havingValue = "true")
+public class WebhookAlertService implements AlertService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookAlertService.class);
+
+    private final AlertingConfig.Webhook config;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Timer requestTimer;
+    private final Counter rejectedCounter;
+
+    public WebhookAlertService(AlertingConfig alertingConfig, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.config = alertingConfig.getWebhook();
+        if (config.getUrl() == null || config.getUrl().isBlank()) {
+            throw new IllegalStateException("alerting.webhook.url must be set when the webhook is enabled");
+        }
+        this.objectMapper = objectMapper;
+        this.uri = URI.create(config.getUrl());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMs()))
+                .build();
+        this.circuitBreaker = new CircuitBreaker(config.getFailureThreshold(), config.getOpenMs(),
+                System::currentTimeMillis);
+
+        this.requestTimer = Timer.builder("loganalyzer.alerts.webhook.request.latency")
+                .description("Latency of webhook requests")
+                .register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("loganalyzer.alerts.webhook.rejected");
+        Gauge.builder("loganalyzer.alerts.webhook.circuit.open", circuitBreaker,
+                        breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while the webhook circuit breaker is open or half open")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void sendAlert(IncidentEntity incident) {
+        sendAlerts(List.of(incident));
+    }
+
+    @Override
+    public void sendAlerts(List<IncidentEntity> incidents) {
+        int batchSize = Math.max(1, config.getMaxBatchSize());
+        for (int from = 0; from < incidents.size(); from += batchSize) {
+            try {
+                post(incidents.subList(from, Math.min(incidents.size(), from + batchSize)));
+            } catch (RuntimeException e) {
+                throw from == 0 ? e : new PartialDeliveryException(from, e);
+            }
+        }
+    }
+
+    private void post(List<IncidentEntity> incidents) {
+        // Built before acquiring: a request that cannot be built is not an
+        // outcome of the endpoint, and must not leave a half-open trial pending
+        HttpRequest request = buildRequest(incidents);
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new IllegalStateException("Webhook circuit breaker is open, not posting " + incidents.size()
+                    + " alerts to " + uri);
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Webhook " + uri + " answered " + response.statusCode());
+            }
+            circuitBreaker.onSuccess();
+            log.debug("Posted {} alerts to {}", incidents.size(), uri);
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            throw new UncheckedIOException("Failed to post " + incidents.size() + " alerts to " + uri, e);
+        } catch (InterruptedException e) {
+            circuitBreaker.onFailure();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while posting alerts to " + uri, e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            requestTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private HttpRequest buildRequest(List<IncidentEntity> incidents) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(Map.of("incidents",
+                    incidents.stream().map(WebhookIncident::of).toList()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize alerts", e);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(config.getRequestTimeoutMs()))
+                .header("Content-Type", "application/json");
+        config.getHeaders().forEach(builder::header);
+        if (config.isGzip() && body.length >= config.getGzipMinBytes()) {
+            body = gzip(body);
+            builder.header("Content-Encoding", "gzip");
+        }
+        return builder.POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    /**
+     * Webhook payload of one incident.
+     */
+    record WebhookIncident(Long id, String serviceName, String type, String status, String startTime,
+            String lastSeen, Long occurrenceCount, String description) {
+
+        static WebhookIncident of(IncidentEntity incident) {
+            return new WebhookIncident(incident.getId(), incident.getServiceName(),
+                    incident.getType() != null ? incident.getType().name() : null,
+                    incident.getStatus() != null ? incident.getStatus().name() : null,
+                    incident.getStartTime() != null ? incident.getStartTime().toString() : null,
+                    incident.getLastSeen() != null ? incident.getLastSeen().toString() : null,
+                    incident.getOccurrenceCount(), incident.getDescription());
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.company.loganalyzer.analysis;
 
+import com.company.loganalyzer.config.AnalysisConfig;
 import com.company.loganalyzer.model.AnomalyType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -10,35 +13,90 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class AnomalyDetector {
 
-    // Simple in-memory sliding window for demonstration.
+    // In-memory sliding window of per-bucket error counts, one fixed ring per service.
     // In production, this would use Redis or time-series DB.
-    private final Map<String, Deque<Instant>> errorWindows = new ConcurrentHashMap<>();
-    private static final int ERROR_THRESHOLD = 5;
-    private static final int WINDOW_SECONDS = 60;
+    private final Map<String, SlidingWindowCounter> errorWindows = new ConcurrentHashMap<>();
+    private final int errorThreshold;
+    private final long windowMillis;
+    private final long bucketMillis;
 
-    public List<AnomalyType> detectAnomalies(String serviceName, String level) {
+    // Event-time mode: errors are bucketed by LogEvent.timestamp(), and buckets
+    // older than the watermark minus the allowed lateness are closed.
+    private final boolean eventTime;
+    private final long allowedLatenessMillis;
+    private final WatermarkTracker watermarks;
+    private final Counter lateErrors;
+
+    // Learned per-service baselines; the fixed threshold only applies while a
+    // series is still learning
+    private final BaselineEngine baselines;
+    private final ClusterBurstDetector clusterBursts;
+    private final NewPatternDetector newPatterns;
+
+    public AnomalyDetector(AnalysisConfig analysisConfig, WatermarkTracker watermarks, BaselineEngine baselines,
+            ClusterBurstDetector clusterBursts, NewPatternDetector newPatterns, MeterRegistry meterRegistry) {
+        AnalysisConfig.Anomaly config = analysisConfig.getAnomaly();
+        this.errorThreshold = config.getErrorThreshold();
+        this.windowMillis = config.getWindowSeconds() * 1000L;
+        this.bucketMillis = config.getBucketSeconds() * 1000L;
+        this.eventTime = "event".equalsIgnoreCase(config.getTimeMode());
+        this.allowedLatenessMillis = config.getAllowedLatenessSeconds() * 1000L;
+        this.watermarks = watermarks;
+        this.baselines = baselines;
+        this.clusterBursts = clusterBursts;
+        this.newPatterns = newPatterns;
+        this.lateErrors = Counter.builder("loganalyzer.anomaly.late.errors")
+                .description("Errors dropped from burst detection because their window had closed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs detection for one event. In event-time mode the timestamp must already
+     * have been passed through {@link WatermarkTracker#observe}, which clamps it.
+     */
+    public List<AnomalyType> detectAnomalies(String serviceName, String level, String clusterId, Instant timestamp) {
         List<AnomalyType> detected = new ArrayList<>();
 
-        if ("ERROR".equalsIgnoreCase(level)) {
-            if (isErrorBurst(serviceName)) {
-                detected.add(AnomalyType.ERROR_BURST);
-            }
+        boolean error = "ERROR".equalsIgnoreCase(level);
+        boolean tracked = baselines.tracks(level);
+        if (!error && !tracked) {
+            return detected;
+        }
+        if (error && newPatterns.observe(serviceName, clusterId)) {
+            detected.add(AnomalyType.NEW_ERROR_PATTERN);
+        }
+
+        long time = eventTime && timestamp != null ? timestamp.toEpochMilli() : System.currentTimeMillis();
+        if (eventTime && isLate(time)) {
+            lateErrors.increment();
+            return detected;
+        }
+
+        boolean thresholdBurst = error && isErrorBurst(serviceName, time);
+        BaselineEngine.Verdict verdict = tracked
+                ? baselines.observe(serviceName, level, time)
+                : BaselineEngine.Verdict.LEARNING;
+        if (verdict == BaselineEngine.Verdict.DEVIATION
+                || (verdict == BaselineEngine.Verdict.LEARNING && thresholdBurst)) {
+            detected.add(AnomalyType.ERROR_BURST);
+        }
+        if (error && clusterBursts.record(serviceName, clusterId, time)) {
+            detected.add(AnomalyType.CLUSTER_BURST);
         }
 
         return detected;
     }
 
-    private boolean isErrorBurst(String serviceName) {
-        Deque<Instant> times = errorWindows.computeIfAbsent(serviceName, k -> new ArrayDeque<>());
-        Instant now = Instant.now();
-
-        synchronized (times) {
-            times.addLast(now);
-            // Remove errors older than window
-            while (!times.isEmpty() && times.peekFirst().isBefore(now.minusSeconds(WINDOW_SECONDS))) {
-                times.removeFirst();
-            }
-            return times.size() > ERROR_THRESHOLD;
-        }
+    private boolean isLate(long time) {
+        long watermark = watermarks.currentWatermark();
+        // No watermark yet; subtracting from MIN_VALUE would wrap around
+        return watermark != Long.MIN_VALUE && time < watermark - allowedLatenessMillis;
+    }
+
+    private boolean isErrorBurst(String serviceName, long time) {
+        SlidingWindowCounter window = errorWindows.computeIfAbsent(serviceName,
+                k -> new SlidingWindowCounter(windowMillis,
+                        eventTime ? windowMillis + allowedLatenessMillis : windowMillis, bucketMillis));
+        return window.incrementAndSum(time) > errorThreshold;
     }
 }
@@ -0,0 +1,109 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.model.BaselineCheckpointEntity;
+import com.company.loganalyzer.repository.BaselineCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Restores error-rate baselines from PostgreSQL at startup and periodically
+ * writes back the series that changed.
+ */
+@Component
+@Profile("!lite")
+public class BaselineCheckpointer {
+
+    private static final Logger log = LoggerFactory.getLogger(BaselineCheckpointer.class);
+
+    private final BaselineEngine engine;
+    private final BaselineCheckpointRepository repository;
+
+    public BaselineCheckpointer(BaselineEngine engine, BaselineCheckpointRepository repository) {
+        this.engine = engine;
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    void restore() {
+        try {
+            List<BaselineCheckpointEntity> checkpoints = repository.findAll();
+            for (BaselineCheckpointEntity checkpoint : checkpoints) {
+                engine.restore(checkpoint.getSeriesKey(), toSnapshot(checkpoint));
+            }
+            log.info("Restored {} error-rate baselines", checkpoints.size());
+        } catch (Exception e) {
+            log.warn("Could not restore error-rate baselines, starting cold: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.baseline.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        Map<String, ErrorRateBaseline.Snapshot> changed = engine.drainChanged();
+        if (changed.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<BaselineCheckpointEntity> entities = new ArrayList<>(changed.size());
+        changed.forEach((key, snapshot) -> entities.add(toEntity(key, snapshot, now)));
+        try {
+            repository.saveAll(entities);
+            log.debug("Checkpointed {} error-rate baselines", entities.size());
+        } catch (Exception e) {
+            log.error("Failed to checkpoint {} error-rate baselines", entities.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        checkpoint();
+    }
+
+    private static BaselineCheckpointEntity toEntity(String key, ErrorRateBaseline.Snapshot snapshot, Instant now) {
+        BaselineCheckpointEntity entity = new BaselineCheckpointEntity(key);
+        entity.setIntervalIndex(snapshot.interval());
+        entity.setIntervalCount(snapshot.count());
+        entity.setSamples(snapshot.samples());
+        entity.setMean(snapshot.mean());
+        entity.setVariance(snapshot.variance());
+        entity.setCusum(snapshot.cusum());
+        if (snapshot.seasonalSamples() != null) {
+            entity.setSeasonalMean(join(Arrays.stream(snapshot.seasonalMean()).mapToObj(Double::toString)));
+            entity.setSeasonalVariance(join(Arrays.stream(snapshot.seasonalVariance()).mapToObj(Double::toString)));
+            entity.setSeasonalSamples(join(Arrays.stream(snapshot.seasonalSamples()).mapToObj(Long::toString)));
+        }
+        entity.setUpdatedAt(now);
+        return entity;
+    }
+
+    private static ErrorRateBaseline.Snapshot toSnapshot(BaselineCheckpointEntity entity) {
+        double[] seasonalMean = null;
+        double[] seasonalVariance = null;
+        long[] seasonalSamples = null;
+        if (entity.getSeasonalSamples() != null) {
+            seasonalMean = Arrays.stream(entity.getSeasonalMean().split(",")).mapToDouble(Double::parseDouble).toArray();
+            seasonalVariance = Arrays.stream(entity.getSeasonalVariance().split(","))
+                    .mapToDouble(Double::parseDouble).toArray();
+            seasonalSamples = Arrays.stream(entity.getSeasonalSamples().split(",")).mapToLong(Long::parseLong).toArray();
+        }
+        return new ErrorRateBaseline.Snapshot(entity.getIntervalIndex(), entity.getIntervalCount(),
+                entity.getSamples(), entity.getMean(), entity.getVariance(), entity.getCusum(),
+                seasonalMean, seasonalVariance, seasonalSamples);
+    }
+
+    private static String join(Stream<String> values) {
+        return values.collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,97 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps an {@link ErrorRateBaseline} per service and level and decides whether
+ * the current error rate deviates from it, by z-score or by CUSUM change point.
+ */
+@Component
+public class BaselineEngine {
+
+    public enum Verdict {
+        LEARNING, NORMAL, DEVIATION
+    }
+
+    private final Map<String, ErrorRateBaseline> series = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Set<String> levels;
+    private final boolean seasonal;
+    private final double zScoreThreshold;
+    private final ErrorRateBaseline.Parameters parameters;
+
+    public BaselineEngine(AnalysisConfig analysisConfig) {
+        AnalysisConfig.Baseline config = analysisConfig.getBaseline();
+        this.enabled = config.isEnabled();
+        this.levels = config.getLevels().stream()
+                .map(level -> level.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.seasonal = config.isSeasonal();
+        this.zScoreThreshold = config.getZScoreThreshold();
+
+        long intervalMillis = config.getIntervalSeconds() * 1000L;
+        // Beyond ~10 time constants the EWMA has forgotten the old state, and a
+        // seasonal profile needs every hour of the gap
+        long maxGap = (long) Math.ceil(10 / config.getAlpha());
+        if (seasonal) {
+            maxGap = Math.max(maxGap, 86_400_000L / intervalMillis);
+        }
+        this.parameters = new ErrorRateBaseline.Parameters(intervalMillis, config.getAlpha(),
+                config.getSeasonalAlpha(), config.getMinSamples(), config.getMinStdDev(),
+                config.getCusumSlack(), config.getCusumThreshold(), maxGap);
+    }
+
+    public boolean tracks(String level) {
+        return enabled && level != null && levels.contains(level.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Count one event of a tracked level at {@code timeMillis} and score it
+     * against the series baseline.
+     */
+    public Verdict observe(String serviceName, String level, long timeMillis) {
+        ErrorRateBaseline baseline = series.computeIfAbsent(key(serviceName, level),
+                k -> new ErrorRateBaseline(seasonal));
+        ErrorRateBaseline.Score score = baseline.observe(timeMillis / parameters.intervalMillis(), parameters);
+        if (score.isLearning()) {
+            return Verdict.LEARNING;
+        }
+        return score.z() > zScoreThreshold || score.cusum() > parameters.cusumThreshold()
+                ? Verdict.DEVIATION
+                : Verdict.NORMAL;
+    }
+
+    /**
+     * Snapshots of the series that changed since the previous call.
+     */
+    Map<String, ErrorRateBaseline.Snapshot> drainChanged() {
+        Map<String, ErrorRateBaseline.Snapshot> changed = new HashMap<>();
+        series.forEach((key, baseline) -> {
+            ErrorRateBaseline.Snapshot snapshot = baseline.snapshotIfDirty();
+            if (snapshot != null) {
+                changed.put(key, snapshot);
+            }
+        });
+        return changed;
+    }
+
+    void restore(String key, ErrorRateBaseline.Snapshot snapshot) {
+        series.computeIfAbsent(key, k -> new ErrorRateBaseline(seasonal)).restore(snapshot);
+    }
+
+    public int size() {
+        return series.size();
+    }
+
+    static String key(String serviceName, String level) {
+        return serviceName + "|" + level.toUpperCase(Locale.ROOT);
+    }
+}
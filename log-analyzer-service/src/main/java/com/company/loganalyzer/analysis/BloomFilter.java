@@ -0,0 +1,59 @@
+package com.company.loganalyzer.analysis;
+
+/**
+ * Bloom filter over 64-bit key hashes, probing with {@code h1 + i * h2}
+ * (Kirsch and Mitzenmacher, 2006) so each key is hashed only once.
+ * <p>
+ * Not thread-safe.
+ */
+final class BloomFilter {
+
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(long[] words, int hashes) {
+        this.words = words;
+        this.bits = (long) words.length * Long.SIZE;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Filter sized for {@code expectedInsertions} keys at the given false
+     * positive rate.
+     */
+    static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+        return new BloomFilter(new long[words], optimalHashes(expectedInsertions, (long) words * Long.SIZE));
+    }
+
+    static int optimalHashes(int expectedInsertions, long bits) {
+        return Math.max(1, (int) Math.round((double) bits / Math.max(1, expectedInsertions) * Math.log(2)));
+    }
+
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod((long) h1 + (long) i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod((long) h1 + (long) i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    long[] words() {
+        return words;
+    }
+}
@@ -0,0 +1,226 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-cluster burst detection in fixed memory.
+ * <p>
+ * Error occurrences are counted per (service, cluster) in a ring of count-min
+ * sketches, one per time bucket. A cluster bursts when its count over the recent
+ * window reaches the minimum and exceeds the burst factor times its average over
+ * the preceding history. A Space-Saving summary per service tracks the clusters
+ * that currently dominate it; its counts are halved every window so it follows
+ * the recent stream.
+ * <p>
+ * Services are striped: each stripe has its own ring and summaries, so memory
+ * is the ring size times the number of stripes.
+ */
+@Component
+public class ClusterBurstDetector {
+
+    private static final ThreadLocal<StreamingHash64> HASH = ThreadLocal.withInitial(StreamingHash64::new);
+    private static final long SEED = 0x2545f4914f6cdd1dL;
+
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final int windowBuckets;
+    private final int historyBuckets;
+    private final int minCount;
+    private final double burstFactor;
+    private final int topK;
+
+    // Services are spread over independently locked stripes, each with its own
+    // ring and clock, so ingestion threads working on different services do not
+    // contend. All events of a service land on the same stripe.
+    private final Stripe[] stripes;
+
+    public ClusterBurstDetector(AnalysisConfig analysisConfig) {
+        AnalysisConfig.ClusterBurst config = analysisConfig.getClusterBurst();
+        this.enabled = config.isEnabled();
+        this.bucketMillis = config.getBucketSeconds() * 1000L;
+        this.windowBuckets = Math.max(1, config.getWindowSeconds() / config.getBucketSeconds());
+        this.historyBuckets = Math.max(1, config.getHistorySeconds() / config.getBucketSeconds());
+        this.minCount = config.getMinCount();
+        this.burstFactor = config.getBurstFactor();
+        this.topK = config.getTopK();
+
+        this.stripes = new Stripe[Math.max(1, config.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(windowBuckets + historyBuckets, config.getSketchWidth(), config.getSketchDepth());
+        }
+    }
+
+    /**
+     * Count one error of {@code clusterId} in {@code serviceName} at
+     * {@code timeMillis} and return whether the cluster is bursting.
+     */
+    public boolean record(String serviceName, String clusterId, long timeMillis) {
+        if (!enabled || serviceName == null || clusterId == null) {
+            return false;
+        }
+        long hash = hash(serviceName, clusterId);
+        Stripe stripe = stripe(serviceName);
+        stripe.lock.lock();
+        try {
+            return stripe.record(serviceName, clusterId, hash, timeMillis / bucketMillis);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Clusters dominating {@code serviceName} (or every service when null) right
+     * now, by their count over the recent window.
+     * <p>
+     * Never waits for ingestion: a stripe that is busy contributes the snapshot
+     * taken the last time it was read.
+     */
+    public List<ClusterActivity> topClusters(String serviceName, int limit) {
+        List<ClusterActivity> result = new ArrayList<>();
+        for (Stripe stripe : serviceName != null ? List.of(stripe(serviceName)) : List.of(stripes)) {
+            for (ClusterActivity activity : stripe.snapshot()) {
+                if (serviceName == null || serviceName.equals(activity.serviceName())) {
+                    result.add(activity);
+                }
+            }
+        }
+        result.sort(Comparator.comparingLong(ClusterActivity::recentCount).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private Stripe stripe(String serviceName) {
+        int h = serviceName.hashCode();
+        return stripes[Math.floorMod(h ^ (h >>> 16), stripes.length)];
+    }
+
+    private static long hash(String serviceName, String clusterId) {
+        StreamingHash64 hash = HASH.get().reset(SEED);
+        hash.putChars(serviceName, 0, serviceName.length());
+        hash.putChar('\u0000');
+        hash.putChars(clusterId, 0, clusterId.length());
+        return hash.finish();
+    }
+
+    /**
+     * Ring of sketches and heavy-hitter summaries for the services of one
+     * stripe. Guarded by its lock.
+     */
+    private final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final CountMinSketch[] sketches;
+        private final long[] stamps;
+        private final Map<String, SpaceSavingTopK> topByService = new HashMap<>();
+        private long currentBucket = Long.MIN_VALUE;
+        private long firstBucket = Long.MIN_VALUE;
+        private volatile List<ClusterActivity> snapshot = List.of();
+
+        Stripe(int ring, int sketchWidth, int sketchDepth) {
+            this.sketches = new CountMinSketch[ring];
+            this.stamps = new long[ring];
+            for (int i = 0; i < ring; i++) {
+                sketches[i] = new CountMinSketch(sketchWidth, sketchDepth);
+                stamps[i] = Long.MIN_VALUE;
+            }
+        }
+
+        boolean record(String serviceName, String clusterId, long hash, long bucket) {
+            if (bucket > currentBucket) {
+                advance(bucket);
+            } else if (bucket <= currentBucket - sketches.length) {
+                return false; // older than the ring
+            }
+
+            sketches[slot(bucket)].add(hash);
+            topByService.computeIfAbsent(serviceName, k -> new SpaceSavingTopK(topK)).add(clusterId);
+
+            // Warm up until a full history has been observed
+            if (currentBucket - firstBucket < sketches.length - 1) {
+                return false;
+            }
+            long recent = sum(hash, currentBucket - windowBuckets + 1, currentBucket);
+            long history = sum(hash, currentBucket - sketches.length + 1, currentBucket - windowBuckets);
+            double expected = Math.max(1.0, (double) history * windowBuckets / historyBuckets);
+            return recent >= minCount && recent > burstFactor * expected;
+        }
+
+        /**
+         * Fresh activity when the lock is free, the previous snapshot otherwise.
+         */
+        List<ClusterActivity> snapshot() {
+            if (!lock.tryLock()) {
+                return snapshot;
+            }
+            try {
+                List<ClusterActivity> activities = new ArrayList<>();
+                topByService.forEach((service, top) -> {
+                    for (SpaceSavingTopK.Entry entry : top.top()) {
+                        long hash = hash(service, entry.key);
+                        long recent = sum(hash, currentBucket - windowBuckets + 1, currentBucket);
+                        long history = sum(hash, currentBucket - sketches.length + 1, currentBucket - windowBuckets);
+                        activities.add(new ClusterActivity(service, entry.key, recent, history, entry.count));
+                    }
+                });
+                snapshot = List.copyOf(activities);
+                return snapshot;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void advance(long bucket) {
+            if (currentBucket == Long.MIN_VALUE) {
+                firstBucket = bucket;
+            }
+            long from = currentBucket == Long.MIN_VALUE ? bucket : Math.max(currentBucket + 1, bucket - sketches.length + 1);
+            int decays = 0;
+            for (long b = from; b <= bucket; b++) {
+                int slot = slot(b);
+                sketches[slot].clear();
+                stamps[slot] = b;
+                if (b % windowBuckets == 0) {
+                    decays++;
+                }
+            }
+            if (currentBucket != Long.MIN_VALUE && bucket - currentBucket >= sketches.length) {
+                decays = Math.max(decays, (int) Math.min(64, (bucket - currentBucket) / windowBuckets));
+            }
+            for (int i = 0; i < decays && !topByService.isEmpty(); i++) {
+                topByService.values().forEach(SpaceSavingTopK::decay);
+                topByService.values().removeIf(SpaceSavingTopK::isEmpty);
+            }
+            currentBucket = bucket;
+        }
+
+        private long sum(long hash, long fromBucket, long toBucket) {
+            long total = 0;
+            for (long b = Math.max(fromBucket, currentBucket - sketches.length + 1); b <= toBucket; b++) {
+                int slot = slot(b);
+                if (stamps[slot] == b) {
+                    total += sketches[slot].estimate(hash);
+                }
+            }
+            return total;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) sketches.length);
+        }
+    }
+
+    /**
+     * Estimated occurrences of a cluster over the recent window and the history
+     * before it, and its decayed heavy-hitter count.
+     */
+    public record ClusterActivity(String serviceName, String clusterId, long recentCount, long historyCount,
+            long heavyHitterCount) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import com.company.loganalyzer.model.LogDocument;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live per-cluster statistics maintained by the ingestion path: occurrence
+ * count, first and last seen, affected services and one sample document.
+ * <p>
+ * The registry is bounded. When it grows past the limit, the clusters that have
+ * gone longest without an occurrence are evicted in one pass down to 90% of the
+ * limit, so the eviction cost is amortized over many inserts.
+ */
+@Component
+public class ClusterRegistry {
+
+    private final Map<String, ClusterStats> clusters = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final int maxClusters;
+    private final int maxServicesPerCluster;
+
+    public ClusterRegistry(AnalysisConfig analysisConfig) {
+        this.maxClusters = analysisConfig.getClustering().getRegistryMaxClusters();
+        this.maxServicesPerCluster = analysisConfig.getClustering().getRegistryMaxServices();
+    }
+
+    public void record(LogDocument document) {
+        String clusterId = document.getClusterId();
+        if (clusterId == null || clusterId.isEmpty()) {
+            return;
+        }
+        long time = document.getTimestamp() != null ? document.getTimestamp().toEpochMilli()
+                : System.currentTimeMillis();
+        ClusterStats stats = clusters.computeIfAbsent(clusterId, k -> new ClusterStats(document));
+        stats.add(1, time, time, document.getServiceName(), maxServicesPerCluster);
+        evictIfFull();
+    }
+
+    /**
+     * Fold in aggregated history, e.g. when rebuilding from Elasticsearch.
+     */
+    public void merge(String clusterId, long count, Instant firstSeen, Instant lastSeen,
+            Collection<String> services, LogDocument sample) {
+        ClusterStats stats = clusters.computeIfAbsent(clusterId, k -> new ClusterStats(sample));
+        for (String service : services) {
+            stats.add(0, firstSeen.toEpochMilli(), lastSeen.toEpochMilli(), service, maxServicesPerCluster);
+        }
+        stats.add(count, firstSeen.toEpochMilli(), lastSeen.toEpochMilli(), null, maxServicesPerCluster);
+        evictIfFull();
+    }
+
+    /**
+     * Clusters by occurrence count, most frequent first.
+     */
+    public List<ClusterSummary> topClusters(int limit) {
+        List<ClusterSummary> result = new ArrayList<>(clusters.size());
+        clusters.forEach((clusterId, stats) -> result.add(stats.summary(clusterId)));
+        result.sort(Comparator.comparingLong(ClusterSummary::count).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public int size() {
+        return clusters.size();
+    }
+
+    private void evictIfFull() {
+        if (clusters.size() <= maxClusters || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int excess = clusters.size() - maxClusters * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<String, ClusterStats>> coldest = new ArrayList<>(clusters.entrySet());
+            coldest.sort(Comparator.comparingLong(e -> e.getValue().lastSeen.get()));
+            for (int i = 0; i < excess && i < coldest.size(); i++) {
+                clusters.remove(coldest.get(i).getKey(), coldest.get(i).getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class ClusterStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator firstSeen = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator lastSeen = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final Set<String> services = ConcurrentHashMap.newKeySet();
+        private final LogDocument sample;
+
+        ClusterStats(LogDocument sample) {
+            this.sample = sample;
+        }
+
+        void add(long occurrences, long first, long last, String service, int maxServices) {
+            count.add(occurrences);
+            firstSeen.accumulate(first);
+            lastSeen.accumulate(last);
+            if (service != null && services.size() < maxServices) {
+                services.add(service);
+            }
+        }
+
+        ClusterSummary summary(String clusterId) {
+            List<String> sortedServices = new ArrayList<>(services);
+            Collections.sort(sortedServices);
+            return new ClusterSummary(clusterId, count.sum(), Instant.ofEpochMilli(firstSeen.get()),
+                    Instant.ofEpochMilli(lastSeen.get()), sortedServices, sample);
+        }
+    }
+
+    public record ClusterSummary(String clusterId, long count, Instant firstSeen, Instant lastSeen,
+            List<String> services, LogDocument sample) {
+    }
+}
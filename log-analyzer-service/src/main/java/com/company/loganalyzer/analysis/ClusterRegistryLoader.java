@@ -0,0 +1,110 @@
+package com.company.loganalyzer.analysis;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.company.loganalyzer.config.AnalysisConfig;
+import com.company.loganalyzer.model.LogDocument;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds the {@link ClusterRegistry} from Elasticsearch at startup with one
+ * terms aggregation over {@code clusterId}, so the cluster view survives a
+ * restart. Only aggregates and one sample per cluster are fetched.
+ * <p>
+ * The rebuild runs while the context is being created, before the Kafka
+ * listener containers and the web server start, so every indexed log counts
+ * once: what is in the index now comes from the aggregation, everything
+ * consumed afterwards is recorded live.
+ */
+@Component
+@Profile("!lite")
+public class ClusterRegistryLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterRegistryLoader.class);
+
+    private final ClusterRegistry registry;
+    private final ElasticsearchOperations operations;
+    private final int maxClusters;
+    private final int maxServices;
+
+    public ClusterRegistryLoader(ClusterRegistry registry, ElasticsearchOperations operations,
+            AnalysisConfig analysisConfig) {
+        this.registry = registry;
+        this.operations = operations;
+        this.maxClusters = analysisConfig.getClustering().getRegistryMaxClusters();
+        this.maxServices = analysisConfig.getClustering().getRegistryMaxServices();
+    }
+
+    @PostConstruct
+    void rebuild() {
+        try {
+            int loaded = loadFromElasticsearch();
+            log.info("Rebuilt cluster registry with {} clusters from Elasticsearch", loaded);
+        } catch (Exception e) {
+            log.warn("Could not rebuild cluster registry, it will fill from new logs: {}", e.getMessage());
+        }
+    }
+
+    private int loadFromElasticsearch() {
+        Aggregation clusters = Aggregation.of(a -> a
+                .terms(t -> t.field("clusterId").size(maxClusters))
+                .aggregations("firstSeen", Aggregation.of(s -> s.min(m -> m.field("timestamp"))))
+                .aggregations("lastSeen", Aggregation.of(s -> s.max(m -> m.field("timestamp"))))
+                // Deduplicated documents stand for occurrenceCount lines and end at lastTimestamp
+                .aggregations("occurrences", Aggregation.of(s -> s.sum(m -> m.field("occurrenceCount").missing(1))))
+                .aggregations("lastOccurrence", Aggregation.of(s -> s.max(m -> m.field("lastTimestamp"))))
+                .aggregations("services", Aggregation.of(s -> s.terms(t -> t.field("serviceName").size(maxServices))))
+                .aggregations("sample", Aggregation.of(s -> s.topHits(h -> h.size(1)
+                        .sort(o -> o.field(f -> f.field("timestamp").order(SortOrder.Asc)))))));
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.bool(b -> b
+                        .filter(f -> f.exists(e -> e.field("clusterId")))))
+                .withAggregation("clusters", clusters)
+                .withMaxResults(0)
+                .build();
+
+        SearchHits<LogDocument> hits = operations.search(query, LogDocument.class);
+        if (!(hits.getAggregations() instanceof ElasticsearchAggregations aggregations)) {
+            return 0;
+        }
+        List<StringTermsBucket> buckets = aggregations.get("clusters").aggregation().getAggregate()
+                .sterms().buckets().array();
+        for (StringTermsBucket bucket : buckets) {
+            Map<String, Aggregate> sub = bucket.aggregations();
+            List<String> services = sub.get("services").sterms().buckets().array().stream()
+                    .map(b -> b.key().stringValue())
+                    .toList();
+            LogDocument sample = sub.get("sample").topHits().hits().hits().stream()
+                    .findFirst()
+                    .filter(hit -> hit.source() != null)
+                    .map(hit -> operations.getElasticsearchConverter()
+                            .read(LogDocument.class, Document.parse(hit.source().toJson().toString())))
+                    .orElse(null);
+            double lastSeen = sub.get("lastSeen").max().value();
+            double lastOccurrence = sub.get("lastOccurrence").max().value();
+            if (Double.isFinite(lastOccurrence)) {
+                lastSeen = Math.max(lastSeen, lastOccurrence);
+            }
+            registry.merge(bucket.key().stringValue(), (long) sub.get("occurrences").sum().value(),
+                    Instant.ofEpochMilli((long) sub.get("firstSeen").min().value()),
+                    Instant.ofEpochMilli((long) lastSeen),
+                    services, sample);
+        }
+        return buckets.size();
+    }
+}
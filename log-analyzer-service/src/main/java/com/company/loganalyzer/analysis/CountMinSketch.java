@@ -0,0 +1,58 @@
+package com.company.loganalyzer.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch (Cormode and Muthukrishnan, 2005) over 64-bit key hashes.
+ * <p>
+ * {@code depth} rows of {@code width} counters; row {@code i} indexes with
+ * {@code h1 + i * h2} taken from the two halves of the key hash. Estimates never
+ * undercount, and overcount by at most {@code e / width} of the total with
+ * probability {@code 1 - exp(-depth)}. Updates are conservative: only the rows
+ * holding the current minimum are raised, which tightens estimates for skewed
+ * streams.
+ * <p>
+ * Not thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int[] counters;
+
+    CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.depth = depth;
+        this.counters = new int[width * depth];
+    }
+
+    /**
+     * Add one occurrence of the key and return its new estimate.
+     */
+    int add(long hash) {
+        int estimate = estimate(hash) + 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < depth; i++) {
+            int slot = i * width + Math.floorMod(h1 + i * h2, width);
+            if (counters[slot] < estimate) {
+                counters[slot] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    int estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, counters[i * width + Math.floorMod(h1 + i * h2, width)]);
+        }
+        return min;
+    }
+
+    void clear() {
+        Arrays.fill(counters, 0);
+    }
+}
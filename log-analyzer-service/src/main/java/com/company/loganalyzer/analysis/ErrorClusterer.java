@@ -1,24 +1,129 @@
 package com.company.loganalyzer.analysis;
 
+import com.company.loganalyzer.config.AnalysisConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class ErrorClusterer {
 
+    private static final long PRIMARY_SEED = 0x9747b28c9747b28cL;
+    private static final long CHECK_SEED = 0x5bd1e9955bd1e995L;
+
+    private static final ThreadLocal<StreamingHash64> PRIMARY = ThreadLocal.withInitial(StreamingHash64::new);
+    private static final ThreadLocal<StreamingHash64> CHECK = ThreadLocal.withInitial(StreamingHash64::new);
+
+    private final LogTemplateMiner templateMiner;
+    private final boolean templateStrategy;
+    private final boolean legacyIds;
+    private final int stackFrames;
+
+    // Collision monitor: fingerprint -> independently seeded hash of the same input
+    private final Map<Long, Long> seenFingerprints = new ConcurrentHashMap<>();
+    private final int collisionTrackingLimit;
+    private final Counter collisionCounter;
+
+    public ErrorClusterer(LogTemplateMiner templateMiner, AnalysisConfig analysisConfig,
+            MeterRegistry meterRegistry) {
+        AnalysisConfig.Clustering config = analysisConfig.getClustering();
+        this.templateMiner = templateMiner;
+        this.templateStrategy = "template".equalsIgnoreCase(config.getStrategy());
+        this.legacyIds = "legacy".equalsIgnoreCase(config.getIdFormat());
+        this.stackFrames = config.getStackFrames();
+        this.collisionTrackingLimit = config.getCollisionTrackingLimit();
+        this.collisionCounter = Counter.builder("loganalyzer.cluster.fingerprint.collisions")
+                .description("Distinct cluster inputs observed with the same 64-bit fingerprint")
+                .register(meterRegistry);
+    }
+
     public String generateClusterId(String normalizedMessage, String stackTrace) {
-        String contentToHash = normalizedMessage;
+        // With template mining, messages that only differ in tokens the normalizer
+        // missed share a template and therefore a cluster
+        String key = templateStrategy ? templateMiner.match(normalizedMessage).id() : normalizedMessage;
+        return legacyIds ? legacyClusterId(key, stackTrace) : fingerprintClusterId(key, stackTrace);
+    }
+
+    /**
+     * Number of leading stack trace lines that contribute to a cluster id.
+     */
+    public int getStackFrames() {
+        return stackFrames;
+    }
+
+    public long getCollisionCount() {
+        return (long) collisionCounter.count();
+    }
+
+    /**
+     * Hashes the key and the first stack frames in one pass over the characters,
+     * without splitting the trace or building the concatenated input.
+     */
+    private String fingerprintClusterId(String key, String stackTrace) {
+        StreamingHash64 primary = PRIMARY.get().reset(PRIMARY_SEED);
+        StreamingHash64 check = collisionTrackingLimit > 0 ? CHECK.get().reset(CHECK_SEED) : null;
+
+        feed(primary, check, key, 0, key.length());
+        if (stackTrace != null && !stackTrace.isEmpty()) {
+            // Same input as the legacy id: the first N lines with their newlines dropped
+            int lineStart = 0;
+            int lines = 0;
+            int length = stackTrace.length();
+            while (lineStart < length && lines < stackFrames) {
+                int lineEnd = stackTrace.indexOf('\n', lineStart);
+                if (lineEnd < 0) {
+                    lineEnd = length;
+                }
+                feed(primary, check, stackTrace, lineStart, lineEnd);
+                lineStart = lineEnd + 1;
+                lines++;
+            }
+        }
+
+        long fingerprint = primary.finish();
+        if (check != null) {
+            monitorCollision(fingerprint, check.finish());
+        }
+        return HexFormat.of().toHexDigits(fingerprint);
+    }
+
+    private static void feed(StreamingHash64 primary, StreamingHash64 check, String chars, int from, int to) {
+        primary.putChars(chars, from, to);
+        if (check != null) {
+            check.putChars(chars, from, to);
+        }
+    }
+
+    private void monitorCollision(long fingerprint, long checkHash) {
+        Long previous = seenFingerprints.get(fingerprint);
+        if (previous == null) {
+            if (seenFingerprints.size() < collisionTrackingLimit) {
+                seenFingerprints.putIfAbsent(fingerprint, checkHash);
+            }
+        } else if (previous != checkHash) {
+            collisionCounter.increment();
+        }
+    }
+
+    /**
+     * Original SHA-256 based id, kept so existing cluster ids can be reproduced
+     * while dashboards and stored documents migrate.
+     */
+    private String legacyClusterId(String key, String stackTrace) {
+        String contentToHash = key;
 
         if (stackTrace != null && !stackTrace.isEmpty()) {
-            // Take the first 3 lines of the stack trace effectively
+            // Take the first N lines of the stack trace effectively
             String[] lines = stackTrace.split("\n");
-            StringBuilder sb = new StringBuilder(normalizedMessage);
-            for (int i = 0; i < Math.min(lines.length, 3); i++) {
+            StringBuilder sb = new StringBuilder(key);
+            for (int i = 0; i < Math.min(lines.length, stackFrames); i++) {
                 sb.append(lines[i]);
             }
             contentToHash = sb.toString();
@@ -0,0 +1,170 @@
+package com.company.loganalyzer.analysis;
+
+/**
+ * Incremental error-rate baseline for one (service, level) series.
+ * <p>
+ * Events are counted per fixed interval. When an interval closes, its count
+ * updates an exponentially weighted mean and variance (and, if seasonal, the
+ * mean and variance of the interval's hour of day) and a one-sided CUSUM of the
+ * standardized deviations. The running count of the open interval is scored
+ * against the same state, so a burst is flagged while it happens rather than
+ * when its interval closes. State is a fixed number of fields per series.
+ */
+final class ErrorRateBaseline {
+
+    private static final int HOURS = 24;
+
+    private long interval = Long.MIN_VALUE;
+    private long count;
+
+    private long samples;
+    private double mean;
+    private double variance;
+    private double cusum;
+
+    // Hour-of-day (UTC) profile, null unless seasonal
+    private final double[] seasonalMean;
+    private final double[] seasonalVariance;
+    private final long[] seasonalSamples;
+
+    private boolean dirty;
+
+    ErrorRateBaseline(boolean seasonal) {
+        this.seasonalMean = seasonal ? new double[HOURS] : null;
+        this.seasonalVariance = seasonal ? new double[HOURS] : null;
+        this.seasonalSamples = seasonal ? new long[HOURS] : null;
+    }
+
+    /**
+     * Count one event in {@code interval} and score the open interval, or return
+     * {@link Score#LEARNING} while the baseline is still learning. Events for
+     * intervals that already closed are not counted.
+     */
+    synchronized Score observe(long interval, Parameters p) {
+        if (interval < this.interval) {
+            return Score.LEARNING;
+        }
+        if (interval > this.interval) {
+            roll(interval, p);
+        }
+        count++;
+        dirty = true;
+
+        int hour = hourOf(interval, p);
+        boolean useSeasonal = seasonalSamples != null && seasonalSamples[hour] >= p.minSamples();
+        if (!useSeasonal && samples < p.minSamples()) {
+            return Score.LEARNING;
+        }
+        double expected = useSeasonal ? seasonalMean[hour] : mean;
+        double stdDev = stdDev(expected, useSeasonal ? seasonalVariance[hour] : variance, p);
+        double z = (count - expected) / stdDev;
+        return new Score(z, Math.max(0, cusum + z - p.cusumSlack()));
+    }
+
+    /**
+     * Close the open interval and any empty intervals up to {@code next}.
+     */
+    private void roll(long next, Parameters p) {
+        if (this.interval != Long.MIN_VALUE) {
+            close(this.interval, count, p);
+            long gap = Math.min(next - this.interval - 1, p.maxGapIntervals());
+            for (long i = next - gap; i < next; i++) {
+                close(i, 0, p);
+            }
+        }
+        this.interval = next;
+        this.count = 0;
+    }
+
+    private void close(long interval, long observed, Parameters p) {
+        int hour = hourOf(interval, p);
+        boolean useSeasonal = seasonalSamples != null && seasonalSamples[hour] >= p.minSamples();
+        if (useSeasonal || samples >= p.minSamples()) {
+            double expected = useSeasonal ? seasonalMean[hour] : mean;
+            double stdDev = stdDev(expected, useSeasonal ? seasonalVariance[hour] : variance, p);
+            cusum = Math.max(0, cusum + (observed - expected) / stdDev - p.cusumSlack());
+            if (cusum > p.cusumThreshold()) {
+                cusum = 0; // change point reported, restart accumulation
+            }
+        }
+
+        if (samples == 0) {
+            mean = observed;
+        } else {
+            double diff = observed - mean;
+            double increment = p.alpha() * diff;
+            mean += increment;
+            variance = (1 - p.alpha()) * (variance + diff * increment);
+        }
+        samples++;
+
+        if (seasonalSamples != null) {
+            if (seasonalSamples[hour] == 0) {
+                seasonalMean[hour] = observed;
+            } else {
+                double diff = observed - seasonalMean[hour];
+                double increment = p.seasonalAlpha() * diff;
+                seasonalMean[hour] += increment;
+                seasonalVariance[hour] = (1 - p.seasonalAlpha()) * (seasonalVariance[hour] + diff * increment);
+            }
+            seasonalSamples[hour]++;
+        }
+    }
+
+    /**
+     * Learned deviation, floored at the Poisson deviation of the expected count so
+     * a very regular series does not flag every small wobble.
+     */
+    private static double stdDev(double expected, double variance, Parameters p) {
+        return Math.max(Math.sqrt(variance), Math.max(p.minStdDev(), Math.sqrt(expected)));
+    }
+
+    private static int hourOf(long interval, Parameters p) {
+        return (int) Math.floorMod(interval * p.intervalMillis() / 3_600_000L, (long) HOURS);
+    }
+
+    synchronized Snapshot snapshotIfDirty() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return new Snapshot(interval, count, samples, mean, variance, cusum,
+                seasonalMean == null ? null : seasonalMean.clone(),
+                seasonalVariance == null ? null : seasonalVariance.clone(),
+                seasonalSamples == null ? null : seasonalSamples.clone());
+    }
+
+    synchronized void restore(Snapshot snapshot) {
+        this.interval = snapshot.interval();
+        this.count = snapshot.count();
+        this.samples = snapshot.samples();
+        this.mean = snapshot.mean();
+        this.variance = snapshot.variance();
+        this.cusum = snapshot.cusum();
+        if (seasonalSamples != null && snapshot.seasonalSamples() != null
+                && snapshot.seasonalSamples().length == HOURS) {
+            System.arraycopy(snapshot.seasonalMean(), 0, seasonalMean, 0, HOURS);
+            System.arraycopy(snapshot.seasonalVariance(), 0, seasonalVariance, 0, HOURS);
+            System.arraycopy(snapshot.seasonalSamples(), 0, seasonalSamples, 0, HOURS);
+        }
+    }
+
+    /**
+     * Z-score of the open interval and the CUSUM it would reach if it closed now.
+     */
+    record Score(double z, double cusum) {
+        static final Score LEARNING = new Score(Double.NaN, Double.NaN);
+
+        boolean isLearning() {
+            return Double.isNaN(z);
+        }
+    }
+
+    record Parameters(long intervalMillis, double alpha, double seasonalAlpha, int minSamples,
+            double minStdDev, double cusumSlack, double cusumThreshold, long maxGapIntervals) {
+    }
+
+    record Snapshot(long interval, long count, long samples, double mean, double variance, double cusum,
+            double[] seasonalMean, double[] seasonalVariance, long[] seasonalSamples) {
+    }
+}
@@ -4,9 +4,29 @@ import org.springframework.stereotype.Component;
 
 import java.util.regex.Pattern;
 
+/**
+ * Replaces variable tokens (UUIDs, IPv4 addresses, numbers) with placeholders so
+ * that messages differing only in those tokens cluster together.
+ * <p>
+ * The scanner walks the message left to right once, with a look-ahead pointer to
+ * the next UUID, and produces exactly the output of the original three regex
+ * passes (see {@link #normalizeWithRegex}): UUIDs are matched first, IPs are then
+ * matched between UUIDs, and the remaining digit runs become {@code <NUM>}.
+ * Messages without any token are returned as-is; otherwise the result is built in
+ * a per-thread reusable buffer.
+ */
 @Component
 public class LogNormalizer {
 
+    private static final String UUID_TOKEN = "<UUID>";
+    private static final String IP_TOKEN = "<IP>";
+    private static final String NUM_TOKEN = "<NUM>";
+    private static final int UUID_LENGTH = 36;
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    // Reference implementation, kept for parity tests
     private static final Pattern UUID_PATTERN = Pattern
             .compile("[a-fA-F0-9]{8}-[a-fA-F0-9]{4}-[a-fA-F0-9]{4}-[a-fA-F0-9]{4}-[a-fA-F0-9]{12}");
     private static final Pattern IP_PATTERN = Pattern.compile("\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}");
@@ -16,9 +36,158 @@ public class LogNormalizer {
         if (message == null) {
             return "";
         }
+
+        int length = message.length();
+        StringBuilder out = null;
+        int copied = 0; // message[0, copied) is already reflected in out
+        int pos = 0;
+
+        while (pos < length) {
+            // Segment up to the next UUID; IPs and numbers never span a UUID
+            int uuidStart = findUuid(message, pos, length);
+            int i = pos;
+
+            while (i < uuidStart) {
+                if (!isDigit(message.charAt(i))) {
+                    i++;
+                    continue;
+                }
+
+                int runEnd = digitRunEnd(message, i, uuidStart);
+                // An IP's first octet is the last 1-3 digits of a run followed by '.',
+                // and the remaining octets do not depend on where it started.
+                int ipEnd = matchIpTail(message, runEnd, uuidStart);
+                int numEnd = runEnd;
+                if (ipEnd > 0) {
+                    numEnd = Math.max(i, runEnd - 3);
+                }
+
+                if (out == null) {
+                    out = startBuffer(message, i);
+                } else {
+                    out.append(message, copied, i);
+                }
+                if (numEnd > i) {
+                    out.append(NUM_TOKEN);
+                }
+                if (ipEnd > 0) {
+                    out.append(IP_TOKEN);
+                    i = ipEnd;
+                } else {
+                    i = runEnd;
+                }
+                copied = i;
+            }
+
+            if (uuidStart == length) {
+                break;
+            }
+            if (out == null) {
+                out = startBuffer(message, uuidStart);
+            } else {
+                out.append(message, copied, uuidStart);
+            }
+            out.append(UUID_TOKEN);
+            pos = uuidStart + UUID_LENGTH;
+            copied = pos;
+        }
+
+        if (out == null) {
+            return message;
+        }
+        out.append(message, copied, length);
+        String result = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Original regex implementation. Produces the same output as {@link #normalize}.
+     */
+    static String normalizeWithRegex(String message) {
+        if (message == null) {
+            return "";
+        }
         String normalized = UUID_PATTERN.matcher(message).replaceAll("<UUID>");
         normalized = IP_PATTERN.matcher(normalized).replaceAll("<IP>");
         normalized = NUMBER_PATTERN.matcher(normalized).replaceAll("<NUM>");
         return normalized;
     }
+
+    private static StringBuilder startBuffer(String message, int upTo) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        out.append(message, 0, upTo);
+        return out;
+    }
+
+    /**
+     * Leftmost UUID starting at or after {@code from}, or {@code length} if none.
+     */
+    private static int findUuid(String s, int from, int length) {
+        for (int p = from; p <= length - UUID_LENGTH; p++) {
+            // Check the dash positions first, they reject almost every candidate
+            if (s.charAt(p + 8) == '-' && s.charAt(p + 13) == '-' && s.charAt(p + 18) == '-'
+                    && s.charAt(p + 23) == '-' && isUuidAt(s, p)) {
+                return p;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isUuidAt(String s, int p) {
+        for (int k = 0; k < UUID_LENGTH; k++) {
+            if (k == 8 || k == 13 || k == 18 || k == 23) {
+                continue;
+            }
+            if (!isHex(s.charAt(p + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches ".d{1,3}.d{1,3}.d{1,3}" starting at {@code p}, the end of an IP's first
+     * octet. Returns the end of the IP (the last octet is capped at 3 digits like the
+     * greedy regex), or -1.
+     */
+    private static int matchIpTail(String s, int p, int end) {
+        for (int octet = 2; octet <= 4; octet++) {
+            if (p >= end || s.charAt(p) != '.') {
+                return -1;
+            }
+            p++;
+            int digits = digitRunEnd(s, p, end) - p;
+            if (digits == 0) {
+                return -1;
+            }
+            if (octet < 4) {
+                if (digits > 3) {
+                    return -1;
+                }
+                p += digits;
+            } else {
+                p += Math.min(digits, 3);
+            }
+        }
+        return p;
+    }
+
+    private static int digitRunEnd(String s, int p, int end) {
+        while (p < end && isDigit(s.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
 }
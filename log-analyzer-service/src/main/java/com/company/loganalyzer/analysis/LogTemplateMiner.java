@@ -0,0 +1,282 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Online log template miner based on Drain (He et al., ICWS 2017).
+ * <p>
+ * Messages are routed through a fixed-depth parse tree: below the root, the first
+ * level is the token count, the next {@code depth - 3} levels are the leading
+ * tokens (tokens containing digits go to a wildcard branch), and the last level
+ * is the leaf. The leaf holds candidate templates; the most similar one absorbs
+ * the message if its similarity reaches the threshold, turning differing
+ * positions into {@code <*>}. Otherwise a new template is created.
+ * <p>
+ * A template id is derived from where the template lives, not from the message
+ * that created it: the token count, the routing keys of its leaf and its ordinal
+ * within that leaf (the lowest one free when it was created). It survives
+ * generalization, and a leaf holding a single template yields the same id after
+ * a restart, on another instance or after eviction. When several templates share
+ * a leaf, their ordinals follow arrival order, so only those ids are per-process.
+ * <p>
+ * Matching locks the subtree of the message's token count only, so workers
+ * handling messages of different lengths do not contend. The number of templates
+ * is bounded; the least recently matched template is evicted when the limit is
+ * reached.
+ */
+@Component
+public class LogTemplateMiner {
+
+    public static final String WILDCARD = "<*>";
+
+    private final int prefixDepth;
+    private final double similarityThreshold;
+    private final int maxChildren;
+    private final int maxTemplates;
+
+    // Each length node guards its whole subtree, including the templates of its leaves
+    private final Map<Integer, Node> lengthNodes = new ConcurrentHashMap<>();
+    // Access-ordered, so iteration starts at the least recently matched template.
+    // Guarded by its own monitor, which is never held while taking a subtree lock.
+    private final LinkedHashMap<LogTemplate, LogTemplate> templates = new LinkedHashMap<>(256, 0.75f, true);
+
+    public LogTemplateMiner(AnalysisConfig analysisConfig) {
+        AnalysisConfig.Clustering config = analysisConfig.getClustering();
+        this.prefixDepth = Math.max(0, config.getTemplateDepth() - 3);
+        this.similarityThreshold = config.getSimilarityThreshold();
+        this.maxChildren = config.getMaxChildren();
+        this.maxTemplates = config.getMaxTemplates();
+    }
+
+    /**
+     * Assign a message to a template, creating or generalizing templates as needed.
+     */
+    public LogTemplate match(String message) {
+        String[] tokens = tokenize(message);
+        Node root = lengthNodes.computeIfAbsent(tokens.length,
+                length -> new Node(String.valueOf(length)));
+
+        LogTemplate matched;
+        boolean created = false;
+        synchronized (root) {
+            Node leaf = descend(root, tokens);
+
+            LogTemplate best = null;
+            double bestSimilarity = -1;
+            int bestWildcards = -1;
+            for (LogTemplate candidate : leaf.templates) {
+                double similarity = candidate.similarity(tokens);
+                int wildcards = candidate.wildcardCount();
+                if (similarity > bestSimilarity || (similarity == bestSimilarity && wildcards > bestWildcards)) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                    bestWildcards = wildcards;
+                }
+            }
+
+            if (best != null && bestSimilarity >= similarityThreshold) {
+                best.merge(tokens);
+                matched = best;
+            } else {
+                int ordinal = freeOrdinal(leaf);
+                matched = new LogTemplate(templateId(leaf.path, ordinal), ordinal, tokens, root, leaf);
+                leaf.templates.add(matched);
+                created = true;
+            }
+        }
+
+        LogTemplate eldest = null;
+        synchronized (templates) {
+            if (created) {
+                templates.put(matched, matched);
+                if (templates.size() > maxTemplates) {
+                    Iterator<LogTemplate> it = templates.keySet().iterator();
+                    eldest = it.next();
+                    it.remove();
+                }
+            } else {
+                // Touch for LRU; a template evicted concurrently is not re-added
+                templates.get(matched);
+            }
+        }
+        if (eldest != null) {
+            synchronized (eldest.root) {
+                eldest.leaf.templates.remove(eldest);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Snapshot of current templates, most frequent first.
+     */
+    public List<TemplateSummary> getTemplates() {
+        List<LogTemplate> snapshot;
+        synchronized (templates) {
+            snapshot = new ArrayList<>(templates.keySet());
+        }
+        List<TemplateSummary> result = new ArrayList<>(snapshot.size());
+        for (LogTemplate template : snapshot) {
+            result.add(new TemplateSummary(template.id(), template.text(), template.size()));
+        }
+        result.sort(Comparator.comparingLong(TemplateSummary::count).reversed());
+        return result;
+    }
+
+    public int size() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    private Node descend(Node root, String[] tokens) {
+        Node node = root;
+        // The last token is never used for routing, it is too often a parameter
+        int levels = Math.min(prefixDepth, tokens.length - 1);
+        for (int level = 0; level < levels; level++) {
+            String token = tokens[level];
+            Node child = node.children.get(token);
+            if (child == null) {
+                String key = hasDigit(token) || node.children.size() >= maxChildren ? WILDCARD : token;
+                Node parent = node;
+                child = node.children.computeIfAbsent(key, k -> new Node(parent.path + " " + k));
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private static int freeOrdinal(Node leaf) {
+        BitSet used = new BitSet();
+        for (LogTemplate template : leaf.templates) {
+            used.set(template.ordinal);
+        }
+        return used.nextClearBit(0);
+    }
+
+    private static String[] tokenize(String message) {
+        List<String> tokens = new ArrayList<>();
+        int length = message.length();
+        int start = -1;
+        for (int i = 0; i < length; i++) {
+            if (Character.isWhitespace(message.charAt(i))) {
+                if (start >= 0) {
+                    tokens.add(message.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(message.substring(start));
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static boolean hasDigit(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isDigit(token.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String templateId(String leafPath, int ordinal) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((leafPath + "#" + ordinal).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not found", e);
+        }
+    }
+
+    private static final class Node {
+        // Token count followed by the routing keys taken to reach this node
+        private final String path;
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<LogTemplate> templates = new ArrayList<>(2);
+
+        private Node(String path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * A mined template. Callers may keep a reference outside the miner's locks, so
+     * its mutable state is guarded by its own monitor.
+     */
+    public static final class LogTemplate {
+        private final String id;
+        private final int ordinal;
+        private final String[] tokens;
+        private final Node root;
+        private final Node leaf;
+        private long size;
+
+        private LogTemplate(String id, int ordinal, String[] tokens, Node root, Node leaf) {
+            this.id = id;
+            this.ordinal = ordinal;
+            this.tokens = tokens.clone();
+            this.root = root;
+            this.leaf = leaf;
+            this.size = 1;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public synchronized String text() {
+            return String.join(" ", tokens);
+        }
+
+        public synchronized long size() {
+            return size;
+        }
+
+        private double similarity(String[] other) {
+            if (tokens.length == 0) {
+                return 1.0;
+            }
+            int same = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                if (!WILDCARD.equals(tokens[i]) && tokens[i].equals(other[i])) {
+                    same++;
+                }
+            }
+            return (double) same / tokens.length;
+        }
+
+        private int wildcardCount() {
+            int count = 0;
+            for (String token : tokens) {
+                if (WILDCARD.equals(token)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private synchronized void merge(String[] other) {
+            for (int i = 0; i < tokens.length; i++) {
+                if (!tokens[i].equals(other[i])) {
+                    tokens[i] = WILDCARD;
+                }
+            }
+            size++;
+        }
+    }
+
+    public record TemplateSummary(String templateId, String template, long count) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers "has this service logged this cluster before" in constant time.
+ * <p>
+ * Each service has a chain of Bloom filters, one per time generation. A cluster
+ * is known if any generation contains it, and every sighting is recorded in the
+ * current generation, so patterns that keep occurring stay known while patterns
+ * unseen for all generations age out. Nothing is reported as new until the
+ * filters have been restored or warmed, so a cold start does not flag every
+ * cluster.
+ */
+@Component
+public class NewPatternDetector {
+
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final ThreadLocal<StreamingHash64> HASH = ThreadLocal.withInitial(StreamingHash64::new);
+    private static final long SEED = 0x6a09e667f3bcc909L;
+
+    private final Map<String, ServiceFilters> services = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int expectedPatterns;
+    private final double falsePositiveRate;
+    private final int generations;
+    private final long generationMillis;
+    private final Counter newPatterns;
+    private volatile boolean ready;
+
+    public NewPatternDetector(AnalysisConfig analysisConfig, MeterRegistry meterRegistry) {
+        AnalysisConfig.NewPattern config = analysisConfig.getNewPattern();
+        this.enabled = config.isEnabled();
+        this.expectedPatterns = config.getExpectedPatterns();
+        this.falsePositiveRate = config.getFalsePositiveRate();
+        this.generations = Math.max(1, config.getGenerations());
+        this.generationMillis = config.getGenerationHours() * 3_600_000L;
+        this.newPatterns = Counter.builder("loganalyzer.patterns.new")
+                .description("Clusters seen for the first time in their service")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a sighting of {@code clusterId} in {@code serviceName} and return
+     * whether it is the first one.
+     */
+    public boolean observe(String serviceName, String clusterId) {
+        return observe(serviceName, clusterId, System.currentTimeMillis());
+    }
+
+    boolean observe(String serviceName, String clusterId, long nowMillis) {
+        if (!enabled || serviceName == null || clusterId == null) {
+            return false;
+        }
+        boolean firstSeen = services.computeIfAbsent(serviceName, k -> new ServiceFilters())
+                .observe(hash(clusterId), nowMillis);
+        if (firstSeen && ready) {
+            newPatterns.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record a known pattern without reporting it, e.g. when warming from
+     * stored logs.
+     */
+    public void remember(String serviceName, String clusterId) {
+        if (serviceName != null && clusterId != null) {
+            services.computeIfAbsent(serviceName, k -> new ServiceFilters())
+                    .observe(hash(clusterId), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Start reporting new patterns; called once the filters hold the known ones.
+     */
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(services.size());
+        for (Map.Entry<String, ServiceFilters> entry : services.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    /**
+     * Replace the filters with a snapshot. Returns false, leaving the filters
+     * untouched, if the snapshot was written with a different filter size.
+     */
+    boolean readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_VERSION) {
+            return false;
+        }
+        int expectedWords = BloomFilter.create(expectedPatterns, falsePositiveRate).words().length;
+        Map<String, ServiceFilters> restored = new ConcurrentHashMap<>();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String service = in.readUTF();
+            ServiceFilters filters = readFilters(in, expectedWords);
+            if (filters == null) {
+                return false;
+            }
+            restored.put(service, filters);
+        }
+        services.clear();
+        services.putAll(restored);
+        return true;
+    }
+
+    public int serviceCount() {
+        return services.size();
+    }
+
+    private ServiceFilters readFilters(DataInputStream in, int expectedWords) throws IOException {
+        ServiceFilters filters = new ServiceFilters();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long startMillis = in.readLong();
+            int length = in.readInt();
+            if (length != expectedWords) {
+                return null;
+            }
+            long[] words = new long[length];
+            for (int w = 0; w < length; w++) {
+                words[w] = in.readLong();
+            }
+            if (filters.chain.size() < generations) {
+                int hashes = BloomFilter.optimalHashes(expectedPatterns, (long) length * Long.SIZE);
+                filters.chain.addLast(new Generation(startMillis, new BloomFilter(words, hashes)));
+            }
+        }
+        return filters;
+    }
+
+    private static long hash(String clusterId) {
+        StreamingHash64 hash = HASH.get().reset(SEED);
+        hash.putChars(clusterId, 0, clusterId.length());
+        return hash.finish();
+    }
+
+    /**
+     * Generations of one service, newest first.
+     */
+    private final class ServiceFilters {
+
+        private final Deque<Generation> chain = new ArrayDeque<>();
+
+        synchronized boolean observe(long hash, long nowMillis) {
+            Generation current = chain.peekFirst();
+            if (current == null || nowMillis - current.startMillis >= generationMillis) {
+                current = new Generation(nowMillis, BloomFilter.create(expectedPatterns, falsePositiveRate));
+                chain.addFirst(current);
+                while (chain.size() > generations) {
+                    chain.removeLast();
+                }
+            }
+            if (current.filter.mightContain(hash)) {
+                return false;
+            }
+            current.filter.put(hash);
+            for (Generation generation : chain) {
+                if (generation != current && generation.filter.mightContain(hash)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(chain.size());
+            for (Generation generation : chain) {
+                long[] words = generation.filter.words();
+                out.writeLong(generation.startMillis);
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+        }
+    }
+
+    private record Generation(long startMillis, BloomFilter filter) {
+    }
+}
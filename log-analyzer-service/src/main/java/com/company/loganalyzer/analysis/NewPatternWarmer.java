@@ -0,0 +1,154 @@
+package com.company.loganalyzer.analysis;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregationSource;
+import co.elastic.clients.elasticsearch._types.aggregations.CompositeBucket;
+import com.company.loganalyzer.config.AnalysisConfig;
+import com.company.loganalyzer.model.LogDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the {@link NewPatternDetector} filters at startup, from the last
+ * snapshot on disk or, failing that, from the distinct error clusters stored in
+ * Elasticsearch, and snapshots them periodically and at shutdown.
+ * <p>
+ * Warming runs while the context is being created, before the Kafka listener
+ * containers start, so no live sighting is absorbed into the filters while the
+ * detector is not yet reporting.
+ */
+@Component
+@Profile("!lite")
+public class NewPatternWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(NewPatternWarmer.class);
+    private static final int PAGE_SIZE = 1000;
+
+    private final NewPatternDetector detector;
+    private final ElasticsearchOperations operations;
+    private final Path snapshotPath;
+    private final int warmupDays;
+
+    public NewPatternWarmer(NewPatternDetector detector, ElasticsearchOperations operations,
+            AnalysisConfig analysisConfig) {
+        this.detector = detector;
+        this.operations = operations;
+        this.snapshotPath = Path.of(analysisConfig.getNewPattern().getSnapshotPath());
+        this.warmupDays = analysisConfig.getNewPattern().getWarmupDays();
+    }
+
+    @PostConstruct
+    void warm() {
+        try {
+            if (restoreSnapshot()) {
+                log.info("Restored seen-pattern filters for {} services from {}", detector.serviceCount(),
+                        snapshotPath);
+            } else {
+                long patterns = warmFromElasticsearch();
+                log.info("Warmed seen-pattern filters with {} clusters from the last {} days", patterns, warmupDays);
+            }
+        } catch (Exception e) {
+            log.warn("Could not warm seen-pattern filters, patterns of the warm-up period may be reported as new: {}",
+                    e.getMessage());
+        } finally {
+            detector.markReady();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.new-pattern.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!detector.isReady()) {
+            return;
+        }
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "new-patterns", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                detector.writeTo(out);
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to snapshot seen-pattern filters to {}", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshot();
+    }
+
+    private boolean restoreSnapshot() throws IOException {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (detector.readFrom(in)) {
+                return true;
+            }
+        } catch (EOFException e) {
+            log.warn("Seen-pattern snapshot {} is truncated", snapshotPath);
+            return false;
+        }
+        log.warn("Seen-pattern snapshot {} does not match the configured filter size", snapshotPath);
+        return false;
+    }
+
+    /**
+     * Pages through the distinct (service, cluster) pairs of recent errors with a
+     * composite aggregation, so no documents are fetched.
+     */
+    private long warmFromElasticsearch() {
+        long patterns = 0;
+        Map<String, FieldValue> afterKey = null;
+        do {
+            Map<String, FieldValue> after = afterKey;
+            Aggregation aggregation = Aggregation.of(a -> a.composite(c -> {
+                c.size(PAGE_SIZE).sources(List.of(
+                        Map.of("service", CompositeAggregationSource.of(s -> s.terms(t -> t.field("serviceName")))),
+                        Map.of("cluster", CompositeAggregationSource.of(s -> s.terms(t -> t.field("clusterId"))))));
+                if (after != null) {
+                    c.after(after);
+                }
+                return c;
+            }));
+            NativeQuery query = NativeQuery.builder()
+                    .withQuery(q -> q.bool(b -> b
+                            .filter(f -> f.term(t -> t.field("level").value("ERROR")))
+                            .filter(f -> f.range(r -> r.date(d -> d.field("timestamp").gte("now-" + warmupDays + "d"))))))
+                    .withAggregation("patterns", aggregation)
+                    .withMaxResults(0)
+                    .build();
+
+            SearchHits<LogDocument> hits = operations.search(query, LogDocument.class);
+            if (!(hits.getAggregations() instanceof ElasticsearchAggregations aggregations)) {
+                break;
+            }
+            CompositeAggregate composite = aggregations.get("patterns").aggregation().getAggregate().composite();
+            for (CompositeBucket bucket : composite.buckets().array()) {
+                detector.remember(bucket.key().get("service").stringValue(), bucket.key().get("cluster").stringValue());
+                patterns++;
+            }
+            afterKey = composite.buckets().array().isEmpty() ? null : composite.afterKey();
+        } while (afterKey != null && !afterKey.isEmpty());
+        return patterns;
+    }
+}
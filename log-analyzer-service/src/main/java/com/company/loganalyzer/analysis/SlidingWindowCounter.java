@@ -0,0 +1,82 @@
+package com.company.loganalyzer.analysis;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free sliding window counter over a fixed ring of time buckets.
+ * <p>
+ * Each slot packs the bucket number it belongs to (high 32 bits) and its count
+ * (low 32 bits) into one long, so recycling a stale slot and incrementing it is a
+ * single CAS and no increment is lost to a concurrent reset. Memory is fixed at
+ * one long per bucket regardless of the event rate.
+ * <p>
+ * The ring can retain more buckets than the window spans, so events arriving
+ * slightly out of order still land in the bucket of their own timestamp. Events
+ * older than the retention are ignored.
+ */
+final class SlidingWindowCounter {
+
+    private static final long COUNT_MASK = 0xffffffffL;
+
+    private final long bucketMillis;
+    private final int windowBuckets;
+    private final int buckets;
+    private final AtomicLongArray slots;
+
+    SlidingWindowCounter(long windowMillis, long bucketMillis) {
+        this(windowMillis, windowMillis, bucketMillis);
+    }
+
+    SlidingWindowCounter(long windowMillis, long retentionMillis, long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+        this.windowBuckets = (int) Math.max(1, windowMillis / bucketMillis);
+        this.buckets = (int) Math.max(windowBuckets, retentionMillis / bucketMillis);
+        this.slots = new AtomicLongArray(buckets);
+    }
+
+    /**
+     * Count one event at {@code timeMillis} and return the total in the window
+     * ending at that time, including this event.
+     */
+    long incrementAndSum(long timeMillis) {
+        long bucket = timeMillis / bucketMillis;
+        int index = (int) Math.floorMod(bucket, (long) buckets);
+        long stamp = bucket & COUNT_MASK;
+
+        while (true) {
+            long current = slots.get(index);
+            long next;
+            if ((current >>> 32) == stamp) {
+                next = current + 1;
+            } else if ((current & COUNT_MASK) == 0 || (int) (stamp - (current >>> 32)) > 0) {
+                next = (stamp << 32) | 1;
+            } else {
+                // Slot already holds a newer bucket: this event is beyond retention
+                break;
+            }
+            if (slots.compareAndSet(index, current, next)) {
+                break;
+            }
+        }
+        return sumBuckets(bucket);
+    }
+
+    /**
+     * Total in the window ending at {@code timeMillis}.
+     */
+    long sum(long timeMillis) {
+        return sumBuckets(timeMillis / bucketMillis);
+    }
+
+    private long sumBuckets(long bucket) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long slot = slots.get(i);
+            long age = (bucket - (slot >>> 32)) & COUNT_MASK;
+            if (age < windowBuckets) {
+                total += slot & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,85 @@
+package com.company.loganalyzer.analysis;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter summary (Metwally et al., 2005) with {@code k}
+ * counters.
+ * <p>
+ * A key that is not tracked replaces the key with the smallest count and
+ * inherits that count as its error bound, so any key occurring more than
+ * {@code total / k} times is guaranteed to be tracked. Counts can be decayed so
+ * the summary follows the recent stream rather than all history.
+ * <p>
+ * Not thread-safe.
+ */
+final class SpaceSavingTopK {
+
+    private final int k;
+    private final Map<String, Entry> entries;
+
+    SpaceSavingTopK(int k) {
+        this.k = k;
+        this.entries = new HashMap<>(k * 2);
+    }
+
+    void add(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.count++;
+            return;
+        }
+        if (entries.size() < k) {
+            entries.put(key, new Entry(key, 1, 0));
+            return;
+        }
+        Entry min = null;
+        for (Entry candidate : entries.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        entries.remove(min.key);
+        entries.put(key, new Entry(key, min.count + 1, min.count));
+    }
+
+    /**
+     * Halve every count, dropping keys that reach zero.
+     */
+    void decay() {
+        entries.values().removeIf(entry -> {
+            entry.count >>= 1;
+            entry.error >>= 1;
+            return entry.count == 0;
+        });
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Tracked keys, most frequent first.
+     */
+    List<Entry> top() {
+        List<Entry> top = new ArrayList<>(entries.values());
+        top.sort(Comparator.comparingLong((Entry e) -> e.count).reversed());
+        return top;
+    }
+
+    static final class Entry {
+        final String key;
+        long count;
+        long error;
+
+        Entry(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
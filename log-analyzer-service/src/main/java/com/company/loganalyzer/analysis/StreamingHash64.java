@@ -0,0 +1,69 @@
+package com.company.loganalyzer.analysis;
+
+/**
+ * Incremental 64-bit non-cryptographic hash using the MurmurHash3 x64 mixing
+ * functions. Characters are packed four at a time into 64-bit blocks, so callers
+ * can feed several sources without concatenating them first.
+ * <p>
+ * Not thread-safe; use one instance per thread and {@link #reset} between values.
+ */
+final class StreamingHash64 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long hash;
+    private long block;
+    private int filled;
+    private long length;
+
+    StreamingHash64 reset(long seed) {
+        hash = seed;
+        block = 0;
+        filled = 0;
+        length = 0;
+        return this;
+    }
+
+    void putChar(char c) {
+        block |= ((long) c) << (filled << 4);
+        length++;
+        if (++filled == 4) {
+            hash ^= mixBlock(block);
+            hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+            block = 0;
+            filled = 0;
+        }
+    }
+
+    void putChars(CharSequence chars, int from, int to) {
+        for (int i = from; i < to; i++) {
+            putChar(chars.charAt(i));
+        }
+    }
+
+    long finish() {
+        long h = hash;
+        if (filled > 0) {
+            h ^= mixBlock(block);
+        }
+        h ^= length;
+        return fmix64(h);
+    }
+
+    private static long mixBlock(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        k *= C2;
+        return k;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,75 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks event-time progress per input partition.
+ * <p>
+ * A partition's watermark is the highest event time seen on it minus the allowed
+ * out-of-orderness. The overall watermark is the minimum over active partitions,
+ * so a lagging partition holds it back instead of having its events declared
+ * late. Partitions that have been idle longer than the idle timeout are ignored.
+ * <p>
+ * Event times further ahead of the wall clock than the out-of-orderness are
+ * clamped, so one producer with a skewed clock cannot push a partition's
+ * watermark into the future and turn every later event into a late one.
+ */
+@Component
+public class WatermarkTracker {
+
+    private final Map<Integer, PartitionClock> partitions = new ConcurrentHashMap<>();
+    private final long outOfOrdernessMillis;
+    private final long idleTimeoutNanos;
+    private final Counter clampedEvents;
+
+    public WatermarkTracker(AnalysisConfig analysisConfig, MeterRegistry meterRegistry) {
+        AnalysisConfig.Anomaly config = analysisConfig.getAnomaly();
+        this.outOfOrdernessMillis = config.getOutOfOrdernessMs();
+        this.idleTimeoutNanos = config.getIdlePartitionTimeoutMs() * 1_000_000L;
+        this.clampedEvents = Counter.builder("loganalyzer.watermark.clamped.events")
+                .description("Events whose event time was ahead of the wall clock and was clamped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Advances the partition's clock and returns the event time to detect on:
+     * the given time, clamped to now plus the out-of-orderness.
+     */
+    public long observe(int partition, long eventTimeMillis) {
+        long limit = System.currentTimeMillis() + outOfOrdernessMillis;
+        if (eventTimeMillis > limit) {
+            clampedEvents.increment();
+            eventTimeMillis = limit;
+        }
+        PartitionClock clock = partitions.computeIfAbsent(partition, p -> new PartitionClock());
+        clock.maxEventMillis.accumulateAndGet(eventTimeMillis, Math::max);
+        clock.lastActivityNanos = System.nanoTime();
+        return eventTimeMillis;
+    }
+
+    /**
+     * Current watermark in epoch millis, or {@link Long#MIN_VALUE} before any event.
+     */
+    public long currentWatermark() {
+        long now = System.nanoTime();
+        long watermark = Long.MAX_VALUE;
+        for (PartitionClock clock : partitions.values()) {
+            if (now - clock.lastActivityNanos <= idleTimeoutNanos) {
+                watermark = Math.min(watermark, clock.maxEventMillis.get() - outOfOrdernessMillis);
+            }
+        }
+        return watermark == Long.MAX_VALUE ? Long.MIN_VALUE : watermark;
+    }
+
+    private static final class PartitionClock {
+        private final AtomicLong maxEventMillis = new AtomicLong(Long.MIN_VALUE);
+        private volatile long lastActivityNanos = System.nanoTime();
+    }
+}
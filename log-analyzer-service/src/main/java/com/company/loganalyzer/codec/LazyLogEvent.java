@@ -0,0 +1,348 @@
+package com.company.loganalyzer.codec;
+
+import com.company.loganalyzer.model.LogEvent;
+import com.company.loganalyzer.model.LogEventView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link LogEventView} over a record in the {@link LogEventCodec} binary format.
+ * <p>
+ * Construction walks the record once to validate it and remember where each
+ * field starts, without decoding any string. Fields are decoded on first access:
+ * the service name and level through a shared dictionary, the stack trace only
+ * up to the requested number of lines, and metadata values are looked up
+ * without building a map. An event dropped before its message is read costs
+ * this object and nothing else.
+ */
+public final class LazyLogEvent implements LogEventView {
+
+    private static final int NULL = -1;
+    private static final long MAX_SECONDS = Instant.MAX.getEpochSecond();
+    private static final long MIN_SECONDS = Instant.MIN.getEpochSecond();
+
+    private final byte[] data;
+    private final LogEventCodec.StringDictionary dictionary;
+
+    // Offsets of the string bytes and their lengths, NULL for absent strings
+    private final int levelCode;
+    private final int levelOffset;
+    private final int levelLength;
+    private final int serviceOffset;
+    private final int serviceLength;
+    private final int messageOffset;
+    private final int messageLength;
+    private final int stackOffset;
+    private final int stackLength;
+    private final boolean hasTimestamp;
+    private final long seconds;
+    private final int nanos;
+    private final int metadataOffset;
+    private final int metadataCount;
+
+    private int position; // validating cursor, constructor only
+    private String serviceName;
+    private String level;
+    private String message;
+    private Instant timestamp;
+
+    /**
+     * @param dictionary interns service names and unknown levels, may be null
+     * @throws IllegalArgumentException if the bytes are not a valid record
+     */
+    LazyLogEvent(byte[] data, LogEventCodec.StringDictionary dictionary) {
+        this.data = data;
+        this.dictionary = dictionary;
+
+        int version = readByte();
+        if (version != LogEventCodec.VERSION_1) {
+            throw new IllegalArgumentException("Unsupported log event encoding version " + version);
+        }
+        levelCode = readByte();
+        if (levelCode > LogEventCodec.LEVELS.size()) {
+            throw new IllegalArgumentException("Unknown level code " + levelCode);
+        }
+        levelLength = levelCode == 0 ? skipString() : NULL;
+        levelOffset = position - Math.max(levelLength, 0);
+        serviceLength = skipString();
+        serviceOffset = position - Math.max(serviceLength, 0);
+        messageLength = skipString();
+        messageOffset = position - Math.max(messageLength, 0);
+        stackLength = skipString();
+        stackOffset = position - Math.max(stackLength, 0);
+
+        long nanosPlusOne = readVarLong();
+        hasTimestamp = nanosPlusOne != 0;
+        if (hasTimestamp) {
+            long zigzag = readVarLong();
+            seconds = (zigzag >>> 1) ^ -(zigzag & 1);
+            if (nanosPlusOne > 1_000_000_000L || seconds < MIN_SECONDS || seconds > MAX_SECONDS) {
+                throw new IllegalArgumentException("Timestamp out of range");
+            }
+            nanos = (int) (nanosPlusOne - 1);
+        } else {
+            seconds = 0;
+            nanos = 0;
+        }
+
+        long entries = readVarLong();
+        if (entries == 0) {
+            metadataCount = NULL;
+            metadataOffset = position;
+        } else {
+            metadataCount = checkedLength(entries - 1);
+            metadataOffset = position;
+            for (int i = 0; i < metadataCount * 2; i++) {
+                skipString();
+            }
+        }
+        if (position != data.length) {
+            throw new IllegalArgumentException((data.length - position) + " trailing bytes after log event");
+        }
+    }
+
+    @Override
+    public String serviceName() {
+        String value = serviceName;
+        if (value == null && serviceLength != NULL) {
+            value = intern(serviceOffset, serviceLength);
+            serviceName = value;
+        }
+        return value;
+    }
+
+    @Override
+    public String level() {
+        String value = level;
+        if (value == null) {
+            if (levelCode != 0) {
+                value = LogEventCodec.LEVELS.get(levelCode - 1);
+            } else if (levelLength != NULL) {
+                value = intern(levelOffset, levelLength);
+            }
+            level = value;
+        }
+        return value;
+    }
+
+    @Override
+    public String message() {
+        String value = message;
+        if (value == null && messageLength != NULL) {
+            value = decode(messageOffset, messageLength);
+            message = value;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes the whole stack trace on every call; prefer
+     * {@link #stackTrace(int)} where only the top frames matter.
+     */
+    @Override
+    public String stackTrace() {
+        return stackLength == NULL ? null : decode(stackOffset, stackLength);
+    }
+
+    /**
+     * Decodes only the bytes up to the end of line {@code maxLines}. A newline
+     * byte never occurs inside a multi-byte UTF-8 sequence, so lines can be cut
+     * before decoding.
+     */
+    @Override
+    public String stackTrace(int maxLines) {
+        if (stackLength == NULL) {
+            return null;
+        }
+        int end = stackOffset + stackLength;
+        int cut = stackOffset - 1;
+        for (int line = 0; line < maxLines; line++) {
+            cut = indexOfNewline(cut + 1, end);
+            if (cut < 0) {
+                return decode(stackOffset, stackLength);
+            }
+        }
+        return maxLines <= 0 ? "" : decode(stackOffset, cut - stackOffset);
+    }
+
+    @Override
+    public Instant timestamp() {
+        Instant value = timestamp;
+        if (value == null && hasTimestamp) {
+            value = Instant.ofEpochSecond(seconds, nanos);
+            timestamp = value;
+        }
+        return value;
+    }
+
+    @Override
+    public String metadata(String key) {
+        if (metadataCount == NULL || key == null) {
+            return null;
+        }
+        int at = metadataOffset;
+        for (int i = 0; i < metadataCount; i++) {
+            int keyAt = at;
+            at = stringEnd(keyAt);
+            int valueAt = at;
+            at = stringEnd(valueAt);
+            int keyLength = stringLength(keyAt);
+            if (keyLength != NULL && equalsAscii(keyAt + varintLength(keyAt), keyLength, key)) {
+                return stringAt(valueAt);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All metadata as a map, or null when the record has none.
+     */
+    public Map<String, String> metadata() {
+        if (metadataCount == NULL) {
+            return null;
+        }
+        Map<String, String> metadata = new HashMap<>(Math.max(4, metadataCount * 2));
+        int at = metadataOffset;
+        for (int i = 0; i < metadataCount; i++) {
+            String key = stringAt(at);
+            at = stringEnd(at);
+            metadata.put(key, stringAt(at));
+            at = stringEnd(at);
+        }
+        return metadata;
+    }
+
+    /**
+     * Decodes every field into a {@link LogEvent}.
+     */
+    public LogEvent toLogEvent() {
+        return new LogEvent(serviceName(), level(), message(), stackTrace(), timestamp(), metadata());
+    }
+
+    /**
+     * Size of the encoded record in bytes.
+     */
+    public int size() {
+        return data.length;
+    }
+
+    @Override
+    public String toString() {
+        // Cheap on purpose: events are logged at debug level on the hot path
+        return "LazyLogEvent[serviceName=" + serviceName() + ", level=" + level() + ", timestamp=" + timestamp()
+                + ", bytes=" + data.length + "]";
+    }
+
+    private String intern(int offset, int length) {
+        return dictionary != null
+                ? dictionary.intern(data, offset, length)
+                : new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private String decode(int offset, int length) {
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private int indexOfNewline(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares bytes against a key without encoding it, falling back to
+     * encoding for keys outside ASCII.
+     */
+    private boolean equalsAscii(int offset, int length, String key) {
+        if (length != key.length()) {
+            // A non-ASCII key has more UTF-8 bytes than chars
+            return length > key.length() && decode(offset, length).equals(key);
+        }
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c >= 0x80) {
+                return decode(offset, length).equals(key);
+            }
+            if (data[offset + i] != (byte) c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Metadata scans run after validation and keep their position local, so
+    // views can be read from several threads
+
+    private int varintLength(int at) {
+        int length = 1;
+        while ((data[at + length - 1] & 0x80) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private int stringLength(int at) {
+        long value = 0;
+        int length = varintLength(at);
+        for (int i = 0; i < length; i++) {
+            value |= (long) (data[at + i] & 0x7F) << (7 * i);
+        }
+        return value == 0 ? NULL : (int) (value - 1);
+    }
+
+    private int stringEnd(int at) {
+        return at + varintLength(at) + Math.max(stringLength(at), 0);
+    }
+
+    private String stringAt(int at) {
+        int length = stringLength(at);
+        return length == NULL ? null : decode(at + varintLength(at), length);
+    }
+
+    // Validating cursor, used by the constructor only
+
+    private int readByte() {
+        if (position >= data.length) {
+            throw new IllegalArgumentException("Truncated log event");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Skips a string and returns its byte length, or {@link #NULL}.
+     */
+    private int skipString() {
+        long length = readVarLong();
+        if (length == 0) {
+            return NULL;
+        }
+        int bytes = checkedLength(length - 1);
+        position += bytes;
+        return bytes;
+    }
+
+    private int checkedLength(long length) {
+        if (length < 0 || length > data.length - position) {
+            throw new IllegalArgumentException("Truncated log event");
+        }
+        return (int) length;
+    }
+}
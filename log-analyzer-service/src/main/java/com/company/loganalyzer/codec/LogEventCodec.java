@@ -0,0 +1,168 @@
+package com.company.loganalyzer.codec;
+
+import com.company.loganalyzer.model.LogEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a {@link LogEvent}.
+ * <p>
+ * Layout of version 1, integers as unsigned LEB128 varints:
+ * <pre>
+ * byte     version (1)
+ * byte     level code, index into {@link #LEVELS} + 1, or 0 followed by the level string
+ * string   serviceName
+ * string   message
+ * string   stackTrace
+ * varint   timestamp nanos of second + 1, 0 when absent
+ * varint   timestamp seconds since the epoch, zigzag encoded (only when present)
+ * varint   metadata entry count + 1, 0 when absent, then key and value strings
+ * </pre>
+ * A string is its UTF-8 byte length + 1 followed by the bytes, a length of 0
+ * meaning null. Producers mark encoded records with the {@link #FORMAT_HEADER}
+ * header, so consumers can fall back to JSON for records without it.
+ */
+public final class LogEventCodec {
+
+    public static final String FORMAT_HEADER = "log-event-format";
+    public static final String FORMAT_BINARY_V1 = "binary-v1";
+    public static final byte[] FORMAT_BINARY_V1_BYTES = FORMAT_BINARY_V1.getBytes(StandardCharsets.US_ASCII);
+
+    static final byte VERSION_1 = 1;
+
+    /** Level dictionary of version 1. Append only: codes are part of the format. */
+    static final List<String> LEVELS = List.of("TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL");
+
+    private static final Map<String, Integer> LEVEL_CODES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < LEVELS.size(); i++) {
+            LEVEL_CODES.put(LEVELS.get(i), i + 1);
+        }
+    }
+
+    private LogEventCodec() {
+    }
+
+    public static byte[] encode(LogEvent event) {
+        Writer out = new Writer(256);
+        out.writeByte(VERSION_1);
+        Integer levelCode = event.level() != null ? LEVEL_CODES.get(event.level()) : null;
+        if (levelCode != null) {
+            out.writeByte(levelCode);
+        } else {
+            out.writeByte(0);
+            out.writeString(event.level());
+        }
+        out.writeString(event.serviceName());
+        out.writeString(event.message());
+        out.writeString(event.stackTrace());
+        if (event.timestamp() != null) {
+            long seconds = event.timestamp().getEpochSecond();
+            out.writeVarLong(event.timestamp().getNano() + 1L);
+            out.writeVarLong((seconds << 1) ^ (seconds >> 63));
+        } else {
+            out.writeVarLong(0);
+        }
+        Map<String, String> metadata = event.metadata();
+        if (metadata != null) {
+            out.writeVarLong(metadata.size() + 1L);
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeString(entry.getValue());
+            }
+        } else {
+            out.writeVarLong(0);
+        }
+        return out.toByteArray();
+    }
+
+    public static LogEvent decode(byte[] data) {
+        return new LazyLogEvent(data, null).toLogEvent();
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    /**
+     * Small direct-mapped cache from UTF-8 bytes to strings, for values that
+     * repeat across records such as service names. Safe to share between
+     * threads: a slot holds one immutable entry, so a race costs a miss.
+     */
+    static final class StringDictionary {
+
+        private final Entry[] entries;
+        private final int mask;
+
+        StringDictionary(int capacity) {
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            this.entries = new Entry[size];
+            this.mask = size - 1;
+        }
+
+        String intern(byte[] data, int offset, int length) {
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + data[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            Entry entry = entries[slot];
+            if (entry != null && Arrays.equals(entry.key, 0, entry.key.length, data, offset, offset + length)) {
+                return entry.value;
+            }
+            String value = new String(data, offset, length, StandardCharsets.UTF_8);
+            entries[slot] = new Entry(Arrays.copyOfRange(data, offset, offset + length), value);
+            return value;
+        }
+
+        private record Entry(byte[] key, String value) {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.company.loganalyzer.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Kafka deserializer choosing the format per record: records carrying the
+ * {@link LogEventCodec#FORMAT_HEADER} header become a {@link LazyLogEvent} over
+ * the record bytes, decoded field by field as ingestion reads them; everything
+ * else goes to a {@link JsonDeserializer} configured from the same
+ * {@code spring.json.*} properties as before, so JSON producers keep working.
+ */
+public class LogEventDeserializer implements Deserializer<Object> {
+
+    private static final int SERVICE_NAME_DICTIONARY_SIZE = 256;
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+    private final LogEventCodec.StringDictionary serviceNames =
+            new LogEventCodec.StringDictionary(SERVICE_NAME_DICTIONARY_SIZE);
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        Header format = headers.lastHeader(LogEventCodec.FORMAT_HEADER);
+        if (format == null) {
+            return json.deserialize(topic, headers, data);
+        }
+        if (!Arrays.equals(format.value(), LogEventCodec.FORMAT_BINARY_V1_BYTES)) {
+            throw new SerializationException("Unsupported log event format "
+                    + new String(format.value(), StandardCharsets.UTF_8));
+        }
+        if (data == null) {
+            return null;
+        }
+        try {
+            return new LazyLogEvent(data, serviceNames);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Malformed binary log event on " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,27 @@
+package com.company.loganalyzer.codec;
+
+import com.company.loganalyzer.model.LogEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link LogEvent}s in the {@link LogEventCodec} binary
+ * format and marking each record with the format header.
+ */
+public class LogEventSerializer implements Serializer<LogEvent> {
+
+    @Override
+    public byte[] serialize(String topic, LogEvent data) {
+        return data == null ? null : LogEventCodec.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, LogEvent data) {
+        if (data == null) {
+            return null;
+        }
+        headers.remove(LogEventCodec.FORMAT_HEADER);
+        headers.add(LogEventCodec.FORMAT_HEADER, LogEventCodec.FORMAT_BINARY_V1_BYTES);
+        return LogEventCodec.encode(data);
+    }
+}
@@ -0,0 +1,462 @@
+package com.company.loganalyzer.codec;
+
+import com.company.loganalyzer.model.LogEvent;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming decoder for OTLP {@code ExportLogsServiceRequest} protobuf bodies.
+ * <p>
+ * The request is read field by field from the stream and every log record is
+ * handed to the sink as soon as it is decoded, so memory stays bounded by one
+ * record however large the export. Only the fields the pipeline uses are
+ * decoded, everything else is skipped:
+ * <ul>
+ * <li>{@code service.name} resource attribute as the service name</li>
+ * <li>severity number, or the severity text, as the level</li>
+ * <li>body as the message, falling back to {@code exception.message}</li>
+ * <li>{@code exception.stacktrace} attribute as the stack trace</li>
+ * <li>record time, or observed time, as the timestamp</li>
+ * <li>trace and span id as the {@code traceId}/{@code spanId} metadata</li>
+ * </ul>
+ * Encoders write the resource before the scope logs, as fields are serialized in
+ * field number order; records arriving before their resource are held until it
+ * is read, up to a limit past which the request is rejected.
+ */
+public final class OtlpLogsDecoder {
+
+    static final String UNKNOWN_SERVICE = "unknown_service";
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LEN = 2;
+    private static final int WIRE_FIXED32 = 5;
+    private static final int MAX_DEPTH = 32;
+    private static final List<String> SEVERITIES = List.of("TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL");
+
+    private final int maxFieldBytes;
+    private final int maxPendingRecords;
+
+    /**
+     * @param maxFieldBytes largest single string, bytes value or log record accepted
+     * @param maxPendingRecords most records of a resource held while its resource
+     *                          has not been read
+     */
+    public OtlpLogsDecoder(int maxFieldBytes, int maxPendingRecords) {
+        this.maxFieldBytes = maxFieldBytes;
+        this.maxPendingRecords = maxPendingRecords;
+    }
+
+    /**
+     * Decodes the request from {@code in}, passing each log record to
+     * {@code sink}, and returns the number of records.
+     *
+     * @throws IllegalArgumentException if the body is not a valid request
+     * @throws EOFException if the body ends inside a message
+     */
+    public long decode(InputStream in, Consumer<LogEvent> sink) throws IOException {
+        ProtoInput input = new ProtoInput(in);
+        long records = 0;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == tag(1, WIRE_LEN)) {
+                long limit = input.pushLimit(input.readLength());
+                records += decodeResourceLogs(input, sink);
+                input.popLimit(limit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return records;
+    }
+
+    private long decodeResourceLogs(ProtoInput input, Consumer<LogEvent> sink) throws IOException {
+        String serviceName = null;
+        boolean resourceRead = false;
+        List<LogRecord> pending = new ArrayList<>();
+        long records = 0;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == tag(1, WIRE_LEN)) {
+                long limit = input.pushLimit(input.readLength());
+                serviceName = decodeResource(input);
+                input.popLimit(limit);
+                resourceRead = true;
+                records += emit(pending, serviceName, sink);
+                pending.clear();
+            } else if (tag == tag(2, WIRE_LEN)) {
+                long limit = input.pushLimit(input.readLength());
+                while ((tag = input.readTag()) != 0) {
+                    if (tag == tag(2, WIRE_LEN)) {
+                        LogRecord record = decodeLogRecord(input, checkedLength(input.readLength()));
+                        if (resourceRead) {
+                            sink.accept(record.toLogEvent(serviceName));
+                            records++;
+                        } else if (pending.size() < maxPendingRecords) {
+                            pending.add(record);
+                        } else {
+                            throw new IllegalArgumentException("More than " + maxPendingRecords
+                                    + " log records before their resource");
+                        }
+                    } else {
+                        input.skipField(tag);
+                    }
+                }
+                input.popLimit(limit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return records + emit(pending, serviceName, sink);
+    }
+
+    private static long emit(List<LogRecord> records, String serviceName, Consumer<LogEvent> sink) {
+        for (LogRecord record : records) {
+            sink.accept(record.toLogEvent(serviceName));
+        }
+        return records.size();
+    }
+
+    private String decodeResource(ProtoInput input) throws IOException {
+        String serviceName = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == tag(1, WIRE_LEN)) {
+                long limit = input.pushLimit(input.readLength());
+                Attribute attribute = decodeKeyValue(input, 0);
+                input.popLimit(limit);
+                if ("service.name".equals(attribute.key())) {
+                    serviceName = attribute.value();
+                }
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return serviceName;
+    }
+
+    private LogRecord decodeLogRecord(ProtoInput input, int length) throws IOException {
+        long limit = input.pushLimit(length);
+        LogRecord record = new LogRecord();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (tag) {
+                case 1 << 3 | WIRE_FIXED64 -> record.timeUnixNano = input.readFixed64();
+                case 11 << 3 | WIRE_FIXED64 -> record.observedTimeUnixNano = input.readFixed64();
+                case 2 << 3 | WIRE_VARINT -> record.severityNumber = (int) input.readVarint();
+                case 3 << 3 | WIRE_LEN -> record.severityText = input.readString(checkedLength(input.readLength()));
+                case 5 << 3 | WIRE_LEN -> {
+                    long bodyLimit = input.pushLimit(input.readLength());
+                    record.body = decodeAnyValue(input, 0);
+                    input.popLimit(bodyLimit);
+                }
+                case 6 << 3 | WIRE_LEN -> {
+                    long attributeLimit = input.pushLimit(input.readLength());
+                    Attribute attribute = decodeKeyValue(input, 0);
+                    input.popLimit(attributeLimit);
+                    if ("exception.stacktrace".equals(attribute.key())) {
+                        record.stackTrace = attribute.value();
+                    } else if ("exception.message".equals(attribute.key())) {
+                        record.exceptionMessage = attribute.value();
+                    }
+                }
+                case 9 << 3 | WIRE_LEN -> record.traceId = hexId(input.readBytes(checkedLength(input.readLength())));
+                case 10 << 3 | WIRE_LEN -> record.spanId = hexId(input.readBytes(checkedLength(input.readLength())));
+                default -> input.skipField(tag);
+            }
+        }
+        input.popLimit(limit);
+        return record;
+    }
+
+    /**
+     * Renders an {@code AnyValue} as text; arrays and key-value lists are
+     * rendered recursively.
+     */
+    private String decodeAnyValue(ProtoInput input, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("AnyValue nested deeper than " + MAX_DEPTH);
+        }
+        String value = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (tag) {
+                case 1 << 3 | WIRE_LEN -> value = input.readString(checkedLength(input.readLength()));
+                case 2 << 3 | WIRE_VARINT -> value = Boolean.toString(input.readVarint() != 0);
+                case 3 << 3 | WIRE_VARINT -> value = Long.toString(input.readVarint());
+                case 4 << 3 | WIRE_FIXED64 -> value = Double.toString(Double.longBitsToDouble(input.readFixed64()));
+                case 7 << 3 | WIRE_LEN -> value = HexFormat.of().formatHex(
+                        input.readBytes(checkedLength(input.readLength())));
+                case 5 << 3 | WIRE_LEN, 6 << 3 | WIRE_LEN -> {
+                    boolean keyValues = tag == (6 << 3 | WIRE_LEN);
+                    long limit = input.pushLimit(input.readLength());
+                    StringBuilder text = new StringBuilder(keyValues ? "{" : "[");
+                    int inner;
+                    while ((inner = input.readTag()) != 0) {
+                        if (inner != tag(1, WIRE_LEN)) {
+                            input.skipField(inner);
+                            continue;
+                        }
+                        if (text.length() > 1) {
+                            text.append(", ");
+                        }
+                        long elementLimit = input.pushLimit(input.readLength());
+                        if (keyValues) {
+                            Attribute attribute = decodeKeyValue(input, depth + 1);
+                            text.append(attribute.key()).append('=').append(attribute.value());
+                        } else {
+                            text.append(decodeAnyValue(input, depth + 1));
+                        }
+                        input.popLimit(elementLimit);
+                    }
+                    input.popLimit(limit);
+                    value = text.append(keyValues ? '}' : ']').toString();
+                }
+                default -> input.skipField(tag);
+            }
+        }
+        return value;
+    }
+
+    private Attribute decodeKeyValue(ProtoInput input, int depth) throws IOException {
+        String key = null;
+        String value = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == tag(1, WIRE_LEN)) {
+                key = input.readString(checkedLength(input.readLength()));
+            } else if (tag == tag(2, WIRE_LEN)) {
+                long limit = input.pushLimit(input.readLength());
+                value = decodeAnyValue(input, depth);
+                input.popLimit(limit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return new Attribute(key, value);
+    }
+
+    private int checkedLength(long length) {
+        if (length > maxFieldBytes) {
+            throw new IllegalArgumentException("Field of " + length + " bytes exceeds the limit of "
+                    + maxFieldBytes);
+        }
+        return (int) length;
+    }
+
+    /**
+     * Lowercase hex of a trace or span id, null when absent or all zero (invalid).
+     */
+    private static String hexId(byte[] id) {
+        for (byte b : id) {
+            if (b != 0) {
+                return HexFormat.of().formatHex(id);
+            }
+        }
+        return null;
+    }
+
+    private static int tag(int field, int wireType) {
+        return field << 3 | wireType;
+    }
+
+    private record Attribute(String key, String value) {
+    }
+
+    private static final class LogRecord {
+
+        private long timeUnixNano;
+        private long observedTimeUnixNano;
+        private int severityNumber;
+        private String severityText;
+        private String body;
+        private String exceptionMessage;
+        private String stackTrace;
+        private String traceId;
+        private String spanId;
+
+        LogEvent toLogEvent(String serviceName) {
+            Map<String, String> metadata = null;
+            if (traceId != null || spanId != null) {
+                metadata = new HashMap<>(4);
+                if (traceId != null) {
+                    metadata.put("traceId", traceId);
+                }
+                if (spanId != null) {
+                    metadata.put("spanId", spanId);
+                }
+            }
+            return new LogEvent(serviceName != null ? serviceName : UNKNOWN_SERVICE, level(),
+                    body != null ? body : exceptionMessage, stackTrace, timestamp(), metadata);
+        }
+
+        /**
+         * Severity numbers come in ranges of four per level, 1-4 TRACE up to
+         * 21-24 FATAL.
+         */
+        private String level() {
+            if (severityNumber >= 1 && severityNumber <= 24) {
+                return SEVERITIES.get((severityNumber - 1) / 4);
+            }
+            if (severityText != null && !severityText.isEmpty()) {
+                return severityText.toUpperCase(Locale.ROOT);
+            }
+            return "INFO";
+        }
+
+        private Instant timestamp() {
+            long nanos = timeUnixNano > 0 ? timeUnixNano : observedTimeUnixNano;
+            return nanos > 0 ? Instant.ofEpochSecond(nanos / 1_000_000_000L, nanos % 1_000_000_000L) : null;
+        }
+    }
+
+    /**
+     * Protobuf wire format reader over a stream, with nested message limits.
+     */
+    private static final class ProtoInput {
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int end;
+        private long consumed; // stream bytes before the buffer start
+        private long limit = Long.MAX_VALUE;
+
+        ProtoInput(InputStream in) {
+            this.in = in;
+        }
+
+        private long offset() {
+            return consumed + position;
+        }
+
+        /**
+         * The next field tag, or 0 at the end of the current message or stream.
+         */
+        int readTag() throws IOException {
+            if (limit == Long.MAX_VALUE) {
+                if (position == end && !fill()) {
+                    return 0;
+                }
+            } else if (offset() >= limit) {
+                return 0;
+            }
+            long tag = readVarint();
+            if (tag >>> 3 == 0 || tag > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid field tag " + tag);
+            }
+            return (int) tag;
+        }
+
+        long readLength() throws IOException {
+            long length = readVarint();
+            if (length < 0 || length > limit - offset()) {
+                throw new IllegalArgumentException("Length " + length + " overruns its message");
+            }
+            return length;
+        }
+
+        long pushLimit(long length) {
+            long previous = limit;
+            limit = offset() + length;
+            return previous;
+        }
+
+        void popLimit(long previous) {
+            if (offset() != limit) {
+                throw new IllegalArgumentException("Message did not end at its declared length");
+            }
+            limit = previous;
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long readFixed64() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value |= (long) readByte() << (8 * i);
+            }
+            return value;
+        }
+
+        String readString(int length) throws IOException {
+            return new String(readBytes(length), StandardCharsets.UTF_8);
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            int copied = 0;
+            while (copied < length) {
+                if (position == end && !fill()) {
+                    throw new EOFException("Request ended inside a field");
+                }
+                int chunk = Math.min(length - copied, end - position);
+                System.arraycopy(buffer, position, bytes, copied, chunk);
+                position += chunk;
+                copied += chunk;
+            }
+            return bytes;
+        }
+
+        void skipField(int tag) throws IOException {
+            switch (tag & 7) {
+                case WIRE_VARINT -> readVarint();
+                case WIRE_FIXED64 -> skip(8);
+                case WIRE_LEN -> skip(readLength());
+                case WIRE_FIXED32 -> skip(4);
+                default -> throw new IllegalArgumentException("Unsupported wire type " + (tag & 7));
+            }
+        }
+
+        private void skip(long length) throws IOException {
+            while (length > 0) {
+                if (position == end && !fill()) {
+                    throw new EOFException("Request ended inside a field");
+                }
+                int chunk = (int) Math.min(length, end - position);
+                position += chunk;
+                length -= chunk;
+            }
+        }
+
+        private int readByte() throws IOException {
+            if (position == end && !fill()) {
+                throw new EOFException("Request ended inside a field");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private boolean fill() throws IOException {
+            consumed += end;
+            position = 0;
+            end = 0;
+            int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+            end = read;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.company.loganalyzer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration for alert delivery.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "alerting")
+public class AlertingConfig {
+
+    private Dispatch dispatch = new Dispatch();
+    private Webhook webhook = new Webhook();
+
+    public Dispatch getDispatch() {
+        return dispatch;
+    }
+
+    public void setDispatch(Dispatch dispatch) {
+        this.dispatch = dispatch;
+    }
+
+    public Webhook getWebhook() {
+        return webhook;
+    }
+
+    public void setWebhook(Webhook webhook) {
+        this.webhook = webhook;
+    }
+
+    /**
+     * Asynchronous delivery in front of the alert sinks. Each sink has its own
+     * queue of at most {@code queueCapacity} services with a pending alert; a
+     * service alerted within {@code suppressionWindowMs} is not alerted again.
+     * Failed deliveries are retried with exponential backoff.
+     */
+    public static class Dispatch {
+
+        private int queueCapacity = 1000;
+        private int batchSize = 50;
+        private long suppressionWindowMs = 60000;
+        private int maxAttempts = 5;
+        private long initialBackoffMs = 500;
+        private long maxBackoffMs = 30000;
+        private long shutdownTimeoutMs = 5000;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getSuppressionWindowMs() {
+            return suppressionWindowMs;
+        }
+
+        public void setSuppressionWindowMs(long suppressionWindowMs) {
+            this.suppressionWindowMs = suppressionWindowMs;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMs() {
+            return initialBackoffMs;
+        }
+
+        public void setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+
+        public long getShutdownTimeoutMs() {
+            return shutdownTimeoutMs;
+        }
+
+        public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+            this.shutdownTimeoutMs = shutdownTimeoutMs;
+        }
+    }
+
+    /**
+     * HTTP webhook sink. Incidents are POSTed as JSON, up to
+     * {@code maxBatchSize} per request, gzip-compressed from
+     * {@code gzipMinBytes}. After {@code failureThreshold} consecutive failures
+     * the circuit opens and requests are refused for {@code openMs}.
+     */
+    public static class Webhook {
+
+        private boolean enabled = false;
+        private String url;
+        private Map<String, String> headers = new LinkedHashMap<>();
+        private int maxBatchSize = 20;
+        private boolean gzip = true;
+        private int gzipMinBytes = 1024;
+        private long connectTimeoutMs = 2000;
+        private long requestTimeoutMs = 5000;
+        private int failureThreshold = 5;
+        private long openMs = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public void setHeaders(Map<String, String> headers) {
+            this.headers = headers;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public boolean isGzip() {
+            return gzip;
+        }
+
+        public void setGzip(boolean gzip) {
+            this.gzip = gzip;
+        }
+
+        public int getGzipMinBytes() {
+            return gzipMinBytes;
+        }
+
+        public void setGzipMinBytes(int gzipMinBytes) {
+            this.gzipMinBytes = gzipMinBytes;
+        }
+
+        public long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public long getRequestTimeoutMs() {
+            return requestTimeoutMs;
+        }
+
+        public void setRequestTimeoutMs(long requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public long getOpenMs() {
+            return openMs;
+        }
+
+        public void setOpenMs(long openMs) {
+            this.openMs = openMs;
+        }
+    }
+}
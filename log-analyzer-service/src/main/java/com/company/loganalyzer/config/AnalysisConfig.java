@@ -0,0 +1,540 @@
+package com.company.loganalyzer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration for log clustering and anomaly detection.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "analysis")
+public class AnalysisConfig {
+
+    private Clustering clustering = new Clustering();
+    private Anomaly anomaly = new Anomaly();
+    private Baseline baseline = new Baseline();
+    private ClusterBurst clusterBurst = new ClusterBurst();
+    private NewPattern newPattern = new NewPattern();
+
+    public Clustering getClustering() {
+        return clustering;
+    }
+
+    public void setClustering(Clustering clustering) {
+        this.clustering = clustering;
+    }
+
+    public Anomaly getAnomaly() {
+        return anomaly;
+    }
+
+    public void setAnomaly(Anomaly anomaly) {
+        this.anomaly = anomaly;
+    }
+
+    public Baseline getBaseline() {
+        return baseline;
+    }
+
+    public void setBaseline(Baseline baseline) {
+        this.baseline = baseline;
+    }
+
+    public ClusterBurst getClusterBurst() {
+        return clusterBurst;
+    }
+
+    public void setClusterBurst(ClusterBurst clusterBurst) {
+        this.clusterBurst = clusterBurst;
+    }
+
+    public NewPattern getNewPattern() {
+        return newPattern;
+    }
+
+    public void setNewPattern(NewPattern newPattern) {
+        this.newPattern = newPattern;
+    }
+
+    public static class Clustering {
+
+        /**
+         * "hash" clusters on the normalized message, "template" on the mined
+         * Drain template the message belongs to.
+         */
+        private String strategy = "hash";
+        private int templateDepth = 4;
+        private double similarityThreshold = 0.4;
+        private int maxChildren = 100;
+        private int maxTemplates = 10000;
+        /**
+         * "legacy" emits the original SHA-256 based ids, "fingerprint" 64-bit
+         * streaming hash ids. Switching changes every cluster id: stored documents,
+         * the registry rebuild and the new-pattern warm-up keep the old ids, so
+         * every known cluster would be reported as a new pattern once and appear
+         * twice in cluster views. Switch on a fresh index, or once the old
+         * documents have aged out.
+         */
+        private String idFormat = "legacy";
+        private int stackFrames = 3;
+        private int collisionTrackingLimit = 100000;
+        private int registryMaxClusters = 10000;
+        private int registryMaxServices = 20;
+
+        public String getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(String strategy) {
+            this.strategy = strategy;
+        }
+
+        public int getTemplateDepth() {
+            return templateDepth;
+        }
+
+        public void setTemplateDepth(int templateDepth) {
+            this.templateDepth = templateDepth;
+        }
+
+        public double getSimilarityThreshold() {
+            return similarityThreshold;
+        }
+
+        public void setSimilarityThreshold(double similarityThreshold) {
+            this.similarityThreshold = similarityThreshold;
+        }
+
+        public int getMaxChildren() {
+            return maxChildren;
+        }
+
+        public void setMaxChildren(int maxChildren) {
+            this.maxChildren = maxChildren;
+        }
+
+        public int getMaxTemplates() {
+            return maxTemplates;
+        }
+
+        public void setMaxTemplates(int maxTemplates) {
+            this.maxTemplates = maxTemplates;
+        }
+
+        public String getIdFormat() {
+            return idFormat;
+        }
+
+        public void setIdFormat(String idFormat) {
+            this.idFormat = idFormat;
+        }
+
+        public int getStackFrames() {
+            return stackFrames;
+        }
+
+        public void setStackFrames(int stackFrames) {
+            this.stackFrames = stackFrames;
+        }
+
+        public int getCollisionTrackingLimit() {
+            return collisionTrackingLimit;
+        }
+
+        public void setCollisionTrackingLimit(int collisionTrackingLimit) {
+            this.collisionTrackingLimit = collisionTrackingLimit;
+        }
+
+        public int getRegistryMaxClusters() {
+            return registryMaxClusters;
+        }
+
+        public void setRegistryMaxClusters(int registryMaxClusters) {
+            this.registryMaxClusters = registryMaxClusters;
+        }
+
+        public int getRegistryMaxServices() {
+            return registryMaxServices;
+        }
+
+        public void setRegistryMaxServices(int registryMaxServices) {
+            this.registryMaxServices = registryMaxServices;
+        }
+    }
+
+    public static class Anomaly {
+
+        /**
+         * A burst is flagged when a service logs more than this many errors within
+         * the window.
+         */
+        private int errorThreshold = 5;
+        private int windowSeconds = 60;
+        private int bucketSeconds = 1;
+        /**
+         * "event" windows errors by LogEvent.timestamp() with watermarks,
+         * "processing" by arrival time.
+         */
+        private String timeMode = "event";
+        private long outOfOrdernessMs = 5000;
+        private int allowedLatenessSeconds = 30;
+        private long idlePartitionTimeoutMs = 60000;
+
+        public int getErrorThreshold() {
+            return errorThreshold;
+        }
+
+        public void setErrorThreshold(int errorThreshold) {
+            this.errorThreshold = errorThreshold;
+        }
+
+        public int getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(int windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public int getBucketSeconds() {
+            return bucketSeconds;
+        }
+
+        public void setBucketSeconds(int bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        public String getTimeMode() {
+            return timeMode;
+        }
+
+        public void setTimeMode(String timeMode) {
+            this.timeMode = timeMode;
+        }
+
+        public long getOutOfOrdernessMs() {
+            return outOfOrdernessMs;
+        }
+
+        public void setOutOfOrdernessMs(long outOfOrdernessMs) {
+            this.outOfOrdernessMs = outOfOrdernessMs;
+        }
+
+        public int getAllowedLatenessSeconds() {
+            return allowedLatenessSeconds;
+        }
+
+        public void setAllowedLatenessSeconds(int allowedLatenessSeconds) {
+            this.allowedLatenessSeconds = allowedLatenessSeconds;
+        }
+
+        public long getIdlePartitionTimeoutMs() {
+            return idlePartitionTimeoutMs;
+        }
+
+        public void setIdlePartitionTimeoutMs(long idlePartitionTimeoutMs) {
+            this.idlePartitionTimeoutMs = idlePartitionTimeoutMs;
+        }
+    }
+
+    /**
+     * Learned per-service error-rate baselines. Until a series has seen
+     * {@code minSamples} intervals, the fixed anomaly threshold applies.
+     */
+    public static class Baseline {
+
+        private boolean enabled = true;
+        private List<String> levels = List.of("ERROR");
+        private int intervalSeconds = 60;
+        private double alpha = 0.05;
+        private boolean seasonal = false;
+        private double seasonalAlpha = 0.2;
+        private int minSamples = 30;
+        private double minStdDev = 1.0;
+        private double zScoreThreshold = 4.0;
+        private double cusumSlack = 0.5;
+        private double cusumThreshold = 5.0;
+        private long checkpointIntervalMs = 60000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getLevels() {
+            return levels;
+        }
+
+        public void setLevels(List<String> levels) {
+            this.levels = levels;
+        }
+
+        public int getIntervalSeconds() {
+            return intervalSeconds;
+        }
+
+        public void setIntervalSeconds(int intervalSeconds) {
+            this.intervalSeconds = intervalSeconds;
+        }
+
+        public double getAlpha() {
+            return alpha;
+        }
+
+        public void setAlpha(double alpha) {
+            this.alpha = alpha;
+        }
+
+        public boolean isSeasonal() {
+            return seasonal;
+        }
+
+        public void setSeasonal(boolean seasonal) {
+            this.seasonal = seasonal;
+        }
+
+        public double getSeasonalAlpha() {
+            return seasonalAlpha;
+        }
+
+        public void setSeasonalAlpha(double seasonalAlpha) {
+            this.seasonalAlpha = seasonalAlpha;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public double getMinStdDev() {
+            return minStdDev;
+        }
+
+        public void setMinStdDev(double minStdDev) {
+            this.minStdDev = minStdDev;
+        }
+
+        public double getZScoreThreshold() {
+            return zScoreThreshold;
+        }
+
+        public void setZScoreThreshold(double zScoreThreshold) {
+            this.zScoreThreshold = zScoreThreshold;
+        }
+
+        public double getCusumSlack() {
+            return cusumSlack;
+        }
+
+        public void setCusumSlack(double cusumSlack) {
+            this.cusumSlack = cusumSlack;
+        }
+
+        public double getCusumThreshold() {
+            return cusumThreshold;
+        }
+
+        public void setCusumThreshold(double cusumThreshold) {
+            this.cusumThreshold = cusumThreshold;
+        }
+
+        public long getCheckpointIntervalMs() {
+            return checkpointIntervalMs;
+        }
+
+        public void setCheckpointIntervalMs(long checkpointIntervalMs) {
+            this.checkpointIntervalMs = checkpointIntervalMs;
+        }
+    }
+
+    /**
+     * Sketch-based per-cluster burst detection. A cluster bursts when its errors
+     * over the window reach {@code minCount} and exceed {@code burstFactor} times
+     * its average over the preceding history.
+     */
+    public static class ClusterBurst {
+
+        private boolean enabled = true;
+        private int sketchWidth = 1024;
+        private int sketchDepth = 4;
+        private int bucketSeconds = 10;
+        private int windowSeconds = 60;
+        private int historySeconds = 600;
+        private int minCount = 20;
+        private double burstFactor = 5.0;
+        private int topK = 20;
+        private int stripes = 8;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public int getBucketSeconds() {
+            return bucketSeconds;
+        }
+
+        public void setBucketSeconds(int bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        public int getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(int windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public int getHistorySeconds() {
+            return historySeconds;
+        }
+
+        public void setHistorySeconds(int historySeconds) {
+            this.historySeconds = historySeconds;
+        }
+
+        public int getMinCount() {
+            return minCount;
+        }
+
+        public void setMinCount(int minCount) {
+            this.minCount = minCount;
+        }
+
+        public double getBurstFactor() {
+            return burstFactor;
+        }
+
+        public void setBurstFactor(double burstFactor) {
+            this.burstFactor = burstFactor;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        /**
+         * Independently locked shards of the sketch ring; services are hashed to
+         * one. Each stripe holds a full ring.
+         */
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+    }
+
+    /**
+     * Seen-cluster filters for NEW_ERROR_PATTERN. A pattern is forgotten once it
+     * has not been seen for {@code generations} generations.
+     */
+    public static class NewPattern {
+
+        private boolean enabled = true;
+        private int expectedPatterns = 10000;
+        private double falsePositiveRate = 0.01;
+        private int generations = 7;
+        private int generationHours = 24;
+        private String snapshotPath = "data/new-patterns.bin";
+        private long snapshotIntervalMs = 300000;
+        private int warmupDays = 7;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getExpectedPatterns() {
+            return expectedPatterns;
+        }
+
+        public void setExpectedPatterns(int expectedPatterns) {
+            this.expectedPatterns = expectedPatterns;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public int getGenerations() {
+            return generations;
+        }
+
+        public void setGenerations(int generations) {
+            this.generations = generations;
+        }
+
+        public int getGenerationHours() {
+            return generationHours;
+        }
+
+        public void setGenerationHours(int generationHours) {
+            this.generationHours = generationHours;
+        }
+
+        public String getSnapshotPath() {
+            return snapshotPath;
+        }
+
+        public void setSnapshotPath(String snapshotPath) {
+            this.snapshotPath = snapshotPath;
+        }
+
+        public long getSnapshotIntervalMs() {
+            return snapshotIntervalMs;
+        }
+
+        public void setSnapshotIntervalMs(long snapshotIntervalMs) {
+            this.snapshotIntervalMs = snapshotIntervalMs;
+        }
+
+        public int getWarmupDays() {
+            return warmupDays;
+        }
+
+        public void setWarmupDays(int warmupDays) {
+            this.warmupDays = warmupDays;
+        }
+    }
+}
@@ -0,0 +1,666 @@
+package com.company.loganalyzer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration for the Kafka log ingestion pipeline.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ingestion")
+public class IngestionConfig {
+
+    /**
+     * Listener mode: "record" processes one LogEvent per call, "batch" processes
+     * a whole poll at once.
+     */
+    private String mode = "record";
+    private Batch batch = new Batch();
+    private Bulk bulk = new Bulk();
+    private Parallel parallel = new Parallel();
+    private Rollup rollup = new Rollup();
+    private IncidentCache incidentCache = new IncidentCache();
+    private Spool spool = new Spool();
+    private Backpressure backpressure = new Backpressure();
+    private Shedding shedding = new Shedding();
+    private Dedup dedup = new Dedup();
+    private Otlp otlp = new Otlp();
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public void setBulk(Bulk bulk) {
+        this.bulk = bulk;
+    }
+
+    public Parallel getParallel() {
+        return parallel;
+    }
+
+    public void setParallel(Parallel parallel) {
+        this.parallel = parallel;
+    }
+
+    public Rollup getRollup() {
+        return rollup;
+    }
+
+    public void setRollup(Rollup rollup) {
+        this.rollup = rollup;
+    }
+
+    public IncidentCache getIncidentCache() {
+        return incidentCache;
+    }
+
+    public void setIncidentCache(IncidentCache incidentCache) {
+        this.incidentCache = incidentCache;
+    }
+
+    public Spool getSpool() {
+        return spool;
+    }
+
+    public void setSpool(Spool spool) {
+        this.spool = spool;
+    }
+
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    public void setBackpressure(Backpressure backpressure) {
+        this.backpressure = backpressure;
+    }
+
+    public Shedding getShedding() {
+        return shedding;
+    }
+
+    public void setShedding(Shedding shedding) {
+        this.shedding = shedding;
+    }
+
+    public Dedup getDedup() {
+        return dedup;
+    }
+
+    public void setDedup(Dedup dedup) {
+        this.dedup = dedup;
+    }
+
+    public Otlp getOtlp() {
+        return otlp;
+    }
+
+    public void setOtlp(Otlp otlp) {
+        this.otlp = otlp;
+    }
+
+    public static class Batch {
+
+        private int maxPollRecords = 500;
+
+        public int getMaxPollRecords() {
+            return maxPollRecords;
+        }
+
+        public void setMaxPollRecords(int maxPollRecords) {
+            this.maxPollRecords = maxPollRecords;
+        }
+    }
+
+    /**
+     * Flush and concurrency policy for the Elasticsearch bulk indexer. With
+     * {@code adaptive} on, the document count that triggers a flush moves
+     * between {@code minDocs} and {@code maxDocs}: it grows by
+     * {@code increaseDocs} after a bulk request faster than
+     * {@code targetLatencyMs} and is multiplied by {@code decreaseFactor} after a
+     * slower or throttled one.
+     */
+    public static class Bulk {
+
+        private boolean enabled = false;
+        private int maxDocs = 1000;
+        private long maxBytes = 5 * 1024 * 1024; // 5 MB
+        private long maxLatencyMs = 200;
+        private int maxInFlight = 2;
+        private int maxRetries = 3;
+        private long retryBackoffMs = 100;
+        private boolean adaptive = true;
+        private int minDocs = 100;
+        private long targetLatencyMs = 500;
+        private int increaseDocs = 100;
+        private double decreaseFactor = 0.5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxDocs() {
+            return maxDocs;
+        }
+
+        public void setMaxDocs(int maxDocs) {
+            this.maxDocs = maxDocs;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public long getMaxLatencyMs() {
+            return maxLatencyMs;
+        }
+
+        public void setMaxLatencyMs(long maxLatencyMs) {
+            this.maxLatencyMs = maxLatencyMs;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public long getRetryBackoffMs() {
+            return retryBackoffMs;
+        }
+
+        public void setRetryBackoffMs(long retryBackoffMs) {
+            this.retryBackoffMs = retryBackoffMs;
+        }
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public int getMinDocs() {
+            return minDocs;
+        }
+
+        public void setMinDocs(int minDocs) {
+            this.minDocs = minDocs;
+        }
+
+        public long getTargetLatencyMs() {
+            return targetLatencyMs;
+        }
+
+        public void setTargetLatencyMs(long targetLatencyMs) {
+            this.targetLatencyMs = targetLatencyMs;
+        }
+
+        public int getIncreaseDocs() {
+            return increaseDocs;
+        }
+
+        public void setIncreaseDocs(int increaseDocs) {
+            this.increaseDocs = increaseDocs;
+        }
+
+        public double getDecreaseFactor() {
+            return decreaseFactor;
+        }
+
+        public void setDecreaseFactor(double decreaseFactor) {
+            this.decreaseFactor = decreaseFactor;
+        }
+    }
+
+    /**
+     * Key-ordered parallel processing of each polled batch (batch mode only).
+     */
+    public static class Parallel {
+
+        private boolean enabled = false;
+        private boolean virtualThreads = true;
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private long retryBackoffMs = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public long getRetryBackoffMs() {
+            return retryBackoffMs;
+        }
+
+        public void setRetryBackoffMs(long retryBackoffMs) {
+            this.retryBackoffMs = retryBackoffMs;
+        }
+    }
+
+    /**
+     * Per-minute (service, level) counts backing the timeline and service list.
+     * Minute rows older than {@code minuteRetentionHours} are merged into hourly
+     * rows.
+     */
+    public static class Rollup {
+
+        private long flushIntervalMs = 5000;
+        private long minuteRetentionHours = 24;
+        private long downsampleIntervalMs = 3600000;
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public long getMinuteRetentionHours() {
+            return minuteRetentionHours;
+        }
+
+        public void setMinuteRetentionHours(long minuteRetentionHours) {
+            this.minuteRetentionHours = minuteRetentionHours;
+        }
+
+        public long getDownsampleIntervalMs() {
+            return downsampleIntervalMs;
+        }
+
+        public void setDownsampleIntervalMs(long downsampleIntervalMs) {
+            this.downsampleIntervalMs = downsampleIntervalMs;
+        }
+    }
+
+    /**
+     * In-memory index of open incidents. Entries are re-read after
+     * {@code ttlMs} so incidents resolved outside this instance are noticed.
+     */
+    public static class IncidentCache {
+
+        private long flushIntervalMs = 2000;
+        private long ttlMs = 300000;
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    /**
+     * On-disk write-ahead spool for log documents Elasticsearch could not take.
+     * Disk usage is capped at {@code maxBytes}; when full, {@code overflowPolicy}
+     * {@code reject} fails ingestion so Kafka redelivers (no loss, consumption
+     * stalls) and {@code drop-oldest} discards the oldest segment (consumption
+     * continues, oldest spooled logs are lost).
+     */
+    public static class Spool {
+
+        private boolean enabled = false;
+        private String directory = "data/spool";
+        private int segmentBytes = 64 * 1024 * 1024;
+        private long maxBytes = 1024L * 1024 * 1024;
+        private String overflowPolicy = "reject";
+        private int drainBatchSize = 1000;
+        private long drainIntervalMs = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentBytes() {
+            return segmentBytes;
+        }
+
+        public void setSegmentBytes(int segmentBytes) {
+            this.segmentBytes = segmentBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public String getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(String overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public int getDrainBatchSize() {
+            return drainBatchSize;
+        }
+
+        public void setDrainBatchSize(int drainBatchSize) {
+            this.drainBatchSize = drainBatchSize;
+        }
+
+        public long getDrainIntervalMs() {
+            return drainIntervalMs;
+        }
+
+        public void setDrainIntervalMs(long drainIntervalMs) {
+            this.drainIntervalMs = drainIntervalMs;
+        }
+    }
+
+    /**
+     * Flow control of the Kafka listeners. Consumption is paused while the
+     * smoothed write latency exceeds {@code pauseLatencyMs} or the bulk indexer
+     * holds more than {@code pauseQueueDocs} documents, and resumed once both
+     * are below their resume thresholds, or after {@code maxPauseMs} to probe
+     * whether pressure has dropped.
+     */
+    public static class Backpressure {
+
+        private boolean enabled = true;
+        private long checkIntervalMs = 200;
+        private long pauseLatencyMs = 5000;
+        private long resumeLatencyMs = 1000;
+        private int pauseQueueDocs = 50000;
+        private int resumeQueueDocs = 10000;
+        private long maxPauseMs = 10000;
+        private double latencyAlpha = 0.3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getCheckIntervalMs() {
+            return checkIntervalMs;
+        }
+
+        public void setCheckIntervalMs(long checkIntervalMs) {
+            this.checkIntervalMs = checkIntervalMs;
+        }
+
+        public long getPauseLatencyMs() {
+            return pauseLatencyMs;
+        }
+
+        public void setPauseLatencyMs(long pauseLatencyMs) {
+            this.pauseLatencyMs = pauseLatencyMs;
+        }
+
+        public long getResumeLatencyMs() {
+            return resumeLatencyMs;
+        }
+
+        public void setResumeLatencyMs(long resumeLatencyMs) {
+            this.resumeLatencyMs = resumeLatencyMs;
+        }
+
+        public int getPauseQueueDocs() {
+            return pauseQueueDocs;
+        }
+
+        public void setPauseQueueDocs(int pauseQueueDocs) {
+            this.pauseQueueDocs = pauseQueueDocs;
+        }
+
+        public int getResumeQueueDocs() {
+            return resumeQueueDocs;
+        }
+
+        public void setResumeQueueDocs(int resumeQueueDocs) {
+            this.resumeQueueDocs = resumeQueueDocs;
+        }
+
+        public long getMaxPauseMs() {
+            return maxPauseMs;
+        }
+
+        public void setMaxPauseMs(long maxPauseMs) {
+            this.maxPauseMs = maxPauseMs;
+        }
+
+        public double getLatencyAlpha() {
+            return latencyAlpha;
+        }
+
+        public void setLatencyAlpha(double latencyAlpha) {
+            this.latencyAlpha = latencyAlpha;
+        }
+    }
+
+    /**
+     * Load shedding of low-priority levels. While ingestion lags more than
+     * {@code lagBudgetMs} behind the records it reads, or is paused for
+     * backpressure, only one in {@code sampleEvery} events of each cluster at a
+     * sheddable level is indexed; the rest are counted and written as one
+     * summary per cluster every {@code summaryIntervalMs}. Shedding stops once
+     * the lag is back under half the budget.
+     */
+    public static class Shedding {
+
+        private boolean enabled = true;
+        private long lagBudgetMs = 30000;
+        private int sampleEvery = 10;
+        private List<String> levels = List.of("INFO", "DEBUG", "TRACE");
+        private long summaryIntervalMs = 60000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getLagBudgetMs() {
+            return lagBudgetMs;
+        }
+
+        public void setLagBudgetMs(long lagBudgetMs) {
+            this.lagBudgetMs = lagBudgetMs;
+        }
+
+        public int getSampleEvery() {
+            return sampleEvery;
+        }
+
+        public void setSampleEvery(int sampleEvery) {
+            this.sampleEvery = sampleEvery;
+        }
+
+        public List<String> getLevels() {
+            return levels;
+        }
+
+        public void setLevels(List<String> levels) {
+            this.levels = levels;
+        }
+
+        public long getSummaryIntervalMs() {
+            return summaryIntervalMs;
+        }
+
+        public void setSummaryIntervalMs(long summaryIntervalMs) {
+            this.summaryIntervalMs = summaryIntervalMs;
+        }
+    }
+
+    /**
+     * Deduplication before indexing. Documents of a batch with the same service,
+     * level and cluster within a {@code windowMs} window are indexed as one
+     * document carrying the occurrence count, first and last timestamp and up to
+     * {@code maxSamples} distinct raw messages. Only {@code levels} are merged.
+     */
+    public static class Dedup {
+
+        private boolean enabled = false;
+        private long windowMs = 10000;
+        private int maxSamples = 3;
+        private List<String> levels = List.of("INFO", "DEBUG", "TRACE");
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindowMs() {
+            return windowMs;
+        }
+
+        public void setWindowMs(long windowMs) {
+            this.windowMs = windowMs;
+        }
+
+        public int getMaxSamples() {
+            return maxSamples;
+        }
+
+        public void setMaxSamples(int maxSamples) {
+            this.maxSamples = maxSamples;
+        }
+
+        public List<String> getLevels() {
+            return levels;
+        }
+
+        public void setLevels(List<String> levels) {
+            this.levels = levels;
+        }
+    }
+
+    /**
+     * OTLP/HTTP log export endpoint ({@code POST /v1/logs}), off unless enabled.
+     * Decoded records are run through the pipeline in chunks of
+     * {@code batchSize}; a string, bytes value or log record larger than
+     * {@code maxFieldBytes} rejects the request.
+     */
+    public static class Otlp {
+
+        private boolean enabled = false;
+        private int batchSize = 500;
+        private int maxFieldBytes = 4 * 1024 * 1024;
+        private int maxPendingRecords = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxFieldBytes() {
+            return maxFieldBytes;
+        }
+
+        public void setMaxFieldBytes(int maxFieldBytes) {
+            this.maxFieldBytes = maxFieldBytes;
+        }
+
+        /**
+         * Records of a resource held until its resource arrives; requests with
+         * more are rejected.
+         */
+        public int getMaxPendingRecords() {
+            return maxPendingRecords;
+        }
+
+        public void setMaxPendingRecords(int maxPendingRecords) {
+            this.maxPendingRecords = maxPendingRecords;
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.company.loganalyzer.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.Properties;
 
 @Configuration
 public class KafkaConfig {
 
     public static final String TOPIC_APP_LOGS = "app-logs";
+    public static final String BATCH_LISTENER_FACTORY = "batchKafkaListenerContainerFactory";
 
     @Bean
     public NewTopic appLogsTopic() {
@@ -17,4 +25,24 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+
+    /**
+     * Batch listener factory. Offsets are acknowledged manually so a poll is only
+     * committed once the listener has made the whole batch durable.
+     */
+    @Bean(BATCH_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            IngestionConfig ingestionConfig) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, ingestionConfig.getBatch().getMaxPollRecords());
+        factory.getContainerProperties().setKafkaConsumerProperties(overrides);
+        return factory;
+    }
 }
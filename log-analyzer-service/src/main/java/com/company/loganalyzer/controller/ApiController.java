@@ -1,10 +1,18 @@
 package com.company.loganalyzer.controller;
 
+import com.company.loganalyzer.analysis.ClusterBurstDetector;
+import com.company.loganalyzer.analysis.ClusterRegistry;
+import com.company.loganalyzer.analysis.LogTemplateMiner;
+import com.company.loganalyzer.ingestion.LogRollupStore;
+import com.company.loganalyzer.model.AnomalyType;
 import com.company.loganalyzer.model.IncidentEntity;
 import com.company.loganalyzer.model.LogDocument;
 import com.company.loganalyzer.repository.IncidentRepository;
 import com.company.loganalyzer.repository.LogRepository;
+import com.company.loganalyzer.repository.LogRepositoryCustom;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,22 +20,36 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import org.springframework.context.annotation.Profile;
 
 @RestController
 @RequestMapping("/api")
-@CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5180", "http://localhost:3000" })
+@CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5180", "http://localhost:3000" },
+                exposedHeaders = ApiController.NEXT_CURSOR_HEADER)
 @Profile("!lite")
 public class ApiController {
 
+        public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+        private static final int MAX_LOG_PAGE_SIZE = 1000;
+        private static final int MAX_INCIDENT_PAGE_SIZE = 1000;
+
         private final IncidentRepository incidentRepository;
         private final LogRepository logRepository;
-
-        public ApiController(IncidentRepository incidentRepository, LogRepository logRepository) {
+        private final LogTemplateMiner templateMiner;
+        private final ClusterBurstDetector clusterBurstDetector;
+        private final ClusterRegistry clusterRegistry;
+        private final LogRollupStore rollupStore;
+
+        public ApiController(IncidentRepository incidentRepository, LogRepository logRepository,
+                        LogTemplateMiner templateMiner, ClusterBurstDetector clusterBurstDetector,
+                        ClusterRegistry clusterRegistry, LogRollupStore rollupStore) {
                 this.incidentRepository = incidentRepository;
                 this.logRepository = logRepository;
+                this.templateMiner = templateMiner;
+                this.clusterBurstDetector = clusterBurstDetector;
+                this.clusterRegistry = clusterRegistry;
+                this.rollupStore = rollupStore;
         }
 
         // ==================== INCIDENTS ====================
@@ -36,28 +58,30 @@ public class ApiController {
         public ResponseEntity<List<IncidentEntity>> getIncidents(
                         @RequestParam(required = false) String status,
                         @RequestParam(required = false) String serviceName,
-                        @RequestParam(required = false) String type) {
-
-                List<IncidentEntity> incidents = incidentRepository.findAll(Sort.by(Sort.Direction.DESC, "startTime"));
-
-                // Apply filters
-                if (status != null && !status.isEmpty()) {
-                        incidents = incidents.stream()
-                                        .filter(i -> i.getStatus().name().equalsIgnoreCase(status))
-                                        .collect(Collectors.toList());
-                }
-                if (serviceName != null && !serviceName.isEmpty()) {
-                        incidents = incidents.stream()
-                                        .filter(i -> i.getServiceName().equals(serviceName))
-                                        .collect(Collectors.toList());
-                }
-                if (type != null && !type.isEmpty()) {
-                        incidents = incidents.stream()
-                                        .filter(i -> i.getType().name().equalsIgnoreCase(type))
-                                        .collect(Collectors.toList());
+                        @RequestParam(required = false) String type,
+                        @RequestParam(defaultValue = "0") int page,
+                        @RequestParam(defaultValue = "100") int size) {
+
+                IncidentEntity.IncidentStatus statusFilter = null;
+                AnomalyType typeFilter = null;
+                try {
+                        if (status != null && !status.isEmpty()) {
+                                statusFilter = IncidentEntity.IncidentStatus.valueOf(status.toUpperCase(Locale.ROOT));
+                        }
+                        if (type != null && !type.isEmpty()) {
+                                typeFilter = AnomalyType.valueOf(type.toUpperCase(Locale.ROOT));
+                        }
+                } catch (IllegalArgumentException e) {
+                        // Unknown status or type matches no incident
+                        return ResponseEntity.ok(List.of());
                 }
 
-                return ResponseEntity.ok(incidents);
+                PageRequest pageRequest = PageRequest.of(Math.max(0, page),
+                                Math.max(1, Math.min(size, MAX_INCIDENT_PAGE_SIZE)),
+                                Sort.by(Sort.Direction.DESC, "startTime").and(Sort.by(Sort.Direction.DESC, "id")));
+                return ResponseEntity.ok(incidentRepository.search(statusFilter,
+                                serviceName != null && !serviceName.isEmpty() ? serviceName : null, typeFilter,
+                                pageRequest).getContent());
         }
 
         @GetMapping("/incidents/{id}")
@@ -69,24 +93,35 @@ public class ApiController {
 
         @GetMapping("/incidents/stats")
         public ResponseEntity<Map<String, Object>> getIncidentStats() {
-                List<IncidentEntity> all = incidentRepository.findAll();
+                Map<String, Long> byStatus = new HashMap<>();
+                long total = 0;
+                for (Object[] row : incidentRepository.countByStatus()) {
+                        long count = (Long) row[1];
+                        total += count;
+                        if (row[0] != null) {
+                                byStatus.put(((IncidentEntity.IncidentStatus) row[0]).name(), count);
+                        }
+                }
 
                 Map<String, Object> stats = new HashMap<>();
-                stats.put("total", all.size());
-                stats.put("open",
-                                all.stream().filter(i -> i.getStatus() == IncidentEntity.IncidentStatus.OPEN).count());
-                stats.put("resolved",
-                                all.stream().filter(i -> i.getStatus() == IncidentEntity.IncidentStatus.RESOLVED)
-                                                .count());
+                stats.put("total", total);
+                stats.put("open", byStatus.getOrDefault(IncidentEntity.IncidentStatus.OPEN.name(), 0L));
+                stats.put("resolved", byStatus.getOrDefault(IncidentEntity.IncidentStatus.RESOLVED.name(), 0L));
 
                 // Count by type
-                Map<String, Long> byType = all.stream()
-                                .collect(Collectors.groupingBy(i -> i.getType().name(), Collectors.counting()));
+                Map<String, Long> byType = new HashMap<>();
+                for (Object[] row : incidentRepository.countByType()) {
+                        if (row[0] != null) {
+                                byType.put(((AnomalyType) row[0]).name(), (Long) row[1]);
+                        }
+                }
                 stats.put("byType", byType);
 
                 // Count by service
-                Map<String, Long> byService = all.stream()
-                                .collect(Collectors.groupingBy(IncidentEntity::getServiceName, Collectors.counting()));
+                Map<String, Long> byService = new HashMap<>();
+                for (Object[] row : incidentRepository.countByService()) {
+                        byService.put((String) row[0], (Long) row[1]);
+                }
                 stats.put("byService", byService);
 
                 return ResponseEntity.ok(stats);
@@ -99,89 +134,70 @@ public class ApiController {
                         @RequestParam(required = false) String level,
                         @RequestParam(required = false) String serviceName,
                         @RequestParam(required = false) String search,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                        @RequestParam(required = false) String cursor,
                         @RequestParam(defaultValue = "100") int limit) {
 
-                List<LogDocument> logs = StreamSupport.stream(logRepository.findAll().spliterator(), false)
-                                .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-                                .collect(Collectors.toList());
-
-                // Apply filters
-                if (level != null && !level.isEmpty()) {
-                        logs = logs.stream()
-                                        .filter(l -> l.getLevel().equalsIgnoreCase(level))
-                                        .collect(Collectors.toList());
-                }
-                if (serviceName != null && !serviceName.isEmpty()) {
-                        logs = logs.stream()
-                                        .filter(l -> l.getServiceName().equals(serviceName))
-                                        .collect(Collectors.toList());
+                LogRepositoryCustom.LogPage page;
+                try {
+                        page = logRepository.search(new LogRepositoryCustom.LogSearchCriteria(serviceName, level,
+                                        search, from, to, cursor, Math.max(1, Math.min(limit, MAX_LOG_PAGE_SIZE))));
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().build();
                 }
-                if (search != null && !search.isEmpty()) {
-                        String searchLower = search.toLowerCase();
-                        logs = logs.stream()
-                                        .filter(l -> l.getMessage().toLowerCase().contains(searchLower))
-                                        .collect(Collectors.toList());
-                }
-
-                // Apply limit
-                logs = logs.stream().limit(limit).collect(Collectors.toList());
 
-                return ResponseEntity.ok(logs);
+                // The cursor for the next page travels in a header so the body keeps its shape
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (page.nextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                }
+                return response.body(page.logs());
         }
 
         @GetMapping("/logs/clusters")
-        public ResponseEntity<List<Map<String, Object>>> getLogClusters() {
-                List<LogDocument> logs = StreamSupport.stream(logRepository.findAll().spliterator(), false)
-                                .filter(l -> l.getClusterId() != null && !l.getClusterId().isEmpty())
-                                .collect(Collectors.toList());
-
-                // Group by cluster ID
-                Map<String, List<LogDocument>> clusters = logs.stream()
-                                .collect(Collectors.groupingBy(LogDocument::getClusterId));
-
+        public ResponseEntity<List<Map<String, Object>>> getLogClusters(
+                        @RequestParam(required = false) Integer limit) {
                 List<Map<String, Object>> result = new ArrayList<>();
-                for (Map.Entry<String, List<LogDocument>> entry : clusters.entrySet()) {
+                for (ClusterRegistry.ClusterSummary summary : clusterRegistry
+                                .topClusters(limit != null ? limit : Integer.MAX_VALUE)) {
                         Map<String, Object> cluster = new HashMap<>();
-                        cluster.put("clusterId", entry.getKey());
-                        cluster.put("count", entry.getValue().size());
-                        cluster.put("sample", entry.getValue().get(0));
-                        cluster.put("services", entry.getValue().stream()
-                                        .map(LogDocument::getServiceName)
-                                        .distinct()
-                                        .collect(Collectors.toList()));
+                        cluster.put("clusterId", summary.clusterId());
+                        cluster.put("count", summary.count());
+                        cluster.put("sample", summary.sample());
+                        cluster.put("services", summary.services());
+                        cluster.put("firstSeen", summary.firstSeen());
+                        cluster.put("lastSeen", summary.lastSeen());
                         result.add(cluster);
                 }
+                return ResponseEntity.ok(result);
+        }
 
-                // Sort by count descending
-                result.sort((a, b) -> Integer.compare((int) b.get("count"), (int) a.get("count")));
+        @GetMapping("/logs/clusters/top")
+        public ResponseEntity<List<ClusterBurstDetector.ClusterActivity>> getTopClusters(
+                        @RequestParam(required = false) String serviceName,
+                        @RequestParam(defaultValue = "10") int limit) {
+                return ResponseEntity.ok(clusterBurstDetector.topClusters(serviceName, limit));
+        }
 
-                return ResponseEntity.ok(result);
+        @GetMapping("/logs/templates")
+        public ResponseEntity<List<LogTemplateMiner.TemplateSummary>> getLogTemplates(
+                        @RequestParam(defaultValue = "100") int limit) {
+                return ResponseEntity.ok(templateMiner.getTemplates().stream()
+                                .limit(limit)
+                                .collect(Collectors.toList()));
         }
 
         @GetMapping("/logs/timeline")
         public ResponseEntity<List<Map<String, Object>>> getLogTimeline(
                         @RequestParam(defaultValue = "60") int minutes) {
 
-                Instant cutoff = Instant.now().minus(minutes, ChronoUnit.MINUTES);
-
-                List<LogDocument> logs = StreamSupport.stream(logRepository.findAll().spliterator(), false)
-                                .filter(l -> l.getTimestamp().isAfter(cutoff))
-                                .collect(Collectors.toList());
-
-                // Group by minute
-                Map<String, Map<String, Long>> timeline = new TreeMap<>();
-
-                for (LogDocument log : logs) {
-                        String minute = log.getTimestamp().truncatedTo(ChronoUnit.MINUTES).toString();
-                        timeline.computeIfAbsent(minute, k -> new HashMap<>());
-                        String level = log.getLevel();
-                        timeline.get(minute).merge(level, 1L, Long::sum);
-                }
+                Instant cutoff = Instant.now().minus(minutes, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.MINUTES);
 
                 List<Map<String, Object>> result = new ArrayList<>();
-                for (Map.Entry<String, Map<String, Long>> entry : timeline.entrySet()) {
+                for (Map.Entry<Instant, Map<String, Long>> entry : rollupStore.timeline(cutoff).entrySet()) {
                         Map<String, Object> point = new HashMap<>();
-                        point.put("time", entry.getKey());
+                        point.put("time", entry.getKey().toString());
                         point.put("INFO", entry.getValue().getOrDefault("INFO", 0L));
                         point.put("WARN", entry.getValue().getOrDefault("WARN", 0L));
                         point.put("ERROR", entry.getValue().getOrDefault("ERROR", 0L));
@@ -195,15 +211,6 @@ public class ApiController {
 
         @GetMapping("/services")
         public ResponseEntity<List<String>> getServices() {
-                List<LogDocument> logs = StreamSupport.stream(logRepository.findAll().spliterator(), false)
-                                .collect(Collectors.toList());
-
-                List<String> services = logs.stream()
-                                .map(LogDocument::getServiceName)
-                                .distinct()
-                                .sorted()
-                                .collect(Collectors.toList());
-
-                return ResponseEntity.ok(services);
+                return ResponseEntity.ok(rollupStore.services());
         }
 }
@@ -0,0 +1,179 @@
+package com.company.loganalyzer.controller;
+
+import com.company.loganalyzer.codec.OtlpLogsDecoder;
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.ingestion.BackpressureController;
+import com.company.loganalyzer.ingestion.LogIngestionService;
+import com.company.loganalyzer.model.LogEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * OTLP/HTTP log receiver, so services exporting OpenTelemetry logs can send them
+ * here directly instead of through Kafka.
+ * <p>
+ * The protobuf body is decoded while it is read and the records are fed to the
+ * ingestion pipeline in chunks, so large exports are never held in memory
+ * whole. The response is an empty {@code ExportLogsServiceResponse}; while
+ * ingestion is paused for backpressure requests are refused with 503, which
+ * OTLP exporters retry.
+ * <p>
+ * A request failing part way has already ingested its first chunks, and
+ * exporters retry it whole. Every record with a time therefore gets a document
+ * id derived from its content and its index in the request, so the retry
+ * overwrites the documents indexed by the earlier attempt instead of
+ * duplicating them. Records without a time are stamped on arrival and get a
+ * fresh id. Only the index is protected this way: a retry still counts its
+ * records again in rollups, the cluster registry, baselines and incidents.
+ */
+@RestController
+@Profile("!lite")
+@ConditionalOnProperty(prefix = "ingestion.otlp", name = "enabled", havingValue = "true")
+public class OtlpLogsController {
+
+    private static final Logger log = LoggerFactory.getLogger(OtlpLogsController.class);
+    static final String PROTOBUF = "application/x-protobuf";
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final LogIngestionService ingestionService;
+    private final BackpressureController backpressure;
+    private final OtlpLogsDecoder decoder;
+    private final int batchSize;
+    private final Counter recordCounter;
+    private final MeterRegistry meterRegistry;
+
+    public OtlpLogsController(LogIngestionService ingestionService, BackpressureController backpressure,
+            IngestionConfig ingestionConfig, MeterRegistry meterRegistry) {
+        IngestionConfig.Otlp config = ingestionConfig.getOtlp();
+        this.ingestionService = ingestionService;
+        this.backpressure = backpressure;
+        this.decoder = new OtlpLogsDecoder(config.getMaxFieldBytes(), config.getMaxPendingRecords());
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.meterRegistry = meterRegistry;
+        this.recordCounter = meterRegistry.counter("loganalyzer.ingestion.otlp.records");
+    }
+
+    @PostMapping(path = "/v1/logs", consumes = PROTOBUF, produces = PROTOBUF)
+    public ResponseEntity<byte[]> export(HttpServletRequest request) throws IOException {
+        if (backpressure.isPaused()) {
+            reject("backpressure");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+
+        List<LogEvent> batch = new ArrayList<>(batchSize);
+        List<String> ids = new ArrayList<>(batchSize);
+        MessageDigest digest = sha256();
+        long[] index = new long[1];
+        long records;
+        try (InputStream body = body(request)) {
+            records = decoder.decode(body, event -> {
+                ids.add(documentId(digest, index[0]++, event));
+                batch.add(event);
+                if (batch.size() >= batchSize) {
+                    flush(batch, ids);
+                }
+            });
+            flush(batch, ids);
+        } catch (IllegalArgumentException | EOFException | ZipException e) {
+            // Chunks before the malformed part have been ingested; a 400 is not retried
+            log.warn("Rejected malformed OTLP logs request: {}", e.getMessage());
+            reject("malformed");
+            return ResponseEntity.badRequest().build();
+        }
+        log.debug("Ingested {} OTLP log records", records);
+        return ResponseEntity.ok().contentType(MediaType.valueOf(PROTOBUF))
+                .body(new byte[0]);
+    }
+
+    private void flush(List<LogEvent> batch, List<String> ids) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ingestionService.ingest(batch, ids);
+        recordCounter.increment(batch.size());
+        batch.clear();
+        ids.clear();
+    }
+
+    /**
+     * {@code otlp-} and 128 bits of the SHA-256 of the record's index and
+     * fields: the same for a record resent in the same position, distinct
+     * otherwise. Null for a record without a time, which is indexed at its
+     * arrival time and would otherwise collide with identical untimed records
+     * of other requests.
+     */
+    static String documentId(MessageDigest digest, long index, LogEvent event) {
+        Instant timestamp = event.timestamp();
+        if (timestamp == null) {
+            return null;
+        }
+        digest.reset();
+        update(digest, index);
+        update(digest, timestamp.getEpochSecond());
+        update(digest, timestamp.getNano());
+        Map<String, String> metadata = event.metadata() != null ? event.metadata() : Map.of();
+        for (String field : new String[] {event.serviceName(), event.level(), event.message(), event.stackTrace(),
+                metadata.get("traceId"), metadata.get("spanId")}) {
+            if (field == null) {
+                update(digest, -1);
+                continue;
+            }
+            byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+            update(digest, bytes.length);
+            digest.update(bytes);
+        }
+        return "otlp-" + HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static void update(MessageDigest digest, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            digest.update((byte) (value >>> (8 * i)));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static InputStream body(HttpServletRequest request) throws IOException {
+        InputStream body = request.getInputStream();
+        return "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))
+                ? new GZIPInputStream(body, 8192)
+                : body;
+    }
+
+    private void reject(String reason) {
+        meterRegistry.counter("loganalyzer.ingestion.otlp.rejected", "reason", reason).increment();
+    }
+}
@@ -0,0 +1,153 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses the ingestion listeners while the stores cannot keep up.
+ * <p>
+ * Ingestion reports how long each write to Elasticsearch and Postgres took; the
+ * controller smooths it into a moving average and watches the number of
+ * documents buffered in the {@link BulkIndexer}. When either crosses its pause
+ * threshold the listener containers are paused: the consumers keep polling, so
+ * the group does not rebalance, but fetch no records and buffer nothing more.
+ * They resume once both signals are below their (lower) resume thresholds, or
+ * after the maximum pause to probe whether the pressure has gone, since no
+ * latency is observed while paused.
+ */
+@Component
+@Profile("!lite")
+public class BackpressureController {
+
+    private static final Logger log = LoggerFactory.getLogger(BackpressureController.class);
+
+    static final List<String> LISTENER_IDS = List.of("logIngestionRecord", "logIngestionBatch");
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final BulkIndexer bulkIndexer;
+    private final IngestionConfig.Backpressure config;
+    private final boolean bulkEnabled;
+
+    private final ScheduledExecutorService monitor;
+    private final Counter pauseCounter;
+
+    private double latencyMs = -1; // moving average, -1 until the first sample
+    private volatile boolean paused;
+    private long pausedAtMillis;
+
+    public BackpressureController(KafkaListenerEndpointRegistry registry, BulkIndexer bulkIndexer,
+            IngestionConfig ingestionConfig, MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.bulkIndexer = bulkIndexer;
+        this.config = ingestionConfig.getBackpressure();
+        this.bulkEnabled = ingestionConfig.getBulk().isEnabled();
+
+        this.pauseCounter = meterRegistry.counter("loganalyzer.backpressure.pauses");
+        Gauge.builder("loganalyzer.backpressure.paused", this, c -> c.paused ? 1 : 0)
+                .description("1 while ingestion is paused for backpressure")
+                .register(meterRegistry);
+        Gauge.builder("loganalyzer.backpressure.write.latency", this, c -> Math.max(0, c.latencyMs()))
+                .description("Moving average of store write latency in milliseconds")
+                .register(meterRegistry);
+
+        if (config.isEnabled()) {
+            this.monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "backpressure-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            monitor.scheduleWithFixedDelay(this::check, config.getCheckIntervalMs(), config.getCheckIntervalMs(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.monitor = null;
+        }
+    }
+
+    /**
+     * Report the duration of one write of a record or batch to the stores.
+     */
+    public synchronized void recordWriteLatency(long millis) {
+        latencyMs = latencyMs < 0 ? millis : latencyMs + config.getLatencyAlpha() * (millis - latencyMs);
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    void check() {
+        try {
+            double latency = Math.max(0, latencyMs());
+            int queued = bulkEnabled ? bulkIndexer.getQueueDepth() : 0;
+            long now = System.currentTimeMillis();
+            if (!paused) {
+                if (latency > config.getPauseLatencyMs() || queued > config.getPauseQueueDocs()) {
+                    pause(latency, queued, now);
+                }
+            } else if (queued < config.getResumeQueueDocs()) {
+                if (latency < config.getResumeLatencyMs()) {
+                    resume("pressure dropped");
+                } else if (now - pausedAtMillis >= config.getMaxPauseMs()) {
+                    // Nothing is written while paused, so forget the latency and measure again
+                    resetLatency();
+                    resume("probing after " + config.getMaxPauseMs() + " ms");
+                }
+            }
+        } catch (Exception e) {
+            log.error("Backpressure check failed", e);
+        }
+    }
+
+    private void pause(double latency, int queued, long now) {
+        log.warn("Pausing log ingestion: write latency {} ms, {} documents buffered", Math.round(latency), queued);
+        for (MessageListenerContainer container : containers()) {
+            container.pause();
+        }
+        paused = true;
+        pausedAtMillis = now;
+        pauseCounter.increment();
+    }
+
+    private void resume(String reason) {
+        log.info("Resuming log ingestion: {}", reason);
+        for (MessageListenerContainer container : containers()) {
+            container.resume();
+        }
+        paused = false;
+    }
+
+    private List<MessageListenerContainer> containers() {
+        return LISTENER_IDS.stream()
+                .map(registry::getListenerContainer)
+                .filter(container -> container != null && container.isRunning())
+                .toList();
+    }
+
+    private synchronized double latencyMs() {
+        return latencyMs;
+    }
+
+    private synchronized void resetLatency() {
+        latencyMs = -1;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+    }
+}
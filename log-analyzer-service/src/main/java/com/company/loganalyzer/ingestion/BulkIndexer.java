@@ -0,0 +1,374 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers LogDocuments and writes them to Elasticsearch with bulk requests.
+ * A buffer is flushed when it reaches the target document count or payload
+ * size, or when its oldest document has waited longer than the max latency.
+ * With adaptive sizing the target document count follows AIMD: it grows
+ * additively after each bulk request within the target latency and shrinks
+ * multiplicatively after a slow or throttled one.
+ * At most {@code maxInFlight} bulk requests run concurrently; callers block when
+ * that limit is reached, while the latency timer skips the tick and checks again
+ * on the next one. Items rejected with 429/503 are retried individually,
+ * everything else fails the future returned for that document.
+ * Threads are only started when bulk indexing is enabled.
+ */
+@Component
+@Profile("!lite")
+public class BulkIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIndexer.class);
+
+    // Rough per-document JSON overhead on top of the message fields
+    private static final int DOCUMENT_OVERHEAD_BYTES = 256;
+
+    private final ElasticsearchOperations operations;
+    private final IngestionConfig.Bulk config;
+    private final IndexCoordinates index;
+
+    private final Object lock = new Object();
+    private List<PendingDocument> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    private long oldestEnqueuedNanos;
+
+    private final Semaphore inFlight;
+    private final ExecutorService bulkExecutor;
+    private final ScheduledExecutorService scheduler;
+    // Re-enqueues retries; may block on inFlight, which the timer thread must not
+    private final ExecutorService retryExecutor;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger targetDocs;
+    private final AtomicLong lastFlushLatencyMs = new AtomicLong();
+    private final Timer flushTimer;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public BulkIndexer(ElasticsearchOperations operations, IngestionConfig ingestionConfig,
+            MeterRegistry meterRegistry) {
+        this.operations = operations;
+        this.config = ingestionConfig.getBulk();
+        this.index = operations.getIndexCoordinatesFor(LogDocument.class);
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+        this.targetDocs = new AtomicInteger(config.getMaxDocs());
+
+        this.flushTimer = Timer.builder("loganalyzer.bulk.flush.latency")
+                .description("Latency of Elasticsearch bulk requests")
+                .register(meterRegistry);
+        this.retriedCounter = meterRegistry.counter("loganalyzer.bulk.documents.retried");
+        this.failedCounter = meterRegistry.counter("loganalyzer.bulk.documents.failed");
+        Gauge.builder("loganalyzer.bulk.queue.depth", queueDepth, AtomicInteger::get)
+                .description("Documents buffered or awaiting retry")
+                .register(meterRegistry);
+        Gauge.builder("loganalyzer.bulk.target.docs", targetDocs, AtomicInteger::get)
+                .description("Document count that triggers a bulk request")
+                .register(meterRegistry);
+        Gauge.builder("loganalyzer.bulk.inflight", inFlight,
+                s -> config.getMaxInFlight() - s.availablePermits())
+                .register(meterRegistry);
+
+        if (config.isEnabled()) {
+            this.bulkExecutor = Executors.newFixedThreadPool(config.getMaxInFlight(), namedThreads("bulk-indexer-"));
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("bulk-indexer-timer-"));
+            this.retryExecutor = Executors.newSingleThreadExecutor(namedThreads("bulk-indexer-retry-"));
+            long tickMs = Math.max(1, config.getMaxLatencyMs() / 2);
+            scheduler.scheduleWithFixedDelay(this::flushIfDue, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.bulkExecutor = null;
+            this.scheduler = null;
+            this.retryExecutor = null;
+        }
+    }
+
+    /**
+     * Queue a document. The returned future completes once the document is indexed.
+     */
+    public CompletableFuture<Void> submit(LogDocument document) {
+        if (bulkExecutor == null) {
+            throw new IllegalStateException("Bulk indexing is disabled (ingestion.bulk.enabled=false)");
+        }
+        if (document.getId() == null) {
+            // Client-side ids make item-level retries idempotent
+            document.setId(UUID.randomUUID().toString());
+        }
+        PendingDocument pending = new PendingDocument(document, estimateBytes(document), new CompletableFuture<>(), 0);
+        queueDepth.incrementAndGet();
+        enqueue(pending);
+        return pending.future();
+    }
+
+    public CompletableFuture<Void> submitAll(Collection<LogDocument> documents) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[documents.size()];
+        int i = 0;
+        for (LogDocument document : documents) {
+            futures[i++] = submit(document);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * Send whatever is buffered now instead of waiting for a flush policy.
+     */
+    public void flush() {
+        List<PendingDocument> batch = drain();
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getLastFlushLatencyMs() {
+        return lastFlushLatencyMs.get();
+    }
+
+    public int getTargetDocs() {
+        return targetDocs.get();
+    }
+
+    private void enqueue(PendingDocument pending) {
+        List<PendingDocument> full = null;
+        synchronized (lock) {
+            if (buffer.isEmpty()) {
+                oldestEnqueuedNanos = System.nanoTime();
+            }
+            buffer.add(pending);
+            bufferedBytes += pending.bytes();
+            if (buffer.size() >= targetDocs.get() || bufferedBytes >= config.getMaxBytes()) {
+                full = swapBuffer();
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+    }
+
+    private void flushIfDue() {
+        // The timer thread also schedules retries, so it never waits for a permit
+        if (!inFlight.tryAcquire()) {
+            return;
+        }
+        List<PendingDocument> batch;
+        synchronized (lock) {
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestEnqueuedNanos);
+            if (buffer.isEmpty() || waitedMs < config.getMaxLatencyMs()) {
+                inFlight.release();
+                return;
+            }
+            batch = swapBuffer();
+        }
+        send(batch);
+    }
+
+    private List<PendingDocument> drain() {
+        synchronized (lock) {
+            return buffer.isEmpty() ? List.of() : swapBuffer();
+        }
+    }
+
+    private List<PendingDocument> swapBuffer() {
+        List<PendingDocument> batch = buffer;
+        buffer = new ArrayList<>(Math.min(targetDocs.get(), 1024));
+        bufferedBytes = 0;
+        return batch;
+    }
+
+    private void dispatch(List<PendingDocument> batch) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(batch, e);
+            return;
+        }
+        send(batch);
+    }
+
+    /**
+     * Hands a batch to the bulk executor; the caller holds an inFlight permit.
+     */
+    private void send(List<PendingDocument> batch) {
+        try {
+            bulkExecutor.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            fail(batch, e);
+        }
+    }
+
+    private void execute(List<PendingDocument> batch) {
+        long start = System.nanoTime();
+        boolean congested = false;
+        try {
+            List<IndexQuery> queries = new ArrayList<>(batch.size());
+            for (PendingDocument pending : batch) {
+                queries.add(new IndexQueryBuilder()
+                        .withId(pending.document().getId())
+                        .withObject(pending.document())
+                        .build());
+            }
+            operations.bulkIndex(queries, index);
+            complete(batch);
+        } catch (BulkFailureException e) {
+            congested = handlePartialFailure(batch, e);
+        } catch (RuntimeException e) {
+            log.warn("Bulk request of {} documents failed: {}", batch.size(), e.getMessage());
+            congested = true;
+            fail(batch, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            lastFlushLatencyMs.set(TimeUnit.NANOSECONDS.toMillis(elapsed));
+            inFlight.release();
+            if (config.isAdaptive()) {
+                adaptTargetDocs(TimeUnit.NANOSECONDS.toMillis(elapsed), congested);
+            }
+        }
+    }
+
+    /**
+     * Additive increase while requests are fast, multiplicative decrease when one
+     * is slow, throttled or fails.
+     */
+    private void adaptTargetDocs(long latencyMs, boolean congested) {
+        int minDocs = Math.min(config.getMinDocs(), config.getMaxDocs());
+        if (congested || latencyMs > config.getTargetLatencyMs()) {
+            targetDocs.updateAndGet(docs -> Math.max(minDocs, (int) (docs * config.getDecreaseFactor())));
+        } else {
+            targetDocs.updateAndGet(docs -> Math.min(config.getMaxDocs(), docs + config.getIncreaseDocs()));
+        }
+    }
+
+    /**
+     * Completes, retries or fails each document of a partially failed request.
+     * Returns whether Elasticsearch throttled any of them.
+     */
+    private boolean handlePartialFailure(List<PendingDocument> batch, BulkFailureException e) {
+        Map<String, BulkFailureException.FailureDetails> failed = e.getFailedDocuments();
+        List<PendingDocument> retries = new ArrayList<>();
+
+        for (PendingDocument pending : batch) {
+            BulkFailureException.FailureDetails details = failed.get(pending.document().getId());
+            if (details == null) {
+                complete(List.of(pending));
+            } else if (isRetryable(details.status()) && pending.attempt() < config.getMaxRetries()) {
+                retries.add(pending.nextAttempt());
+            } else {
+                fail(List.of(pending), new BulkFailureException(details.errorMessage(),
+                        Map.of(pending.document().getId(), details)));
+            }
+        }
+
+        if (!retries.isEmpty()) {
+            retriedCounter.increment(retries.size());
+            // Documents of one request can be on different attempts, each backs off on its own
+            Map<Integer, List<PendingDocument>> byAttempt = new TreeMap<>();
+            for (PendingDocument retry : retries) {
+                byAttempt.computeIfAbsent(retry.attempt(), k -> new ArrayList<>()).add(retry);
+            }
+            byAttempt.forEach(this::scheduleRetry);
+        }
+        return !retries.isEmpty();
+    }
+
+    private void scheduleRetry(int attempt, List<PendingDocument> retries) {
+        long backoffMs = config.getRetryBackoffMs() * (1L << (attempt - 1));
+        log.debug("Retrying {} rejected documents in {}ms (attempt {})", retries.size(), backoffMs, attempt);
+        // Retried documents stay counted in queueDepth until they complete or fail
+        scheduler.schedule(() -> {
+            try {
+                retryExecutor.execute(() -> retries.forEach(this::enqueue));
+            } catch (RejectedExecutionException rejected) {
+                fail(retries, rejected); // shutting down
+            }
+        }, backoffMs, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isRetryable(Integer status) {
+        return status != null && (status == 429 || status == 503);
+    }
+
+    private void complete(List<PendingDocument> batch) {
+        queueDepth.addAndGet(-batch.size());
+        batch.forEach(p -> p.future().complete(null));
+    }
+
+    private void fail(List<PendingDocument> batch, Throwable cause) {
+        queueDepth.addAndGet(-batch.size());
+        failedCounter.increment(batch.size());
+        batch.forEach(p -> p.future().completeExceptionally(cause));
+    }
+
+    private static long estimateBytes(LogDocument document) {
+        long bytes = DOCUMENT_OVERHEAD_BYTES;
+        if (document.getMessage() != null) {
+            bytes += document.getMessage().length();
+        }
+        if (document.getNormalizedMessage() != null) {
+            bytes += document.getNormalizedMessage().length();
+        }
+        return bytes;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (bulkExecutor == null) {
+            return;
+        }
+        scheduler.shutdown();
+        retryExecutor.shutdown();
+        flush();
+        bulkExecutor.shutdown();
+        try {
+            if (!bulkExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Bulk indexer did not drain within 10s, {} documents pending", queueDepth.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record PendingDocument(LogDocument document, long bytes, CompletableFuture<Void> future, int attempt) {
+        PendingDocument nextAttempt() {
+            return new PendingDocument(document, bytes, future, attempt + 1);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fans a polled batch out to worker threads while preserving order per key.
+ * Items are grouped by key in their original order and each group runs as a single
+ * task, so two items with the same key are never processed concurrently or out of
+ * order. {@link #dispatch} only returns once every group has finished.
+ */
+@Component
+@Profile("!lite")
+public class KeyOrderedDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    private final ExecutorService executor;
+
+    public KeyOrderedDispatcher(IngestionConfig ingestionConfig) {
+        IngestionConfig.Parallel config = ingestionConfig.getParallel();
+        if (config.isVirtualThreads()) {
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(config.getWorkers(), runnable -> {
+                Thread thread = new Thread(runnable, "ingestion-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Process {@code items} grouped by {@code keyFunction}.
+     *
+     * @return the failure with the lowest item index, together with the items of
+     *         the groups that did succeed, or null if every group succeeded
+     */
+    public <T> Failure dispatch(List<T> items, Function<T, String> keyFunction, Consumer<List<T>> handler) {
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            groups.computeIfAbsent(keyFunction.apply(items.get(i)), k -> new ArrayList<>()).add(i);
+        }
+
+        Map<List<Integer>, Future<?>> tasks = new LinkedHashMap<>();
+        for (List<Integer> indexes : groups.values()) {
+            List<T> group = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                group.add(items.get(index));
+            }
+            tasks.put(indexes, executor.submit(() -> handler.accept(group)));
+        }
+
+        // A group fails as a unit, so its first index is the lowest unprocessed item
+        int failedIndex = -1;
+        Throwable cause = null;
+        BitSet processed = new BitSet(items.size());
+        for (Map.Entry<List<Integer>, Future<?>> task : tasks.entrySet()) {
+            int first = task.getKey().get(0);
+            try {
+                task.getValue().get();
+                task.getKey().forEach(processed::set);
+            } catch (ExecutionException e) {
+                if (failedIndex < 0 || first < failedIndex) {
+                    failedIndex = first;
+                    cause = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                // Groups still running may commit; their items are not reported as processed
+                Thread.currentThread().interrupt();
+                if (failedIndex < 0 || first < failedIndex) {
+                    failedIndex = first;
+                    cause = e;
+                }
+                break;
+            }
+        }
+        return failedIndex < 0 ? null : new Failure(failedIndex, cause, processed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        log.debug("Key-ordered dispatcher shut down");
+    }
+
+    /**
+     * @param index     lowest index of an item that was not processed
+     * @param processed indexes of the items whose groups completed, some of them
+     *                  after {@code index}
+     */
+    public record Failure(int index, Throwable cause, BitSet processed) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Splits ingestion into priority lanes by log level.
+ * <p>
+ * Levels not listed as sheddable (ERROR, WARN, ...) are always fully processed.
+ * While ingestion is overloaded, that is lagging more than the budget behind
+ * the records it reads or paused for backpressure, events at sheddable levels
+ * are sampled per (service, cluster, level): one in {@code sampleEvery} is
+ * indexed and run through detection, the rest are only counted. The counts are
+ * written periodically as one summary document per cluster, so shed volume stays
+ * visible in the log search; callers still add shed events to the in-memory
+ * rollups and cluster registry, which keeps timelines and cluster counts exact.
+ */
+@Component
+@Profile("!lite")
+public class LoadShedder {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadShedder.class);
+    static final String SUMMARY_SOURCE = "load-shedder";
+
+    private final SpoolingLogWriter logWriter;
+    private final BackpressureController backpressure;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long lagBudgetMs;
+    private final int sampleEvery;
+    private final Set<String> sheddableLevels = new HashSet<>();
+
+    private final Map<ShedKey, ShedCount> counts = new ConcurrentHashMap<>();
+    private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+    private volatile boolean lagging;
+
+    public LoadShedder(SpoolingLogWriter logWriter, BackpressureController backpressure,
+            IngestionConfig ingestionConfig, MeterRegistry meterRegistry) {
+        IngestionConfig.Shedding config = ingestionConfig.getShedding();
+        this.logWriter = logWriter;
+        this.backpressure = backpressure;
+        this.meterRegistry = meterRegistry;
+        this.enabled = config.isEnabled();
+        this.lagBudgetMs = config.getLagBudgetMs();
+        this.sampleEvery = Math.max(1, config.getSampleEvery());
+        config.getLevels().forEach(level -> sheddableLevels.add(level.toUpperCase(Locale.ROOT)));
+
+        Gauge.builder("loganalyzer.ingestion.shedding", this, shedder -> shedder.isShedding() ? 1 : 0)
+                .description("1 while low-priority logs are being sampled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Report how far behind the newest records being processed are. Shedding
+     * starts above the budget and stops below half of it.
+     */
+    public void observeLag(long lagMs) {
+        if (lagMs > lagBudgetMs) {
+            if (!lagging) {
+                lagging = true;
+                log.warn("Ingestion lags {} ms behind, sampling levels {}", lagMs, sheddableLevels);
+            }
+        } else if (lagging && lagMs < lagBudgetMs / 2) {
+            lagging = false;
+            log.info("Ingestion lag back to {} ms, processing all levels", lagMs);
+        }
+    }
+
+    public boolean isShedding() {
+        return enabled && (lagging || backpressure.isPaused());
+    }
+
+    /**
+     * Whether the document should be indexed and run through detection. Returns
+     * false, after counting it, for a sampled-out low-priority event.
+     */
+    public boolean admit(LogDocument document) {
+        if (!isShedding() || !isSheddable(document.getLevel())) {
+            return true;
+        }
+        ShedKey key = new ShedKey(document.getServiceName(), document.getClusterId(),
+                document.getLevel().toUpperCase(Locale.ROOT));
+        ShedCount count = counts.computeIfAbsent(key, k -> new ShedCount());
+        if (count.seen.getAndIncrement() % sampleEvery == 0) {
+            return true;
+        }
+        count.shed(document);
+        shedCounters.computeIfAbsent(key.level(),
+                level -> meterRegistry.counter("loganalyzer.ingestion.shed", "level", level)).increment();
+        return false;
+    }
+
+    private boolean isSheddable(String level) {
+        return level != null && sheddableLevels.contains(level.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Write one summary document per cluster with events shed since the last
+     * flush.
+     */
+    @Scheduled(fixedDelayString = "${ingestion.shedding.summary-interval-ms:60000}")
+    public void flushSummaries() {
+        List<LogDocument> summaries = new ArrayList<>();
+        counts.forEach((key, count) -> {
+            LogDocument summary = count.drainSummary(key);
+            if (summary != null) {
+                summaries.add(summary);
+            } else if (!isShedding()) {
+                counts.remove(key, count);
+            }
+        });
+        if (summaries.isEmpty()) {
+            return;
+        }
+        try {
+            logWriter.write(summaries);
+            log.info("Wrote {} load shedding summaries", summaries.size());
+        } catch (Exception e) {
+            log.error("Failed to write {} load shedding summaries", summaries.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushSummaries();
+    }
+
+    /**
+     * Id of a summary, derived from its cluster and the window it covers, so
+     * retried writes and spool replays overwrite it instead of adding copies.
+     */
+    static String summaryId(ShedKey key, Instant first, Instant last, long shed) {
+        String content = key.serviceName() + '\n' + key.clusterId() + '\n' + key.level() + '\n' + first + '\n'
+                + last + '\n' + shed;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+            return "shed-" + HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not found", e);
+        }
+    }
+
+    record ShedKey(String serviceName, String clusterId, String level) {
+    }
+
+    private static final class ShedCount {
+
+        private final AtomicLong seen = new AtomicLong();
+        private long shed;
+        private String sampleMessage;
+        private String sampleNormalized;
+        private Instant firstTimestamp;
+        private Instant lastTimestamp;
+
+        synchronized void shed(LogDocument document) {
+            if (shed++ == 0) {
+                sampleMessage = document.getMessage();
+                sampleNormalized = document.getNormalizedMessage();
+                firstTimestamp = document.getTimestamp();
+            }
+            if (document.getTimestamp().isBefore(firstTimestamp)) {
+                firstTimestamp = document.getTimestamp();
+            }
+            if (lastTimestamp == null || document.getTimestamp().isAfter(lastTimestamp)) {
+                lastTimestamp = document.getTimestamp();
+            }
+        }
+
+        synchronized LogDocument drainSummary(ShedKey key) {
+            if (shed == 0) {
+                return null;
+            }
+            LogDocument summary = new LogDocument(key.serviceName(), key.level(),
+                    "[shed] " + shed + " " + key.level() + " logs like this one were not indexed under load: "
+                            + sampleMessage,
+                    sampleNormalized, key.clusterId(), lastTimestamp);
+            summary.setId(summaryId(key, firstTimestamp, lastTimestamp, shed));
+            summary.setSource(SUMMARY_SOURCE);
+            summary.setOccurrenceCount(shed);
+            summary.setFirstTimestamp(firstTimestamp);
+            summary.setLastTimestamp(lastTimestamp);
+            summary.setSampleMessages(sampleMessage != null ? List.of(sampleMessage) : List.of());
+            shed = 0;
+            lastTimestamp = null;
+            return summary;
+        }
+    }
+}
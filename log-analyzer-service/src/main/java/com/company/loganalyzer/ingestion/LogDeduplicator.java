@@ -0,0 +1,137 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Collapses repetitive log lines of a batch into counted documents.
+ * <p>
+ * Documents at the configured levels are grouped by service, level, cluster and
+ * a fixed time window. A group of one is indexed unchanged; a larger group is
+ * indexed as a copy of its first document, stamped with the occurrence count,
+ * the first and last timestamp and a few distinct raw messages. The input
+ * documents are never modified, so detection, rollups and the cluster registry
+ * still see every event as it was.
+ */
+@Component
+@Profile("!lite")
+public class LogDeduplicator {
+
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxSamples;
+    private final Set<String> levels = new HashSet<>();
+    private final Counter mergedCounter;
+
+    public LogDeduplicator(IngestionConfig ingestionConfig, MeterRegistry meterRegistry) {
+        IngestionConfig.Dedup config = ingestionConfig.getDedup();
+        this.enabled = config.isEnabled();
+        this.windowMs = Math.max(1, config.getWindowMs());
+        this.maxSamples = config.getMaxSamples();
+        config.getLevels().forEach(level -> levels.add(level.toUpperCase(Locale.ROOT)));
+        this.mergedCounter = meterRegistry.counter("loganalyzer.ingestion.deduplicated");
+    }
+
+    /**
+     * The documents to index for {@code documents}, in first-occurrence order.
+     */
+    public List<LogDocument> deduplicate(List<LogDocument> documents) {
+        if (!enabled || documents.size() < 2) {
+            return documents;
+        }
+        Map<DedupKey, Group> groups = new LinkedHashMap<>();
+        List<Object> ordered = new ArrayList<>(documents.size());
+        boolean repeated = false;
+        for (LogDocument document : documents) {
+            String level = document.getLevel() != null ? document.getLevel().toUpperCase(Locale.ROOT) : null;
+            if (level == null || !levels.contains(level) || document.getClusterId() == null
+                    || document.getOccurrenceCount() != null) {
+                ordered.add(document);
+                continue;
+            }
+            DedupKey key = new DedupKey(document.getServiceName(), level, document.getClusterId(),
+                    Math.floorDiv(document.getTimestamp().toEpochMilli(), windowMs));
+            Group group = groups.get(key);
+            if (group == null) {
+                group = new Group(document);
+                groups.put(key, group);
+                ordered.add(group);
+            } else {
+                group.add(document, maxSamples);
+                repeated = true;
+            }
+        }
+        if (!repeated) {
+            return documents;
+        }
+
+        List<LogDocument> result = new ArrayList<>(ordered.size());
+        long merged = 0;
+        for (Object item : ordered) {
+            if (item instanceof Group group) {
+                result.add(group.toDocument());
+                merged += group.count - 1;
+            } else {
+                result.add((LogDocument) item);
+            }
+        }
+        mergedCounter.increment(merged);
+        return result;
+    }
+
+    private record DedupKey(String serviceName, String level, String clusterId, long window) {
+    }
+
+    private static final class Group {
+
+        private final LogDocument first;
+        private long count = 1;
+        private Instant firstTimestamp;
+        private Instant lastTimestamp;
+        private final List<String> samples = new ArrayList<>();
+
+        Group(LogDocument first) {
+            this.first = first;
+            this.firstTimestamp = first.getTimestamp();
+            this.lastTimestamp = first.getTimestamp();
+            samples.add(first.getMessage());
+        }
+
+        void add(LogDocument document, int maxSamples) {
+            count++;
+            if (document.getTimestamp().isBefore(firstTimestamp)) {
+                firstTimestamp = document.getTimestamp();
+            }
+            if (document.getTimestamp().isAfter(lastTimestamp)) {
+                lastTimestamp = document.getTimestamp();
+            }
+            if (samples.size() < maxSamples && !samples.contains(document.getMessage())) {
+                samples.add(document.getMessage());
+            }
+        }
+
+        LogDocument toDocument() {
+            if (count == 1) {
+                return first;
+            }
+            LogDocument summary = new LogDocument(first.getServiceName(), first.getLevel(), first.getMessage(),
+                    first.getNormalizedMessage(), first.getClusterId(), firstTimestamp);
+            summary.setId(first.getId());
+            summary.setTraceId(first.getTraceId());
+            summary.setSpanId(first.getSpanId());
+            summary.setSource(first.getSource());
+            summary.setOccurrenceCount(count);
+            summary.setFirstTimestamp(firstTimestamp);
+            summary.setLastTimestamp(lastTimestamp);
+            summary.setSampleMessages(samples);
+            return summary;
+        }
+    }
+}
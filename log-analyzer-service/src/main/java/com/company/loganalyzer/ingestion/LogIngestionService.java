@@ -1,23 +1,30 @@
 package com.company.loganalyzer.ingestion;
 
-import com.company.loganalyzer.alerting.AlertService;
+import com.company.loganalyzer.alerting.AlertDispatcher;
 import com.company.loganalyzer.analysis.AnomalyDetector;
+import com.company.loganalyzer.analysis.ClusterRegistry;
 import com.company.loganalyzer.analysis.ErrorClusterer;
 import com.company.loganalyzer.analysis.LogNormalizer;
+import com.company.loganalyzer.analysis.WatermarkTracker;
+import com.company.loganalyzer.config.IngestionConfig;
 import com.company.loganalyzer.config.KafkaConfig;
 import com.company.loganalyzer.model.*;
-import com.company.loganalyzer.repository.IncidentRepository;
-import com.company.loganalyzer.repository.LogRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.context.annotation.Profile;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Profile("!lite")
@@ -25,93 +32,302 @@ public class LogIngestionService {
 
     private static final Logger log = LoggerFactory.getLogger(LogIngestionService.class);
 
+    /** Watermark partition of events that do not come from Kafka. */
+    public static final int EXTERNAL_PARTITION = -1;
+
     private final LogNormalizer logNormalizer;
     private final ErrorClusterer errorClusterer;
     private final AnomalyDetector anomalyDetector;
-    private final LogRepository logRepository;
-    private final IncidentRepository incidentRepository;
-    private final AlertService alertService;
+    private final AlertDispatcher alertDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final SpoolingLogWriter logWriter;
+    private final IngestionConfig ingestionConfig;
+    private final KeyOrderedDispatcher dispatcher;
+    private final WatermarkTracker watermarkTracker;
+    private final ClusterRegistry clusterRegistry;
+    private final LogRollupStore rollupStore;
+    private final OpenIncidentCache openIncidentCache;
+    private final BackpressureController backpressure;
+    private final LoadShedder loadShedder;
+    private final LogDeduplicator deduplicator;
+    private final ProcessedRecordFilter processedRecords = new ProcessedRecordFilter();
 
     public LogIngestionService(LogNormalizer logNormalizer, ErrorClusterer errorClusterer,
             AnomalyDetector anomalyDetector,
-            LogRepository logRepository, IncidentRepository incidentRepository,
-            AlertService alertService) {
+            AlertDispatcher alertDispatcher, TransactionTemplate transactionTemplate,
+            SpoolingLogWriter logWriter, IngestionConfig ingestionConfig, KeyOrderedDispatcher dispatcher,
+            WatermarkTracker watermarkTracker, ClusterRegistry clusterRegistry, LogRollupStore rollupStore,
+            OpenIncidentCache openIncidentCache, BackpressureController backpressure, LoadShedder loadShedder,
+            LogDeduplicator deduplicator) {
         this.logNormalizer = logNormalizer;
         this.errorClusterer = errorClusterer;
         this.anomalyDetector = anomalyDetector;
-        this.logRepository = logRepository;
-        this.incidentRepository = incidentRepository;
-        this.alertService = alertService;
+        this.alertDispatcher = alertDispatcher;
+        this.transactionTemplate = transactionTemplate;
+        this.logWriter = logWriter;
+        this.ingestionConfig = ingestionConfig;
+        this.dispatcher = dispatcher;
+        this.watermarkTracker = watermarkTracker;
+        this.clusterRegistry = clusterRegistry;
+        this.rollupStore = rollupStore;
+        this.openIncidentCache = openIncidentCache;
+        this.backpressure = backpressure;
+        this.loadShedder = loadShedder;
+        this.deduplicator = deduplicator;
     }
 
-    @KafkaListener(topics = KafkaConfig.TOPIC_APP_LOGS, groupId = "log-analyzer-group")
+    @KafkaListener(id = "logIngestionRecord", topics = KafkaConfig.TOPIC_APP_LOGS, groupId = "log-analyzer-group",
+            autoStartup = "#{'${ingestion.mode:record}' == 'record'}")
     @Transactional
-    public void consumeLogs(LogEvent logEvent) {
+    public void consumeLogs(LogEventView logEvent, @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long recordTimestamp) {
         log.debug("Processing log: {}", logEvent);
+        loadShedder.observeLag(System.currentTimeMillis() - recordTimestamp);
 
-        // 1. Normalize
-        String normalizedMessage = logNormalizer.normalize(logEvent.message());
-
-        // 2. Cluster
-        String clusterId = errorClusterer.generateClusterId(normalizedMessage, logEvent.stackTrace());
+        // 1. Normalize, 2. Cluster
+        LogDocument logDoc = toLogDocument(logEvent);
 
-        // 3. Persist Log to Elasticsearch
-        LogDocument logDoc = new LogDocument(
-                logEvent.serviceName(),
-                logEvent.level(),
-                logEvent.message(),
-                normalizedMessage,
-                clusterId,
-                logEvent.timestamp() != null ? logEvent.timestamp() : Instant.now());
+        // Low-priority events sampled out under load are only counted
+        if (!loadShedder.admit(logDoc)) {
+            clusterRegistry.record(logDoc);
+            rollupStore.record(logDoc);
+            return;
+        }
 
-        // Extract trace context from metadata (set by KafkaLogForwarder in
-        // microservices-demo)
-        if (logEvent.metadata() != null) {
-            String traceId = logEvent.metadata().get("traceId");
-            String spanId = logEvent.metadata().get("spanId");
-            if (traceId != null)
-                logDoc.setTraceId(traceId);
-            if (spanId != null)
-                logDoc.setSpanId(spanId);
-            logDoc.setSource(traceId != null ? "microservices-demo" : "log-producer");
+        // 3. Persist Log to Elasticsearch, or the spool while it is down. With the
+        // bulk indexer enabled the write is handed off asynchronously, so the offset
+        // may commit before the document is indexed; use batch mode where that matters.
+        if (ingestionConfig.getBulk().isEnabled()) {
+            logWriter.submit(logDoc);
         } else {
-            logDoc.setSource("log-producer");
+            long start = System.nanoTime();
+            try {
+                logWriter.write(List.of(logDoc));
+            } finally {
+                backpressure.recordWriteLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
         }
-
-        logRepository.save(logDoc);
+        clusterRegistry.record(logDoc);
+        rollupStore.record(logDoc);
 
         // 4. Detect Anomalies
-        List<AnomalyType> anomalies = anomalyDetector.detectAnomalies(logEvent.serviceName(), logEvent.level());
+        List<AnomalyType> anomalies = detectAnomalies(logEvent, logDoc, partition);
 
         if (!anomalies.isEmpty()) {
             log.warn("ANOMALY DETECTED for service {}: {}", logEvent.serviceName(), anomalies);
             createOrUpdateIncident(logEvent.serviceName(), anomalies);
         } else {
-            log.info("Log processed. Cluster: {}", clusterId);
+            log.info("Log processed. Cluster: {}", logDoc.getClusterId());
         }
     }
 
-    private void createOrUpdateIncident(String serviceName, List<AnomalyType> anomalies) {
-        // Simple logic: check if there is an OPEN incident for this service
-        Optional<IncidentEntity> openIncident = incidentRepository.findFirstByServiceNameAndStatusOrderByStartTimeDesc(
-                serviceName, IncidentEntity.IncidentStatus.OPEN);
+    /**
+     * Batch mode: processes a whole poll in one pass. The batch is indexed with a
+     * single bulk request and incidents are resolved once per service; offsets are
+     * only acknowledged after the transaction has committed. Any failure propagates
+     * to the container error handler, which re-seeks and redelivers the batch.
+     * <p>
+     * With parallel processing enabled the poll is split by service name and each
+     * service is processed on its own worker, in order and in its own transaction.
+     * If a service fails, offsets are committed up to its first record and the rest
+     * of the batch is redelivered; records of other services that were already
+     * committed are skipped on redelivery.
+     */
+    @KafkaListener(id = "logIngestionBatch", topics = KafkaConfig.TOPIC_APP_LOGS, groupId = "log-analyzer-group",
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY,
+            autoStartup = "#{'${ingestion.mode:record}' == 'batch'}")
+    public void consumeLogBatch(List<ConsumerRecord<String, LogEventView>> polled, Acknowledgment ack) {
+        if (!ingestionConfig.getParallel().isEnabled()) {
+            processInTransaction(polled);
+            ack.acknowledge();
+            return;
+        }
+
+        List<ConsumerRecord<String, LogEventView>> records = processedRecords.skipProcessed(polled);
+        KeyOrderedDispatcher.Failure failure = dispatcher.dispatch(records,
+                record -> record.value() != null ? String.valueOf(record.value().serviceName()) : "",
+                this::processInTransaction);
 
-        if (openIncident.isPresent()) {
-            // In a real system, we might update the incident or add events to it
-            log.info("Existing open incident found for service {}. ID: {}", serviceName, openIncident.get().getId());
+        if (failure == null) {
+            ack.acknowledge();
+            processedRecords.forget(polled);
         } else {
-            // Create new incident
-            IncidentEntity incident = new IncidentEntity(
-                    serviceName,
-                    anomalies.get(0), // Primary anomaly type
-                    Instant.now(),
-                    "Detected anomalies: " + anomalies,
-                    IncidentEntity.IncidentStatus.OPEN);
-            incidentRepository.save(incident);
-            log.info("Created new incident for service {}. ID: {}", serviceName, incident.getId());
-
-            // Trigger Alert
-            alertService.sendAlert(incident);
+            ConsumerRecord<String, LogEventView> failed = records.get(failure.index());
+            failure.processed().stream()
+                    .filter(index -> index > failure.index())
+                    .forEach(index -> processedRecords.remember(records.get(index)));
+            log.error("Failed to process logs for service {} at {}-{}@{}, redelivering from there",
+                    failed.value() != null ? failed.value().serviceName() : null,
+                    failed.topic(), failed.partition(), failed.offset(), failure.cause());
+            ack.nack(polled.indexOf(failed), Duration.ofMillis(ingestionConfig.getParallel().getRetryBackoffMs()));
+        }
+    }
+
+    /**
+     * Processes records in one transaction and reports how long it took, writes
+     * and commit included, to the backpressure controller.
+     */
+    private void processInTransaction(List<ConsumerRecord<String, LogEventView>> records) {
+        inTransaction(() -> processRecords(records));
+    }
+
+    /**
+     * Runs events received outside Kafka, such as OTLP exports, through the batch
+     * pipeline in one transaction. Their documents get the given ids, one per
+     * event and null for a generated one, so a retried request overwrites what an
+     * earlier attempt indexed; their event times advance the
+     * {@link #EXTERNAL_PARTITION} watermark.
+     */
+    public void ingest(List<? extends LogEventView> events, List<String> ids) {
+        if (events.size() != ids.size()) {
+            throw new IllegalArgumentException(events.size() + " events but " + ids.size() + " ids");
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        inTransaction(() -> {
+            List<IngestedLog> logs = new ArrayList<>(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                LogEventView event = events.get(i);
+                LogDocument document = toLogDocument(event);
+                document.setId(ids.get(i));
+                logs.add(new IngestedLog(event, document, EXTERNAL_PARTITION));
+            }
+            process(logs);
+        });
+    }
+
+    private void inTransaction(Runnable work) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+        } finally {
+            backpressure.recordWriteLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Runs the pipeline over polled records. Documents get an id derived from the
+     * record coordinates so redelivered records overwrite rather than duplicate.
+     */
+    void processRecords(List<ConsumerRecord<String, LogEventView>> records) {
+        List<IngestedLog> logs = new ArrayList<>(records.size());
+        long newestTimestamp = Long.MIN_VALUE;
+        for (ConsumerRecord<String, LogEventView> record : records) {
+            newestTimestamp = Math.max(newestTimestamp, record.timestamp());
+            if (record.value() == null) {
+                continue;
+            }
+            LogDocument document = toLogDocument(record.value());
+            document.setId(record.topic() + "-" + record.partition() + "-" + record.offset());
+            logs.add(new IngestedLog(record.value(), document, record.partition()));
+        }
+        if (!records.isEmpty()) {
+            loadShedder.observeLag(System.currentTimeMillis() - newestTimestamp);
+        }
+        process(logs);
+    }
+
+    private void process(List<IngestedLog> logs) {
+        if (logs.isEmpty()) {
+            return;
         }
+
+        // 1. Persist in bulk what the load shedder admits, repeated lines collapsed into
+        // counted documents; shed and merged events still reach the registry and rollups
+        List<LogDocument> documents = new ArrayList<>(logs.size());
+        List<IngestedLog> admitted = new ArrayList<>(logs.size());
+        List<LogDocument> indexed = new ArrayList<>(logs.size());
+        for (IngestedLog ingested : logs) {
+            documents.add(ingested.document());
+            if (loadShedder.admit(ingested.document())) {
+                admitted.add(ingested);
+                indexed.add(ingested.document());
+            }
+        }
+        if (!indexed.isEmpty()) {
+            indexDocuments(deduplicator.deduplicate(indexed));
+        }
+        documents.forEach(clusterRegistry::record);
+        rollupStore.recordAll(documents);
+
+        // 2. Detect anomalies per event, but resolve incidents once per service
+        Map<String, Set<AnomalyType>> anomaliesByService = new LinkedHashMap<>();
+        for (IngestedLog ingested : admitted) {
+            List<AnomalyType> anomalies = detectAnomalies(ingested.event(), ingested.document(), ingested.partition());
+            if (!anomalies.isEmpty()) {
+                anomaliesByService.computeIfAbsent(ingested.event().serviceName(), k -> new LinkedHashSet<>())
+                        .addAll(anomalies);
+            }
+        }
+
+        anomaliesByService.forEach((serviceName, anomalies) -> {
+            log.warn("ANOMALY DETECTED for service {}: {}", serviceName, anomalies);
+            createOrUpdateIncident(serviceName, new ArrayList<>(anomalies));
+        });
+
+        log.debug("Processed batch of {} logs ({} shed), {} services with anomalies", logs.size(),
+                logs.size() - admitted.size(), anomaliesByService.size());
+    }
+
+    /**
+     * Advances the partition's watermark with the event time, then runs detection
+     * on the event time as clamped by the tracker.
+     */
+    private List<AnomalyType> detectAnomalies(LogEventView logEvent, LogDocument logDoc, int partition) {
+        long eventTime = watermarkTracker.observe(partition, logDoc.getTimestamp().toEpochMilli());
+        return anomalyDetector.detectAnomalies(logEvent.serviceName(), logEvent.level(), logDoc.getClusterId(),
+                Instant.ofEpochMilli(eventTime));
+    }
+
+    /**
+     * Writes documents through the bulk indexer when enabled, waiting until they are
+     * indexed, or spooled to disk while Elasticsearch is down, so the caller can
+     * safely commit offsets afterwards.
+     */
+    private void indexDocuments(List<LogDocument> documents) {
+        logWriter.write(documents);
+    }
+
+    private LogDocument toLogDocument(LogEventView logEvent) {
+        String normalizedMessage = logNormalizer.normalize(logEvent.message());
+        // Only the top frames count towards the cluster, so only those are decoded
+        String clusterId = errorClusterer.generateClusterId(normalizedMessage,
+                logEvent.stackTrace(errorClusterer.getStackFrames()));
+
+        LogDocument logDoc = new LogDocument(
+                logEvent.serviceName(),
+                logEvent.level(),
+                logEvent.message(),
+                normalizedMessage,
+                clusterId,
+                logEvent.timestamp() != null ? logEvent.timestamp() : Instant.now());
+
+        // Extract trace context from metadata (set by KafkaLogForwarder in
+        // microservices-demo)
+        String traceId = logEvent.metadata("traceId");
+        String spanId = logEvent.metadata("spanId");
+        if (traceId != null)
+            logDoc.setTraceId(traceId);
+        if (spanId != null)
+            logDoc.setSpanId(spanId);
+        logDoc.setSource(traceId != null ? "microservices-demo" : "log-producer");
+        return logDoc;
+    }
+
+    private void createOrUpdateIncident(String serviceName, List<AnomalyType> anomalies) {
+        // Anomalies of a service with an open incident are absorbed in memory
+        IncidentEntity incident = openIncidentCache.recordAnomalies(serviceName, anomalies);
+        if (incident == null) {
+            log.debug("Open incident for service {} absorbed anomalies {}", serviceName, anomalies);
+            return;
+        }
+        log.info("Created new incident for service {}. ID: {}", serviceName, incident.getId());
+
+        // Trigger Alert, delivered asynchronously once the incident is committed
+        alertDispatcher.dispatch(incident);
+    }
+
+    private record IngestedLog(LogEventView event, LogDocument document, int partition) {
     }
 }
@@ -0,0 +1,162 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import com.company.loganalyzer.model.LogRollupEntity;
+import com.company.loganalyzer.repository.LogRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-minute log counts by service and level, maintained by the ingestion path.
+ * <p>
+ * Counts accumulate in memory and are flushed periodically to the
+ * {@code log_rollups} table as additive upserts. Minute rows older than the
+ * retention are merged into hourly rows. Reads combine the table with the
+ * counts not yet flushed, so the timeline is current without touching
+ * Elasticsearch. The set of known services is kept in memory as well.
+ */
+@Component
+@Profile("!lite")
+public class LogRollupStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LogRollupStore.class);
+
+    private final LogRollupRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final long minuteRetentionHours;
+
+    private final ConcurrentHashMap<RollupKey, Long> pending = new ConcurrentHashMap<>();
+    // Counts drained by a running flush, still visible to readers until committed
+    private volatile Map<RollupKey, Long> flushing = Map.of();
+    private final Set<String> services = ConcurrentHashMap.newKeySet();
+
+    public LogRollupStore(LogRollupRepository repository, TransactionTemplate transactionTemplate,
+            IngestionConfig ingestionConfig) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.minuteRetentionHours = ingestionConfig.getRollup().getMinuteRetentionHours();
+    }
+
+    @PostConstruct
+    void loadServices() {
+        try {
+            services.addAll(repository.findAllServices());
+        } catch (Exception e) {
+            log.warn("Could not load known services from rollups: {}", e.getMessage());
+        }
+    }
+
+    public void record(LogDocument document) {
+        RollupKey key = keyOf(document);
+        pending.merge(key, 1L, Long::sum);
+        services.add(key.serviceName());
+    }
+
+    /**
+     * Pre-aggregates a batch so the shared map is touched once per key.
+     */
+    public void recordAll(List<LogDocument> documents) {
+        Map<RollupKey, Long> counts = new HashMap<>();
+        for (LogDocument document : documents) {
+            counts.merge(keyOf(document), 1L, Long::sum);
+        }
+        counts.forEach((key, count) -> {
+            pending.merge(key, count, Long::sum);
+            services.add(key.serviceName());
+        });
+    }
+
+    /**
+     * Log counts per bucket and level since {@code from}, oldest first. Buckets
+     * are minutes within the retention and hours before it.
+     */
+    public SortedMap<Instant, Map<String, Long>> timeline(Instant from) {
+        SortedMap<Instant, Map<String, Long>> timeline = new TreeMap<>();
+        for (Object[] row : repository.sumByBucketAndLevel(from)) {
+            timeline.computeIfAbsent((Instant) row[0], k -> new HashMap<>())
+                    .merge((String) row[1], ((Number) row[2]).longValue(), Long::sum);
+        }
+        addUnflushed(timeline, flushing, from);
+        addUnflushed(timeline, pending, from);
+        return timeline;
+    }
+
+    public List<String> services() {
+        List<String> sorted = new ArrayList<>(services);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        Map<RollupKey, Long> drained = new HashMap<>();
+        for (RollupKey key : pending.keySet()) {
+            Long count = pending.remove(key);
+            if (count != null) {
+                drained.put(key, count);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        flushing = drained;
+        try {
+            transactionTemplate.executeWithoutResult(status -> drained.forEach((key, count) -> repository.addCount(
+                    key.minute(), LogRollupEntity.Resolution.MINUTE.name(), key.serviceName(), key.level(), count)));
+            log.debug("Flushed {} log rollups", drained.size());
+        } catch (Exception e) {
+            log.error("Failed to flush {} log rollups, keeping them for the next flush", drained.size(), e);
+            drained.forEach((key, count) -> pending.merge(key, count, Long::sum));
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.rollup.downsample-interval-ms:3600000}",
+            initialDelayString = "${ingestion.rollup.downsample-interval-ms:3600000}")
+    public void downsample() {
+        Instant cutoff = Instant.now().minus(minuteRetentionHours, ChronoUnit.HOURS).truncatedTo(ChronoUnit.HOURS);
+        try {
+            Integer merged = transactionTemplate.execute(status -> repository.rollUpMinutesToHours(cutoff));
+            log.info("Downsampled log rollups before {} into {} hourly rows", cutoff, merged);
+        } catch (Exception e) {
+            log.error("Failed to downsample log rollups before {}", cutoff, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private static void addUnflushed(SortedMap<Instant, Map<String, Long>> timeline, Map<RollupKey, Long> counts,
+            Instant from) {
+        counts.forEach((key, count) -> {
+            if (!key.minute().isBefore(from)) {
+                timeline.computeIfAbsent(key.minute(), k -> new HashMap<>()).merge(key.level(), count, Long::sum);
+            }
+        });
+    }
+
+    private static RollupKey keyOf(LogDocument document) {
+        Instant timestamp = document.getTimestamp() != null ? document.getTimestamp() : Instant.now();
+        return new RollupKey(timestamp.truncatedTo(ChronoUnit.MINUTES),
+                document.getServiceName() != null ? document.getServiceName() : "unknown",
+                document.getLevel() != null ? document.getLevel().toUpperCase(Locale.ROOT) : "UNKNOWN");
+    }
+
+    private record RollupKey(Instant minute, String serviceName, String level) {
+    }
+}
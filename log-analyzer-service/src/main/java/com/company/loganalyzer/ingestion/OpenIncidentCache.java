@@ -0,0 +1,191 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.AnomalyType;
+import com.company.loganalyzer.model.IncidentEntity;
+import com.company.loganalyzer.repository.IncidentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-through index of the open incident of each service.
+ * <p>
+ * The first anomaly of a service looks up its open incident once, or creates
+ * one; later anomalies are absorbed in memory as an occurrence count and
+ * last-seen time, and written to the incident row in batches. Entries are
+ * re-read from the database after a TTL so incidents resolved elsewhere are
+ * noticed, and are dropped if the transaction that created them rolls back.
+ * An incident created inside a transaction absorbs anomalies straight away,
+ * but is only flushed once that transaction has committed: before then its row
+ * is invisible to the flush transaction.
+ */
+@Component
+@Profile("!lite")
+public class OpenIncidentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenIncidentCache.class);
+
+    private final IncidentRepository incidentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMillis;
+
+    private final Map<String, OpenIncident> openIncidents = new ConcurrentHashMap<>();
+    private final Map<String, Object> serviceLocks = new ConcurrentHashMap<>();
+
+    public OpenIncidentCache(IncidentRepository incidentRepository, TransactionTemplate transactionTemplate,
+            IngestionConfig ingestionConfig) {
+        this.incidentRepository = incidentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttlMillis = ingestionConfig.getIncidentCache().getTtlMs();
+    }
+
+    /**
+     * Attach anomalies to the open incident of the service, creating it if there
+     * is none. Returns the incident if it was created by this call, so the caller
+     * can alert on it, or null if the anomalies were absorbed.
+     */
+    public IncidentEntity recordAnomalies(String serviceName, List<AnomalyType> anomalies) {
+        Instant now = Instant.now();
+        OpenIncident cached = openIncidents.get(serviceName);
+        if (cached != null && !cached.isExpired(now.toEpochMilli(), ttlMillis)) {
+            cached.absorb(now);
+            return null;
+        }
+
+        synchronized (serviceLocks.computeIfAbsent(serviceName, k -> new Object())) {
+            cached = openIncidents.get(serviceName);
+            if (cached != null && !cached.isExpired(now.toEpochMilli(), ttlMillis)) {
+                cached.absorb(now);
+                return null;
+            }
+            if (cached != null) {
+                // Expired: write back what it absorbed, then re-read the row
+                flush(serviceName, cached);
+            }
+
+            Optional<IncidentEntity> open = incidentRepository.findFirstByServiceNameAndStatusOrderByStartTimeDesc(
+                    serviceName, IncidentEntity.IncidentStatus.OPEN);
+            if (open.isPresent()) {
+                OpenIncident entry = new OpenIncident(open.get().getId(), now.toEpochMilli(), true);
+                entry.absorb(now);
+                cache(serviceName, entry);
+                return null;
+            }
+
+            IncidentEntity incident = new IncidentEntity(
+                    serviceName,
+                    anomalies.get(0), // Primary anomaly type
+                    now,
+                    "Detected anomalies: " + anomalies,
+                    IncidentEntity.IncidentStatus.OPEN);
+            incidentRepository.save(incident);
+            boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+            cache(serviceName, new OpenIncident(incident.getId(), now.toEpochMilli(), !inTransaction));
+            return incident;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.incident-cache.flush-interval-ms:2000}")
+    public void flush() {
+        openIncidents.forEach(this::flush);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void flush(String serviceName, OpenIncident entry) {
+        if (!entry.committed) {
+            return; // the row is not visible yet, keep absorbing until commit
+        }
+        OpenIncident.Pending pending = entry.drain();
+        if (pending == null) {
+            return;
+        }
+        try {
+            Integer updated = transactionTemplate.execute(status -> incidentRepository.addOccurrences(
+                    entry.incidentId, pending.count(), Instant.ofEpochMilli(pending.lastSeenMillis())));
+            if (updated == null || updated == 0) {
+                // Resolved or deleted elsewhere; the next anomaly opens a new incident
+                openIncidents.remove(serviceName, entry);
+            }
+        } catch (Exception e) {
+            log.error("Failed to update incident {} of service {}, retrying on next flush", entry.incidentId,
+                    serviceName, e);
+            entry.restore(pending);
+        }
+    }
+
+    private void cache(String serviceName, OpenIncident entry) {
+        openIncidents.put(serviceName, entry);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entry.committed = true;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        openIncidents.remove(serviceName, entry);
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class OpenIncident {
+        private final Long incidentId;
+        private final long cachedAtMillis;
+        private volatile boolean committed;
+        private long pendingCount;
+        private long lastSeenMillis;
+
+        OpenIncident(Long incidentId, long cachedAtMillis, boolean committed) {
+            this.incidentId = incidentId;
+            this.cachedAtMillis = cachedAtMillis;
+            this.committed = committed;
+        }
+
+        boolean isExpired(long nowMillis, long ttlMillis) {
+            return nowMillis - cachedAtMillis > ttlMillis;
+        }
+
+        synchronized void absorb(Instant seen) {
+            pendingCount++;
+            lastSeenMillis = Math.max(lastSeenMillis, seen.toEpochMilli());
+        }
+
+        synchronized Pending drain() {
+            if (pendingCount == 0) {
+                return null;
+            }
+            Pending pending = new Pending(pendingCount, lastSeenMillis);
+            pendingCount = 0;
+            return pending;
+        }
+
+        synchronized void restore(Pending pending) {
+            pendingCount += pending.count();
+            lastSeenMillis = Math.max(lastSeenMillis, pending.lastSeenMillis());
+        }
+
+        record Pending(long count, long lastSeenMillis) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.company.loganalyzer.ingestion;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Remembers records that were processed and committed to the stores although
+ * their offsets were not committed, so they are skipped when the batch is
+ * redelivered.
+ * <p>
+ * With parallel processing a failing service group rewinds the partition to its
+ * first record, but groups of other services after that record may already have
+ * committed. Offsets below the first redelivered offset of a partition are
+ * committed and forgotten. Records of a partition reassigned to another
+ * consumer in between are processed again there.
+ */
+class ProcessedRecordFilter {
+
+    private final Map<TopicPartition, NavigableSet<Long>> processed = new ConcurrentHashMap<>();
+
+    void remember(ConsumerRecord<?, ?> record) {
+        processed.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                partition -> new ConcurrentSkipListSet<>()).add(record.offset());
+    }
+
+    /**
+     * The records of {@code records} not processed before, in order. Skipped
+     * records stay remembered until {@link #forget} or a later poll starts past
+     * them, as they come back again if this batch fails too.
+     */
+    <V> List<ConsumerRecord<String, V>> skipProcessed(List<ConsumerRecord<String, V>> records) {
+        if (processed.isEmpty()) {
+            return records;
+        }
+        Map<TopicPartition, Long> firstOffsets = new HashMap<>();
+        List<ConsumerRecord<String, V>> remaining = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, V> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            firstOffsets.putIfAbsent(partition, record.offset());
+            NavigableSet<Long> offsets = processed.get(partition);
+            if (offsets == null || !offsets.contains(record.offset())) {
+                remaining.add(record);
+            }
+        }
+        // Offsets below the first one polled were committed and will not come back
+        firstOffsets.forEach((partition, first) -> {
+            NavigableSet<Long> offsets = processed.get(partition);
+            if (offsets != null) {
+                offsets.headSet(first).clear();
+                if (offsets.isEmpty()) {
+                    processed.remove(partition, offsets);
+                }
+            }
+        });
+        return remaining;
+    }
+
+    /**
+     * Forgets the records of {@code records} once their offsets are committed.
+     */
+    void forget(List<? extends ConsumerRecord<?, ?>> records) {
+        if (processed.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, Long> lastOffsets = new HashMap<>();
+        for (ConsumerRecord<?, ?> record : records) {
+            lastOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::max);
+        }
+        lastOffsets.forEach((partition, last) -> {
+            NavigableSet<Long> offsets = processed.get(partition);
+            if (offsets != null) {
+                offsets.headSet(last, true).clear();
+                if (offsets.isEmpty()) {
+                    processed.remove(partition, offsets);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,262 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import com.company.loganalyzer.repository.LogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes log documents to Elasticsearch, falling back to a {@link WriteAheadSpool}
+ * on disk while Elasticsearch is unavailable.
+ * <p>
+ * A write that fails because the store is unreachable or overloaded marks it
+ * unhealthy and spools the documents instead, so the Kafka listener carries on.
+ * Until the store is healthy again later writes go straight to the spool. A
+ * drainer thread replays the spool in bulk batches; the first successful replay
+ * marks the store healthy, and live writes go direct while the backlog drains.
+ * Spooled documents carry client-side ids, so a batch replayed twice after a
+ * crash overwrites rather than duplicates. Other failures, and writes the spool
+ * rejects because it is full, propagate as before.
+ */
+@Component
+@Profile("!lite")
+public class SpoolingLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolingLogWriter.class);
+
+    private final LogRepository logRepository;
+    private final BulkIndexer bulkIndexer;
+    private final ElasticsearchConverter converter;
+    private final IngestionConfig ingestionConfig;
+    private final int drainBatchSize;
+
+    private final WriteAheadSpool spool;
+    private final ScheduledExecutorService drainer;
+    private volatile boolean storeHealthy = true;
+
+    private final Counter spooledCounter;
+    private final Counter replayedCounter;
+    private final Counter rejectedCounter;
+
+    public SpoolingLogWriter(LogRepository logRepository, BulkIndexer bulkIndexer, ElasticsearchOperations operations,
+            IngestionConfig ingestionConfig, MeterRegistry meterRegistry) {
+        this.logRepository = logRepository;
+        this.bulkIndexer = bulkIndexer;
+        this.converter = operations.getElasticsearchConverter();
+        this.ingestionConfig = ingestionConfig;
+        IngestionConfig.Spool config = ingestionConfig.getSpool();
+        this.drainBatchSize = config.getDrainBatchSize();
+
+        this.spooledCounter = meterRegistry.counter("loganalyzer.spool.documents.spooled");
+        this.replayedCounter = meterRegistry.counter("loganalyzer.spool.documents.replayed");
+        this.rejectedCounter = meterRegistry.counter("loganalyzer.spool.documents.rejected");
+
+        if (!config.isEnabled()) {
+            this.spool = null;
+            this.drainer = null;
+            return;
+        }
+        try {
+            this.spool = new WriteAheadSpool(Path.of(config.getDirectory()), config.getSegmentBytes(),
+                    config.getMaxBytes(), WriteAheadSpool.OverflowPolicy.of(config.getOverflowPolicy()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the ingestion spool in " + config.getDirectory(), e);
+        }
+        // A spool left over from the last run means the store was down when it stopped
+        this.storeHealthy = spool.isEmpty();
+        Gauge.builder("loganalyzer.spool.disk.bytes", spool, WriteAheadSpool::diskBytes)
+                .description("Disk space used by the ingestion spool")
+                .register(meterRegistry);
+        FunctionCounter.builder("loganalyzer.spool.documents.dropped", spool, WriteAheadSpool::droppedRecords)
+                .description("Spooled documents discarded by the drop-oldest overflow policy")
+                .register(meterRegistry);
+        Gauge.builder("loganalyzer.spool.store.healthy", this, writer -> writer.storeHealthy ? 1 : 0)
+                .register(meterRegistry);
+
+        this.drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spool-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drain, config.getDrainIntervalMs(), config.getDrainIntervalMs(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write documents and wait until they are indexed or durably spooled.
+     */
+    public void write(List<LogDocument> documents) {
+        if (spool != null && !storeHealthy) {
+            spoolOrThrow(documents, null);
+            return;
+        }
+        try {
+            writeToStore(documents);
+        } catch (RuntimeException e) {
+            if (spool == null || !isUnavailable(e)) {
+                throw e;
+            }
+            if (storeHealthy) {
+                storeHealthy = false;
+                log.warn("Elasticsearch is unavailable, spooling logs to disk: {}", e.getMessage());
+            }
+            spoolOrThrow(documents, e);
+        }
+    }
+
+    /**
+     * Hand a document to the bulk indexer without waiting; if indexing fails
+     * because the store is unavailable the document is spooled instead.
+     */
+    public void submit(LogDocument document) {
+        if (spool != null && !storeHealthy) {
+            spoolOrThrow(List.of(document), null);
+            return;
+        }
+        CompletableFuture<Void> indexed = bulkIndexer.submit(document);
+        if (spool != null) {
+            indexed.exceptionally(e -> {
+                if (isUnavailable(e)) {
+                    storeHealthy = false;
+                    try {
+                        spoolOrThrow(List.of(document), e);
+                    } catch (RuntimeException rejected) {
+                        log.error("Dropping log {}: {}", document.getId(), rejected.getMessage());
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Replay spooled documents until the spool is empty or a write fails.
+     */
+    void drain() {
+        try {
+            while (true) {
+                WriteAheadSpool.Batch batch = spool.read(drainBatchSize);
+                if (batch.records().isEmpty()) {
+                    storeHealthy = true;
+                    return;
+                }
+                List<LogDocument> documents = new ArrayList<>(batch.records().size());
+                for (byte[] record : batch.records()) {
+                    documents.add(converter.read(LogDocument.class,
+                            Document.parse(new String(record, StandardCharsets.UTF_8))));
+                }
+                writeToStore(documents);
+                spool.acknowledge(batch);
+                replayedCounter.increment(documents.size());
+                if (!storeHealthy) {
+                    storeHealthy = true;
+                    log.info("Elasticsearch is available again, replaying spooled logs");
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Spool replay failed, retrying later: {}", e.getMessage());
+        } finally {
+            spool.force();
+        }
+    }
+
+    private void writeToStore(List<LogDocument> documents) {
+        if (ingestionConfig.getBulk().isEnabled()) {
+            CompletableFuture<Void> indexed = bulkIndexer.submitAll(documents);
+            bulkIndexer.flush();
+            indexed.join();
+        } else {
+            // Elasticsearch-generated ids stay out of _source, which log paging sorts on
+            assignIds(documents);
+            logRepository.saveAll(documents);
+        }
+    }
+
+    private static void assignIds(List<LogDocument> documents) {
+        for (LogDocument document : documents) {
+            if (document.getId() == null) {
+                document.setId(UUID.randomUUID().toString());
+            }
+        }
+    }
+
+    private void spoolOrThrow(List<LogDocument> documents, Throwable cause) {
+        assignIds(documents);
+        List<byte[]> records = new ArrayList<>(documents.size());
+        for (LogDocument document : documents) {
+            records.add(converter.mapObject(document).toJson().getBytes(StandardCharsets.UTF_8));
+        }
+        if (!spool.append(records)) {
+            rejectedCounter.increment(documents.size());
+            throw new IllegalStateException("Elasticsearch is unavailable and the ingestion spool is full", cause);
+        }
+        spooledCounter.increment(documents.size());
+    }
+
+    /**
+     * Whether a write failed because the store is unreachable or overloaded,
+     * rather than because of the documents themselves.
+     */
+    static boolean isUnavailable(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessException
+                    || e instanceof IOException) {
+                return true;
+            }
+            if (e instanceof UncategorizedElasticsearchException uncategorized) {
+                Integer status = uncategorized.getStatusCode();
+                return status == null || isUnavailableStatus(status);
+            }
+            if (e instanceof BulkFailureException bulk) {
+                return !bulk.getFailedDocuments().isEmpty() && bulk.getFailedDocuments().values().stream()
+                        .allMatch(details -> details.status() != null && isUnavailableStatus(details.status()));
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnavailableStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (spool == null) {
+            return;
+        }
+        drainer.shutdownNow();
+        try {
+            drainer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spool.close();
+    }
+}
@@ -0,0 +1,395 @@
+package com.company.loganalyzer.ingestion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only spool of opaque records in memory-mapped segment files.
+ * <p>
+ * A segment starts with a header holding a magic number and the offset up to
+ * which its records have been acknowledged. Each record is its length, the
+ * CRC32C of its payload and the payload; a zero length marks the end of the
+ * written part. On open, every segment is scanned up to the first record that
+ * is incomplete or fails its checksum, so a torn write at the tail is discarded.
+ * Appended records are forced to the device before {@link #append} returns, so
+ * they survive a machine crash as well as a process crash.
+ * <p>
+ * Reads always start from the acknowledged position, so records read but not
+ * acknowledged are read again; fully acknowledged segments are deleted. The
+ * total size of the segments is capped; when a new segment would exceed it the
+ * overflow policy either rejects the append or deletes the oldest segment.
+ */
+final class WriteAheadSpool implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadSpool.class);
+
+    private static final int MAGIC = 0x4c53504c; // "LSPL"
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int ACK_OFFSET = 8;
+    private static final String SUFFIX = ".seg";
+
+    enum OverflowPolicy {
+        REJECT, DROP_OLDEST;
+
+        static OverflowPolicy of(String value) {
+            return "drop-oldest".equalsIgnoreCase(value) ? DROP_OLDEST : REJECT;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final OverflowPolicy overflowPolicy;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private long nextSeq;
+    private long droppedRecords;
+
+    WriteAheadSpool(Path directory, int segmentBytes, long maxBytes, OverflowPolicy overflowPolicy)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(2, maxBytes / segmentBytes);
+        this.overflowPolicy = overflowPolicy;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Append records, all or none, and force them to the storage device before
+     * returning. Returns false if the spool is full and the overflow policy
+     * rejects them.
+     */
+    synchronized boolean append(List<byte[]> records) {
+        for (byte[] record : records) {
+            if (record.length > segmentBytes - HEADER_BYTES - RECORD_HEADER_BYTES) {
+                throw new IllegalArgumentException("Record of " + record.length + " bytes exceeds the segment size");
+            }
+        }
+        if (overflowPolicy == OverflowPolicy.REJECT && !fits(records)) {
+            return false;
+        }
+        Segment tail = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        int from = tail != null ? tail.writePosition : 0;
+        for (byte[] record : records) {
+            if (tail == null || !tail.hasRoom(record.length)) {
+                tail = roll(); // forces the previous tail
+                from = 0; // a new segment's header has not been forced yet
+            }
+            tail.write(record);
+        }
+        if (tail != null) {
+            tail.force(from);
+        }
+        return true;
+    }
+
+    /**
+     * Up to {@code maxRecords} unacknowledged records, oldest first.
+     */
+    synchronized Batch read(int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        long seq = -1;
+        int position = 0;
+        for (Segment segment : segments.values()) {
+            seq = segment.seq;
+            position = segment.ackedPosition();
+            while (records.size() < maxRecords && position < segment.writePosition) {
+                byte[] record = segment.readAt(position);
+                records.add(record);
+                position += RECORD_HEADER_BYTES + record.length;
+            }
+            if (records.size() >= maxRecords) {
+                break;
+            }
+        }
+        return new Batch(records, seq, position);
+    }
+
+    /**
+     * Mark everything up to the end of {@code batch} as consumed.
+     */
+    synchronized void acknowledge(Batch batch) {
+        if (batch.records().isEmpty()) {
+            return;
+        }
+        while (!segments.isEmpty() && segments.firstKey() < batch.segment()) {
+            delete(segments.pollFirstEntry().getValue());
+        }
+        Segment segment = segments.get(batch.segment());
+        if (segment == null) {
+            return; // dropped by the overflow policy meanwhile
+        }
+        if (batch.position() >= segment.writePosition && segment != segments.lastEntry().getValue()) {
+            delete(segments.pollFirstEntry().getValue());
+        } else {
+            segment.acknowledge(batch.position());
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        for (Segment segment : segments.values()) {
+            if (segment.ackedPosition() < segment.writePosition) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bytes on disk, a multiple of the segment size.
+     */
+    synchronized long diskBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    synchronized long droppedRecords() {
+        return droppedRecords;
+    }
+
+    /**
+     * Flush written records to the storage device.
+     */
+    synchronized void force() {
+        segments.values().forEach(Segment::force);
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    /**
+     * Whether the records fit without exceeding the segment limit, placing them
+     * the way {@link #append} would.
+     */
+    private boolean fits(List<byte[]> records) {
+        long position = segments.isEmpty() ? segmentBytes : segments.lastEntry().getValue().writePosition;
+        int freeSegments = maxSegments - segments.size();
+        for (byte[] record : records) {
+            if (position + RECORD_HEADER_BYTES + record.length > segmentBytes) {
+                if (freeSegments-- == 0) {
+                    return false;
+                }
+                position = HEADER_BYTES;
+            }
+            position += RECORD_HEADER_BYTES + record.length;
+        }
+        return true;
+    }
+
+    private Segment roll() {
+        if (!segments.isEmpty()) {
+            segments.lastEntry().getValue().force();
+        }
+        while (segments.size() >= maxSegments) {
+            if (overflowPolicy == OverflowPolicy.REJECT) {
+                throw new IllegalStateException("Spool is full");
+            }
+            Segment oldest = segments.pollFirstEntry().getValue();
+            long lost = oldest.countRecords(oldest.ackedPosition());
+            droppedRecords += lost;
+            log.warn("Spool is full, dropped segment {} with {} unreplayed records", oldest.path.getFileName(), lost);
+            delete(oldest);
+        }
+        long seq = nextSeq++;
+        try {
+            Segment segment = Segment.create(directory.resolve(String.format("%020d%s", seq, SUFFIX)), seq,
+                    segmentBytes);
+            segments.put(seq, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create spool segment", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long seq = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            nextSeq = Math.max(nextSeq, seq + 1);
+            Segment segment = Segment.open(file, seq);
+            if (segment == null) {
+                log.warn("Ignoring spool segment {} with an invalid header", file);
+                continue;
+            }
+            segments.put(seq, segment);
+        }
+        if (!segments.isEmpty()) {
+            log.info("Recovered spool with {} segments in {}", segments.size(), directory);
+        }
+    }
+
+    private void delete(Segment segment) {
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Failed to delete spool segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    /**
+     * Records read by {@link #read} and the position right after the last of
+     * them.
+     */
+    record Batch(List<byte[]> records, long segment, int position) {
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long seq;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final CRC32C crc = new CRC32C();
+        private int writePosition;
+
+        private Segment(Path path, long seq, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.seq = seq;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long seq, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(ACK_OFFSET, HEADER_BYTES);
+            Segment segment = new Segment(path, seq, channel, buffer);
+            segment.writePosition = HEADER_BYTES;
+            return segment;
+        }
+
+        static Segment open(Path path, long seq) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                channel.close();
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            Segment segment = new Segment(path, seq, channel, buffer);
+            long acked = buffer.getLong(ACK_OFFSET);
+            if (buffer.getInt(0) != MAGIC || acked < HEADER_BYTES || acked > size) {
+                segment.close();
+                return null;
+            }
+            segment.writePosition = segment.scanEnd();
+            if (acked > segment.writePosition) {
+                buffer.putLong(ACK_OFFSET, segment.writePosition);
+            }
+            return segment;
+        }
+
+        boolean hasRoom(int length) {
+            return writePosition + RECORD_HEADER_BYTES + length <= buffer.capacity();
+        }
+
+        void write(byte[] record) {
+            crc.reset();
+            crc.update(record);
+            buffer.put(writePosition + RECORD_HEADER_BYTES, record);
+            buffer.putInt(writePosition + 4, (int) crc.getValue());
+            // Length last, so a record is only visible once complete
+            buffer.putInt(writePosition, record.length);
+            writePosition += RECORD_HEADER_BYTES + record.length;
+            if (writePosition + 4 <= buffer.capacity()) {
+                buffer.putInt(writePosition, 0);
+            }
+        }
+
+        byte[] readAt(int position) {
+            byte[] record = new byte[buffer.getInt(position)];
+            buffer.get(position + RECORD_HEADER_BYTES, record);
+            return record;
+        }
+
+        int ackedPosition() {
+            return (int) buffer.getLong(ACK_OFFSET);
+        }
+
+        void acknowledge(int position) {
+            buffer.putLong(ACK_OFFSET, position);
+        }
+
+        /**
+         * Position after the last complete record with a valid checksum.
+         */
+        private int scanEnd() {
+            int position = HEADER_BYTES;
+            while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + RECORD_HEADER_BYTES + (long) length > buffer.capacity()) {
+                    break;
+                }
+                byte[] record = readAt(position);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    log.warn("Spool segment {} has a corrupt record at {}, discarding the rest", path, position);
+                    break;
+                }
+                position += RECORD_HEADER_BYTES + length;
+            }
+            return position;
+        }
+
+        long countRecords(int from) {
+            long count = 0;
+            for (int position = from; position < writePosition; position += RECORD_HEADER_BYTES + buffer.getInt(
+                    position)) {
+                count++;
+            }
+            return count;
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        /**
+         * Flush the bytes written from {@code position} on, up to and including
+         * the end marker.
+         */
+        void force(int position) {
+            int end = Math.min(buffer.capacity(), writePosition + 4);
+            if (end > position) {
+                buffer.force(position, end - position);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close spool segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
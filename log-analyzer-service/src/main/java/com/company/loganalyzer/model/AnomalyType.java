@@ -4,5 +4,6 @@ public enum AnomalyType {
     ERROR_BURST,
     LATENCY_SPIKE,
     NEW_ERROR_PATTERN,
-    RESOURCE_EXHAUSTION
+    RESOURCE_EXHAUSTION,
+    CLUSTER_BURST
 }
@@ -0,0 +1,137 @@
+package com.company.loganalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Persisted state of one error-rate baseline series, so a restart resumes from
+ * the learned baseline instead of relearning it.
+ */
+@Entity
+@Table(name = "anomaly_baselines")
+public class BaselineCheckpointEntity {
+
+    @Id
+    @Column(name = "series_key", length = 500)
+    private String seriesKey;
+
+    @Column(name = "interval_index")
+    private long intervalIndex;
+
+    @Column(name = "interval_count")
+    private long intervalCount;
+
+    private long samples;
+    private double mean;
+    private double variance;
+    private double cusum;
+
+    // Comma-separated hour-of-day profile, null unless seasonal
+    @Column(name = "seasonal_mean", columnDefinition = "TEXT")
+    private String seasonalMean;
+
+    @Column(name = "seasonal_variance", columnDefinition = "TEXT")
+    private String seasonalVariance;
+
+    @Column(name = "seasonal_samples", columnDefinition = "TEXT")
+    private String seasonalSamples;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public BaselineCheckpointEntity() {
+    }
+
+    public BaselineCheckpointEntity(String seriesKey) {
+        this.seriesKey = seriesKey;
+    }
+
+    // Getters and Setters
+    public String getSeriesKey() {
+        return seriesKey;
+    }
+
+    public void setSeriesKey(String seriesKey) {
+        this.seriesKey = seriesKey;
+    }
+
+    public long getIntervalIndex() {
+        return intervalIndex;
+    }
+
+    public void setIntervalIndex(long intervalIndex) {
+        this.intervalIndex = intervalIndex;
+    }
+
+    public long getIntervalCount() {
+        return intervalCount;
+    }
+
+    public void setIntervalCount(long intervalCount) {
+        this.intervalCount = intervalCount;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public void setVariance(double variance) {
+        this.variance = variance;
+    }
+
+    public double getCusum() {
+        return cusum;
+    }
+
+    public void setCusum(double cusum) {
+        this.cusum = cusum;
+    }
+
+    public String getSeasonalMean() {
+        return seasonalMean;
+    }
+
+    public void setSeasonalMean(String seasonalMean) {
+        this.seasonalMean = seasonalMean;
+    }
+
+    public String getSeasonalVariance() {
+        return seasonalVariance;
+    }
+
+    public void setSeasonalVariance(String seasonalVariance) {
+        this.seasonalVariance = seasonalVariance;
+    }
+
+    public String getSeasonalSamples() {
+        return seasonalSamples;
+    }
+
+    public void setSeasonalSamples(String seasonalSamples) {
+        this.seasonalSamples = seasonalSamples;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "incidents")
+@Table(name = "incidents", indexes = {
+        @Index(name = "idx_incidents_service_status_start", columnList = "service_name, status, start_time"),
+        @Index(name = "idx_incidents_status_start", columnList = "status, start_time"),
+        @Index(name = "idx_incidents_start", columnList = "start_time")
+})
 public class IncidentEntity {
 
     @Id
@@ -25,6 +29,10 @@ public class IncidentEntity {
     @Enumerated(EnumType.STRING)
     private IncidentStatus status;
 
+    // Anomalies absorbed by this incident while open, and when the last one was seen
+    private Long occurrenceCount;
+    private Instant lastSeen;
+
     public IncidentEntity() {
     }
 
@@ -35,6 +43,8 @@ public class IncidentEntity {
         this.startTime = startTime;
         this.description = description;
         this.status = status;
+        this.occurrenceCount = 1L;
+        this.lastSeen = startTime;
     }
 
     public enum IncidentStatus {
@@ -97,4 +107,20 @@ public class IncidentEntity {
     public void setStatus(IncidentStatus status) {
         this.status = status;
     }
+
+    public Long getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Long occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public Instant getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(Instant lastSeen) {
+        this.lastSeen = lastSeen;
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 
 import java.time.Instant;
+import java.util.List;
 
 @Document(indexName = "logs")
 public class LogDocument {
@@ -40,6 +41,19 @@ public class LogDocument {
     @Field(type = FieldType.Keyword)
     private String source;
 
+    // Set when the document stands for several identical lines, null otherwise
+    @Field(type = FieldType.Long)
+    private Long occurrenceCount;
+
+    @Field(type = FieldType.Date)
+    private Instant firstTimestamp;
+
+    @Field(type = FieldType.Date)
+    private Instant lastTimestamp;
+
+    @Field(type = FieldType.Text)
+    private List<String> sampleMessages;
+
     public LogDocument() {
     }
 
@@ -133,4 +147,36 @@ public class LogDocument {
     public void setSource(String source) {
         this.source = source;
     }
+
+    public Long getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Long occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public Instant getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public void setFirstTimestamp(Instant firstTimestamp) {
+        this.firstTimestamp = firstTimestamp;
+    }
+
+    public Instant getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public void setLastTimestamp(Instant lastTimestamp) {
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    public List<String> getSampleMessages() {
+        return sampleMessages;
+    }
+
+    public void setSampleMessages(List<String> sampleMessages) {
+        this.sampleMessages = sampleMessages;
+    }
 }
@@ -9,5 +9,10 @@ public record LogEvent(
         String message,
         String stackTrace,
         Instant timestamp,
-        Map<String, String> metadata) {
+        Map<String, String> metadata) implements LogEventView {
+
+    @Override
+    public String metadata(String key) {
+        return metadata != null ? metadata.get(key) : null;
+    }
 }
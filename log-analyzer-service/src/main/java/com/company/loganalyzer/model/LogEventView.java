@@ -0,0 +1,47 @@
+package com.company.loganalyzer.model;
+
+import java.time.Instant;
+
+/**
+ * Read access to an ingested log event, implemented by the materialized
+ * {@link LogEvent} and by lazy views decoding fields from the record bytes
+ * only when they are read.
+ */
+public interface LogEventView {
+
+    String serviceName();
+
+    String level();
+
+    String message();
+
+    String stackTrace();
+
+    Instant timestamp();
+
+    /**
+     * The metadata value for {@code key}, or null when absent.
+     */
+    String metadata(String key);
+
+    /**
+     * The first {@code maxLines} lines of the stack trace, or null without one.
+     */
+    default String stackTrace(int maxLines) {
+        return firstLines(stackTrace(), maxLines);
+    }
+
+    static String firstLines(String text, int maxLines) {
+        if (text == null) {
+            return null;
+        }
+        int end = -1;
+        for (int line = 0; line < maxLines; line++) {
+            end = text.indexOf('\n', end + 1);
+            if (end < 0) {
+                return text;
+            }
+        }
+        return maxLines <= 0 ? "" : text.substring(0, end);
+    }
+}
@@ -0,0 +1,95 @@
+package com.company.loganalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Log count of one service and level within one time bucket. Ingestion writes
+ * per-minute rows; rows older than the minute retention are merged into hourly
+ * rows.
+ */
+@Entity
+@Table(name = "log_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_log_rollups_bucket",
+                columnNames = { "resolution", "bucket_start", "service_name", "level" })
+}, indexes = {
+        @Index(name = "idx_log_rollups_start", columnList = "bucket_start")
+})
+public class LogRollupEntity {
+
+    public enum Resolution {
+        MINUTE, HOUR
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", nullable = false, length = 10)
+    private Resolution resolution;
+
+    @Column(name = "service_name", nullable = false)
+    private String serviceName;
+
+    @Column(name = "level", nullable = false, length = 20)
+    private String level;
+
+    @Column(name = "log_count", nullable = false)
+    private long logCount;
+
+    public LogRollupEntity() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Instant bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(Resolution resolution) {
+        this.resolution = resolution;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public void setLevel(String level) {
+        this.level = level;
+    }
+
+    public long getLogCount() {
+        return logCount;
+    }
+
+    public void setLogCount(long logCount) {
+        this.logCount = logCount;
+    }
+}
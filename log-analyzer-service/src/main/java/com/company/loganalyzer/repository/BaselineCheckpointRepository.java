@@ -0,0 +1,9 @@
+package com.company.loganalyzer.repository;
+
+import com.company.loganalyzer.model.BaselineCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BaselineCheckpointRepository extends JpaRepository<BaselineCheckpointEntity, String> {
+}
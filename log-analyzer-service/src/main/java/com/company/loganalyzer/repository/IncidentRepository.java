@@ -1,16 +1,71 @@
 package com.company.loganalyzer.repository;
 
+import com.company.loganalyzer.model.AnomalyType;
 import com.company.loganalyzer.model.IncidentEntity;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface IncidentRepository extends JpaRepository<IncidentEntity, Long> {
+public interface IncidentRepository extends JpaRepository<IncidentEntity, Long>,
+        JpaSpecificationExecutor<IncidentEntity> {
     List<IncidentEntity> findByServiceNameAndStatus(String serviceName, IncidentEntity.IncidentStatus status);
 
     Optional<IncidentEntity> findFirstByServiceNameAndStatusOrderByStartTimeDesc(String serviceName,
             IncidentEntity.IncidentStatus status);
+
+    /**
+     * One page of incidents, filtered on whichever of status, service and type
+     * are given. Only the present filters become predicates, so the query can use
+     * the (service_name, status, start_time) index, and a slice skips the count
+     * query.
+     */
+    default Slice<IncidentEntity> search(IncidentEntity.IncidentStatus status, String serviceName, AnomalyType type,
+            Pageable pageable) {
+        Specification<IncidentEntity> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(3);
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (serviceName != null) {
+                predicates.add(cb.equal(root.get("serviceName"), serviceName));
+            }
+            if (type != null) {
+                predicates.add(cb.equal(root.get("type"), type));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        return findBy(spec, q -> q.sortBy(pageable.getSort()).slice(pageable));
+    }
+
+    /**
+     * Adds absorbed anomalies to an incident that is still open; returns 0 if it
+     * no longer is.
+     */
+    @Modifying
+    @Query("UPDATE IncidentEntity i SET i.occurrenceCount = COALESCE(i.occurrenceCount, 1) + :delta, "
+            + "i.lastSeen = :lastSeen WHERE i.id = :id AND i.status = "
+            + "com.company.loganalyzer.model.IncidentEntity.IncidentStatus.OPEN")
+    int addOccurrences(@Param("id") Long id, @Param("delta") long delta, @Param("lastSeen") Instant lastSeen);
+
+    @Query("SELECT i.status, COUNT(i) FROM IncidentEntity i GROUP BY i.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT i.type, COUNT(i) FROM IncidentEntity i GROUP BY i.type")
+    List<Object[]> countByType();
+
+    @Query("SELECT i.serviceName, COUNT(i) FROM IncidentEntity i GROUP BY i.serviceName")
+    List<Object[]> countByService();
 }
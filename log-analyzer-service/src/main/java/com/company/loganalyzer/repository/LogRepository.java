@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface LogRepository extends ElasticsearchRepository<LogDocument, String> {
+public interface LogRepository extends ElasticsearchRepository<LogDocument, String>, LogRepositoryCustom {
     List<LogDocument> findByServiceName(String serviceName);
 
     List<LogDocument> findByClusterId(String clusterId);
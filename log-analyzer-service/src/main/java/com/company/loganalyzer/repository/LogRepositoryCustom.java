@@ -0,0 +1,36 @@
+package com.company.loganalyzer.repository;
+
+import com.company.loganalyzer.model.LogDocument;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Log queries that run entirely in Elasticsearch.
+ */
+public interface LogRepositoryCustom {
+
+    /**
+     * Newest-first page of logs matching the criteria. Pass the returned cursor
+     * back to fetch the next page.
+     */
+    LogPage search(LogSearchCriteria criteria);
+
+    /**
+     * @param serviceName exact service name, or null
+     * @param level       log level, or null
+     * @param search      full-text query on the message, or null
+     * @param from        inclusive lower bound on timestamp, or null
+     * @param to          exclusive upper bound on timestamp, or null
+     * @param cursor      cursor from the previous page, or null for the first
+     */
+    record LogSearchCriteria(String serviceName, String level, String search, Instant from, Instant to,
+            String cursor, int limit) {
+    }
+
+    /**
+     * @param nextCursor cursor for the following page, null when this page is the last
+     */
+    record LogPage(List<LogDocument> logs, String nextCursor) {
+    }
+}
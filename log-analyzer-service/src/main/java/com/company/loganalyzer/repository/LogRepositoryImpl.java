@@ -0,0 +1,119 @@
+package com.company.loganalyzer.repository;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.mapping.FieldType;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import com.company.loganalyzer.model.LogDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the {@link LogRepositoryCustom} queries: keyword term filters, a match
+ * query on the message, a timestamp range, and {@code search_after} paging
+ * sorted by timestamp with the document id as tie-breaker, so deep pages cost
+ * the same as the first one. The tie-breaker reads the {@code id} source field,
+ * which every write path sets; a page ending on a document without one (written
+ * before that was enforced) gets no cursor rather than one that cannot resume.
+ */
+public class LogRepositoryImpl implements LogRepositoryCustom {
+
+    private static final Logger log = LoggerFactory.getLogger(LogRepositoryImpl.class);
+
+    private final ElasticsearchOperations operations;
+
+    public LogRepositoryImpl(ElasticsearchOperations operations) {
+        this.operations = operations;
+    }
+
+    @Override
+    public LogPage search(LogSearchCriteria criteria) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        if (hasText(criteria.serviceName())) {
+            bool.filter(f -> f.term(t -> t.field("serviceName").value(criteria.serviceName())));
+        }
+        if (hasText(criteria.level())) {
+            bool.filter(f -> f.term(t -> t.field("level").value(criteria.level().toUpperCase(Locale.ROOT))));
+        }
+        if (criteria.from() != null || criteria.to() != null) {
+            bool.filter(f -> f.range(r -> r.date(d -> {
+                d.field("timestamp");
+                if (criteria.from() != null) {
+                    d.gte(criteria.from().toString());
+                }
+                if (criteria.to() != null) {
+                    d.lt(criteria.to().toString());
+                }
+                return d;
+            })));
+        }
+        if (hasText(criteria.search())) {
+            bool.must(m -> m.match(t -> t.field("message").query(criteria.search()).operator(Operator.And)));
+        }
+
+        var builder = NativeQuery.builder()
+                .withQuery(q -> q.bool(bool.build()))
+                .withSort(s -> s.field(f -> f.field("timestamp").order(SortOrder.Desc)))
+                .withSort(s -> s.field(f -> f.field("id").order(SortOrder.Asc)
+                        .unmappedType(FieldType.Keyword)))
+                .withMaxResults(criteria.limit())
+                .withTrackTotalHits(false);
+        if (hasText(criteria.cursor())) {
+            builder.withSearchAfter(decodeCursor(criteria.cursor()));
+        }
+
+        SearchHits<LogDocument> hits = operations.search(builder.build(), LogDocument.class);
+        List<LogDocument> logs = new ArrayList<>(hits.getSearchHits().size());
+        List<Object> lastSortValues = null;
+        for (SearchHit<LogDocument> hit : hits.getSearchHits()) {
+            logs.add(hit.getContent());
+            lastSortValues = hit.getSortValues();
+        }
+        String nextCursor = logs.size() == criteria.limit() && lastSortValues != null
+                ? encodeCursor(lastSortValues)
+                : null;
+        return new LogPage(logs, nextCursor);
+    }
+
+    private static String encodeCursor(List<Object> sortValues) {
+        if (sortValues.size() < 2 || sortValues.get(0) == null || sortValues.get(1) == null) {
+            log.warn("Log page ends on a document without id, no cursor for the next page");
+            return null;
+        }
+        String raw = sortValues.get(0) + "\n" + sortValues.get(1);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Object> decodeCursor(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        int separator = raw.indexOf('\n');
+        String id = separator < 0 ? "" : raw.substring(separator + 1);
+        if (id.isEmpty() || id.equals("null")) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return List.of(Long.parseLong(raw.substring(0, separator)), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
@@ -0,0 +1,50 @@
+package com.company.loganalyzer.repository;
+
+import com.company.loganalyzer.model.LogRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for log rollups. Writes are additive upserts so concurrent flushes
+ * and re-flushes after a failure never overwrite counts.
+ */
+@Repository
+public interface LogRollupRepository extends JpaRepository<LogRollupEntity, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO log_rollups (bucket_start, resolution, service_name, level, log_count) "
+            + "VALUES (:bucketStart, :resolution, :serviceName, :level, :count) "
+            + "ON CONFLICT (resolution, bucket_start, service_name, level) "
+            + "DO UPDATE SET log_count = log_rollups.log_count + EXCLUDED.log_count", nativeQuery = true)
+    void addCount(@Param("bucketStart") Instant bucketStart, @Param("resolution") String resolution,
+            @Param("serviceName") String serviceName, @Param("level") String level, @Param("count") long count);
+
+    /**
+     * Moves minute rows older than the cutoff into hourly rows. The delete and
+     * the merge are one statement, so a minute row upserted concurrently is
+     * either moved with its full count or left for the next run, never deleted
+     * without being merged.
+     */
+    @Modifying
+    @Query(value = "WITH moved AS (DELETE FROM log_rollups WHERE resolution = 'MINUTE' AND bucket_start < :cutoff "
+            + "RETURNING bucket_start, service_name, level, log_count) "
+            + "INSERT INTO log_rollups (bucket_start, resolution, service_name, level, log_count) "
+            + "SELECT date_trunc('hour', bucket_start), 'HOUR', service_name, level, SUM(log_count) "
+            + "FROM moved GROUP BY date_trunc('hour', bucket_start), service_name, level "
+            + "ON CONFLICT (resolution, bucket_start, service_name, level) "
+            + "DO UPDATE SET log_count = log_rollups.log_count + EXCLUDED.log_count", nativeQuery = true)
+    int rollUpMinutesToHours(@Param("cutoff") Instant cutoff);
+
+    @Query("SELECT r.bucketStart, r.level, SUM(r.logCount) FROM LogRollupEntity r "
+            + "WHERE r.bucketStart >= :from GROUP BY r.bucketStart, r.level")
+    List<Object[]> sumByBucketAndLevel(@Param("from") Instant from);
+
+    @Query("SELECT DISTINCT r.serviceName FROM LogRollupEntity r")
+    List<String> findAllServices();
+}
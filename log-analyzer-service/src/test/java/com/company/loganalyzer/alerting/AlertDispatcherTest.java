@@ -0,0 +1,141 @@
+package com.company.loganalyzer.alerting;
+
+import com.company.loganalyzer.config.AlertingConfig;
+import com.company.loganalyzer.model.AnomalyType;
+import com.company.loganalyzer.model.IncidentEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AlertDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotBlockCallerOnSlowSink() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<IncidentEntity> delivered = new CopyOnWriteArrayList<>();
+        AlertService slow = incident -> {
+            awaitQuietly(release);
+            delivered.add(incident);
+        };
+        dispatcher = new AlertDispatcher(List.of(slow), config(0, 3), meterRegistry);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            dispatcher.dispatch(incident(i, "service-" + i));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+        release.countDown();
+        waitUntil(() -> delivered.size() == 100);
+        assertEquals(100, meterRegistry.get("loganalyzer.alerts.delivered").counter().count());
+        assertEquals(100, meterRegistry.get("loganalyzer.alerts.delivery.latency").timer().count());
+    }
+
+    @Test
+    void shouldSuppressRepeatedAlertsOfAService() throws Exception {
+        List<IncidentEntity> delivered = new CopyOnWriteArrayList<>();
+        dispatcher = new AlertDispatcher(List.of(delivered::add), config(60000, 3), meterRegistry);
+
+        dispatcher.dispatch(incident(1, "payment-service"));
+        dispatcher.dispatch(incident(2, "payment-service"));
+        dispatcher.dispatch(incident(3, "order-service"));
+
+        waitUntil(() -> delivered.size() == 2);
+        assertEquals(List.of(1L, 3L), delivered.stream().map(IncidentEntity::getId).toList());
+        assertEquals(1, meterRegistry.get("loganalyzer.alerts.suppressed").counter().count());
+    }
+
+    @Test
+    void shouldRetryFailedDeliveries() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        List<IncidentEntity> delivered = new CopyOnWriteArrayList<>();
+        AlertService flaky = incident -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            delivered.add(incident);
+        };
+        dispatcher = new AlertDispatcher(List.of(flaky), config(0, 3), meterRegistry);
+
+        dispatcher.dispatch(incident(1, "payment-service"));
+
+        waitUntil(() -> delivered.size() == 1);
+        assertEquals(3, attempts.get());
+        assertEquals(0, meterRegistry.get("loganalyzer.alerts.failed").counter().count());
+    }
+
+    @Test
+    void shouldRetryOnlyUndeliveredAlertsOfABatch() throws Exception {
+        CountDownLatch queued = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        List<Long> sent = new CopyOnWriteArrayList<>();
+        AlertService flaky = incident -> {
+            awaitQuietly(queued);
+            if (incident.getId() == 2 && attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            sent.add(incident.getId());
+        };
+        dispatcher = new AlertDispatcher(List.of(flaky), config(0, 3), meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatch(incident(i, "service-" + i));
+        }
+        queued.countDown();
+
+        waitUntil(() -> sent.size() == 3);
+        assertEquals(List.of(0L, 1L, 2L), sent);
+        assertEquals(3, meterRegistry.get("loganalyzer.alerts.delivered").counter().count());
+    }
+
+    private static AlertingConfig config(long suppressionWindowMs, int maxAttempts) {
+        AlertingConfig config = new AlertingConfig();
+        config.getDispatch().setSuppressionWindowMs(suppressionWindowMs);
+        config.getDispatch().setMaxAttempts(maxAttempts);
+        config.getDispatch().setInitialBackoffMs(10);
+        return config;
+    }
+
+    private static IncidentEntity incident(long id, String serviceName) {
+        IncidentEntity incident = new IncidentEntity(serviceName, AnomalyType.ERROR_BURST, Instant.now(),
+                "test", IncidentEntity.IncidentStatus.OPEN);
+        incident.setId(id);
+        return incident;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
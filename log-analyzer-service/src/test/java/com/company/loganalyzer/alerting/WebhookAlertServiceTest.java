@@ -0,0 +1,179 @@
+package com.company.loganalyzer.alerting;
+
+import com.company.loganalyzer.config.AlertingConfig;
+import com.company.loganalyzer.model.AnomalyType;
+import com.company.loganalyzer.model.IncidentEntity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookAlertServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookAlertServiceTest.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    // Stub state
+    private volatile int status = 200;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger gzipped = new AtomicInteger();
+    private final AtomicInteger alerts = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.createContext("/alerts", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            gzipped.incrementAndGet();
+            body = new GZIPInputStream(body);
+        }
+        JsonNode payload = objectMapper.readTree(body);
+        alerts.addAndGet(payload.get("incidents").size());
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    @Test
+    void shouldBatchAndCompressIncidents() {
+        WebhookAlertService webhook = webhook(config(20));
+
+        webhook.sendAlerts(incidents(50));
+
+        assertEquals(3, requests.get());
+        assertEquals(3, gzipped.get());
+        assertEquals(50, alerts.get());
+    }
+
+    @Test
+    void shouldOpenCircuitAfterConsecutiveFailures() {
+        status = 503;
+        AlertingConfig config = config(20);
+        config.getWebhook().setFailureThreshold(3);
+        WebhookAlertService webhook = webhook(config);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(RuntimeException.class, () -> webhook.sendAlert(incidents(1).get(0)));
+        }
+
+        assertEquals(3, requests.get());
+        assertEquals(CircuitBreaker.State.OPEN, webhook.circuitState());
+    }
+
+    @Test
+    void shouldKeepCircuitUsableWhenRequestCannotBeBuilt() throws Exception {
+        status = 503;
+        AlertingConfig config = config(20);
+        config.getWebhook().setFailureThreshold(1);
+        config.getWebhook().setOpenMs(50);
+        WebhookAlertService webhook = webhook(config);
+        assertThrows(RuntimeException.class, () -> webhook.sendAlert(incidents(1).get(0)));
+        assertEquals(CircuitBreaker.State.OPEN, webhook.circuitState());
+        Thread.sleep(100);
+
+        // A restricted header makes building the request fail once the circuit may half-open
+        config.getWebhook().getHeaders().put("Connection", "close");
+        assertThrows(IllegalArgumentException.class, () -> webhook.sendAlert(incidents(1).get(0)));
+
+        config.getWebhook().getHeaders().clear();
+        status = 200;
+        webhook.sendAlert(incidents(1).get(0));
+        assertEquals(CircuitBreaker.State.CLOSED, webhook.circuitState());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void shouldSustainConcurrentDeliveryOverPooledConnections() throws Exception {
+        WebhookAlertService webhook = webhook(config(20));
+        int senders = 4;
+        int requestsPerSender = 250;
+        List<IncidentEntity> batch = incidents(20);
+
+        ExecutorService executor = Executors.newFixedThreadPool(senders);
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int s = 0; s < senders; s++) {
+            futures.add(executor.submit(() -> {
+                long[] latencies = new long[requestsPerSender];
+                for (int i = 0; i < requestsPerSender; i++) {
+                    long t = System.nanoTime();
+                    webhook.sendAlerts(batch);
+                    latencies[i] = System.nanoTime() - t;
+                }
+                return latencies;
+            }));
+        }
+        long[] latencies = new long[senders * requestsPerSender];
+        for (int s = 0; s < senders; s++) {
+            System.arraycopy(futures.get(s).get(60, TimeUnit.SECONDS), 0, latencies, s * requestsPerSender,
+                    requestsPerSender);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        log.info("webhook: {} alerts/s, p50 {} us, p99 {} us", Math.round(alerts.get() / seconds),
+                latencies[latencies.length / 2] / 1000, latencies[(int) (latencies.length * 0.99)] / 1000);
+
+        assertEquals(senders * requestsPerSender * batch.size(), alerts.get());
+    }
+
+    private WebhookAlertService webhook(AlertingConfig config) {
+        return new WebhookAlertService(config, objectMapper, new SimpleMeterRegistry());
+    }
+
+    private AlertingConfig config(int maxBatchSize) {
+        AlertingConfig config = new AlertingConfig();
+        config.getWebhook().setEnabled(true);
+        config.getWebhook().setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/alerts");
+        config.getWebhook().setMaxBatchSize(maxBatchSize);
+        config.getWebhook().setGzipMinBytes(256);
+        return config;
+    }
+
+    private static List<IncidentEntity> incidents(int count) {
+        List<IncidentEntity> incidents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IncidentEntity incident = new IncidentEntity("service-" + i, AnomalyType.ERROR_BURST, Instant.now(),
+                    "Detected anomalies: [ERROR_BURST]", IncidentEntity.IncidentStatus.OPEN);
+            incident.setId((long) i);
+            incidents.add(incident);
+        }
+        return incidents;
+    }
+}
@@ -0,0 +1,66 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaselineEngineTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long INTERVAL = 60_000L;
+
+    private BaselineEngine engine() {
+        AnalysisConfig config = new AnalysisConfig();
+        config.getBaseline().setMinSamples(10);
+        return new BaselineEngine(config);
+    }
+
+    /** Feed {@code perInterval} errors into each of {@code intervals} intervals and return the last verdict. */
+    private BaselineEngine.Verdict feed(BaselineEngine engine, String service, int intervals, int perInterval) {
+        BaselineEngine.Verdict verdict = null;
+        for (int i = 0; i < intervals; i++) {
+            for (int j = 0; j < perInterval; j++) {
+                verdict = engine.observe(service, "ERROR", START + i * INTERVAL + j);
+            }
+        }
+        return verdict;
+    }
+
+    @Test
+    void shouldScaleToEachServicesOwnRate() {
+        BaselineEngine engine = engine();
+
+        // 50 errors a minute is normal for a busy service once learned
+        assertEquals(BaselineEngine.Verdict.NORMAL, feed(engine, "busy", 20, 50));
+
+        // while a quiet service jumping from 1 to 20 a minute is a deviation
+        feed(engine, "quiet", 20, 1);
+        BaselineEngine.Verdict verdict = null;
+        for (int j = 0; j < 20; j++) {
+            verdict = engine.observe("quiet", "ERROR", START + 20 * INTERVAL + j);
+        }
+        assertEquals(BaselineEngine.Verdict.DEVIATION, verdict);
+    }
+
+    @Test
+    void shouldLearnBeforeScoring() {
+        assertEquals(BaselineEngine.Verdict.LEARNING, feed(engine(), "svc", 5, 100));
+    }
+
+    @Test
+    void shouldResumeFromCheckpoint() {
+        BaselineEngine engine = engine();
+        feed(engine, "svc", 20, 3);
+
+        BaselineEngine restored = engine();
+        Map<String, ErrorRateBaseline.Snapshot> changed = engine.drainChanged();
+        changed.forEach(restored::restore);
+
+        assertEquals(1, changed.size());
+        assertTrue(engine.drainChanged().isEmpty());
+        assertEquals(BaselineEngine.Verdict.NORMAL, restored.observe("svc", "ERROR", START + 20 * INTERVAL));
+    }
+}
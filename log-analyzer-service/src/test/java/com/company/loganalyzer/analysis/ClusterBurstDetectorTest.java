@@ -0,0 +1,80 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterBurstDetectorTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private ClusterBurstDetector detector() {
+        AnalysisConfig config = new AnalysisConfig();
+        config.getClusterBurst().setMinCount(10);
+        return new ClusterBurstDetector(config);
+    }
+
+    /** Two errors of each noisy cluster every second for the whole history. */
+    private void warmUp(ClusterBurstDetector detector, long untilMillis) {
+        for (long t = START; t < untilMillis; t += 1_000) {
+            for (int c = 0; c < 50; c++) {
+                assertFalse(detector.record("orders", "noise-" + c, t));
+                assertFalse(detector.record("orders", "noise-" + c, t + 500));
+            }
+        }
+    }
+
+    @Test
+    void shouldFlagNewClusterFloodingNoisyService() {
+        ClusterBurstDetector detector = detector();
+        long now = START + 660_000;
+        warmUp(detector, now);
+
+        boolean burst = false;
+        for (int i = 0; i < 30; i++) {
+            burst = detector.record("orders", "flood", now + i * 100);
+        }
+        assertTrue(burst);
+        // Steady clusters keep their usual rate and are not bursts
+        assertFalse(detector.record("orders", "noise-1", now + 3_000));
+    }
+
+    @Test
+    void shouldReportTopClustersOfService() {
+        ClusterBurstDetector detector = detector();
+        for (int i = 0; i < 200; i++) {
+            detector.record("orders", "hot", START + i);
+            detector.record("orders", "cluster-" + i, START + i);
+            detector.record("payments", "other", START + i);
+        }
+
+        List<ClusterBurstDetector.ClusterActivity> top = detector.topClusters("orders", 3);
+        assertEquals(3, top.size());
+        assertEquals("hot", top.get(0).clusterId());
+        assertTrue(top.get(0).recentCount() >= 200);
+        assertTrue(top.stream().allMatch(a -> a.serviceName().equals("orders")));
+    }
+
+    @Test
+    void shouldCountServicesRecordedConcurrently() throws Exception {
+        ClusterBurstDetector detector = detector();
+        List<String> services = List.of("orders", "payments", "billing", "search");
+        List<Thread> threads = services.stream()
+                .map(service -> Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        detector.record(service, "hot", START + i);
+                    }
+                }))
+                .toList();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<ClusterBurstDetector.ClusterActivity> top = detector.topClusters(null, 10);
+        assertEquals(services.size(), top.size());
+        assertTrue(top.stream().allMatch(a -> a.heavyHitterCount() == 1_000));
+    }
+}
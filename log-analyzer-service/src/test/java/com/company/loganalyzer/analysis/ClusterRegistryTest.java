@@ -0,0 +1,55 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import com.company.loganalyzer.model.LogDocument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterRegistryTest {
+
+    private static LogDocument log(String service, String clusterId, long epochSecond) {
+        return new LogDocument(service, "ERROR", "msg", "msg", clusterId, Instant.ofEpochSecond(epochSecond));
+    }
+
+    @Test
+    void shouldAggregatePerCluster() {
+        ClusterRegistry registry = new ClusterRegistry(new AnalysisConfig());
+        registry.record(log("orders", "a", 100));
+        registry.record(log("payments", "a", 50));
+        registry.record(log("orders", "a", 200));
+        registry.record(log("orders", "b", 150));
+
+        List<ClusterRegistry.ClusterSummary> top = registry.topClusters(10);
+        assertEquals(2, top.size());
+        ClusterRegistry.ClusterSummary a = top.get(0);
+        assertEquals("a", a.clusterId());
+        assertEquals(3, a.count());
+        assertEquals(Instant.ofEpochSecond(50), a.firstSeen());
+        assertEquals(Instant.ofEpochSecond(200), a.lastSeen());
+        assertEquals(List.of("orders", "payments"), a.services());
+        assertEquals(Instant.ofEpochSecond(100), a.sample().getTimestamp());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlySeenClusters() {
+        AnalysisConfig config = new AnalysisConfig();
+        config.getClustering().setRegistryMaxClusters(100);
+        ClusterRegistry registry = new ClusterRegistry(config);
+
+        registry.record(log("orders", "hot", 0));
+        for (int i = 1; i <= 200; i++) {
+            registry.record(log("orders", "c" + i, i));
+            registry.record(log("orders", "hot", i));
+        }
+
+        assertTrue(registry.size() <= 100);
+        List<ClusterRegistry.ClusterSummary> top = registry.topClusters(1);
+        assertEquals("hot", top.get(0).clusterId());
+        assertEquals(201, top.get(0).count());
+        assertTrue(registry.topClusters(200).stream().noneMatch(s -> s.clusterId().equals("c1")));
+    }
+}
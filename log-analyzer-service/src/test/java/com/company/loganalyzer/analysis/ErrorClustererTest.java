@@ -0,0 +1,50 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorClustererTest {
+
+    private static final String TRACE = """
+            java.sql.SQLException: Connection timed out after <NUM>ms
+                at com.company.db.ConnectionPool.getConnection(ConnectionPool.java:89)
+                at com.company.order.OrderRepository.save(OrderRepository.java:42)
+                at com.company.order.OrderService.processOrder(OrderService.java:156)
+            """;
+
+    private ErrorClusterer clusterer(String idFormat) {
+        AnalysisConfig config = new AnalysisConfig();
+        config.getClustering().setIdFormat(idFormat);
+        return new ErrorClusterer(new LogTemplateMiner(config), config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void legacyFormatShouldReproduceSha256Ids() {
+        // Value produced by the original implementation for this input
+        assertEquals("ecbe282f1f393b2f",
+                clusterer("legacy").generateClusterId("Database connection timeout after <NUM>ms", null));
+    }
+
+    @Test
+    void fingerprintShouldOnlyDependOnFirstStackFrames() {
+        ErrorClusterer clusterer = clusterer("fingerprint");
+        String id = clusterer.generateClusterId("Query failed", TRACE);
+
+        assertEquals(16, id.length());
+        assertEquals(id, clusterer.generateClusterId("Query failed", TRACE + "    at Deeper.frame(X.java:1)\n"));
+        assertNotEquals(id, clusterer.generateClusterId("Query failed", TRACE.replace("save", "delete")));
+        assertNotEquals(id, clusterer.generateClusterId("Query failed", null));
+    }
+
+    @Test
+    void fingerprintShouldNotCountRepeatedInputsAsCollisions() {
+        ErrorClusterer clusterer = clusterer("fingerprint");
+        for (int i = 0; i < 1000; i++) {
+            clusterer.generateClusterId("Message " + (i % 10), TRACE);
+        }
+        assertEquals(0, clusterer.getCollisionCount());
+    }
+}
@@ -0,0 +1,84 @@
+package com.company.loganalyzer.analysis;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the single-pass scanner matches the regex implementation exactly.
+ */
+class LogNormalizerParityTest {
+
+    private final LogNormalizer normalizer = new LogNormalizer();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "no tokens at all",
+            "Health check passed - all dependencies healthy",
+            "Database connection timeout after 3000ms - host: 10.0.0.12:5432",
+            "Redis connection refused: ECONNREFUSED 127.0.0.1:6379",
+            "Order 550e8400-e29b-41d4-a716-446655440000 created with total amount $12.50",
+            "1234.5.6.7",
+            "1.2.3.4567.8.9.10",
+            "1.2.3.4.5.6.7.8",
+            "999.999.999.999",
+            "1.2.3",
+            "1.2.3.",
+            "1..2.3.4",
+            "v1.2.3.4-beta",
+            "9.9.9.12345678-aaaa-bbbb-cccc-dddddddddddd",
+            "aaaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeeee",
+            "550E8400-E29B-41D4-A716-446655440000550e8400-e29b-41d4-a716-446655440000",
+            "550e8400-e29b-41d4-a716-44665544000",
+            "550e8400-e29b-41d4-a716-4466554400001.2.3.4",
+            "10.0.0.1550e8400-e29b-41d4-a716-446655440000",
+            "ids 12345678-1234-1234-1234-123456789012-1234-1234-1234-123456789012",
+            "NullPointerException in OrderService.processOrder() at line 127",
+            "Circuit breaker OPEN for payment-service - 12 failures in last 30 seconds",
+            "unicode digits ٣٤٥ stay, ascii 345 go",
+            "0",
+            "00000000-0000-0000-0000-000000000000"
+    })
+    void matchesRegexOnKnownCases(String input) {
+        assertEquals(LogNormalizer.normalizeWithRegex(input), normalizer.normalize(input));
+    }
+
+    @Test
+    void matchesRegexOnRandomInput() {
+        Random random = new Random(42);
+        // Alphabet biased towards characters that form or break tokens
+        String alphabet = "0123456789012345678901234567890123456789abcdefABCDEF..--- xg:";
+        for (int n = 0; n < 200_000; n++) {
+            int length = random.nextInt(80);
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if (random.nextInt(4) == 0) {
+                sb.insert(random.nextInt(sb.length() + 1), java.util.UUID.randomUUID());
+            }
+            if (random.nextInt(4) == 0) {
+                sb.insert(random.nextInt(sb.length() + 1), random.nextInt(300) + "." + random.nextInt(300)
+                        + "." + random.nextInt(300) + "." + random.nextInt(3000));
+            }
+            String input = sb.toString();
+            assertEquals(LogNormalizer.normalizeWithRegex(input), normalizer.normalize(input), input);
+        }
+    }
+
+    @Test
+    void returnsSameInstanceWhenNothingToReplace() {
+        String input = "Health check passed - all dependencies healthy";
+        assertSame(input, normalizer.normalize(input));
+    }
+
+    @Test
+    void nullBecomesEmpty() {
+        assertEquals("", normalizer.normalize(null));
+    }
+}
@@ -0,0 +1,78 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogTemplateMinerTest {
+
+    private LogTemplateMiner miner(int maxTemplates) {
+        AnalysisConfig config = new AnalysisConfig();
+        config.getClustering().setMaxTemplates(maxTemplates);
+        return new LogTemplateMiner(config);
+    }
+
+    @Test
+    void shouldMergeMessagesDifferingInVariableTokens() {
+        LogTemplateMiner miner = miner(100);
+        LogTemplateMiner.LogTemplate first = miner.match("User alice authenticated successfully");
+        LogTemplateMiner.LogTemplate second = miner.match("User bob authenticated successfully");
+
+        assertEquals(first.id(), second.id());
+        assertEquals("User <*> authenticated successfully", second.text());
+        assertEquals(2, second.size());
+    }
+
+    @Test
+    void shouldKeepTemplateIdStableWhenGeneralized() {
+        LogTemplateMiner miner = miner(100);
+        String id = miner.match("Cache refreshed for key user:alice").id();
+        miner.match("Cache refreshed for key product:42");
+
+        assertEquals(id, miner.match("Cache refreshed for key session:xyz").id());
+    }
+
+    @Test
+    void shouldDeriveSameIdRegardlessOfWhichMessageArrivedFirst() {
+        LogTemplateMiner first = miner(100);
+        LogTemplateMiner second = miner(100);
+
+        String id = first.match("Cache refreshed for key user:alice").id();
+        second.match("Cache refreshed for key product:42");
+
+        assertEquals(id, second.match("Cache refreshed for key user:alice").id());
+    }
+
+    @Test
+    void shouldReuseIdWhenEvictedTemplateReturns() {
+        LogTemplateMiner miner = miner(1);
+        String id = miner.match("Disk quota exceeded for tenant acme").id();
+        miner.match("one two");
+
+        assertEquals(id, miner.match("Disk quota exceeded for tenant globex").id());
+    }
+
+    @Test
+    void shouldSeparateDissimilarMessages() {
+        LogTemplateMiner miner = miner(100);
+        LogTemplateMiner.LogTemplate a = miner.match("Email notification sent to alice");
+        LogTemplateMiner.LogTemplate b = miner.match("Deadlock detected in transaction handling thread pool");
+
+        assertNotEquals(a.id(), b.id());
+        assertEquals(2, miner.size());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedTemplate() {
+        LogTemplateMiner miner = miner(2);
+        String first = miner.match("alpha beta gamma").id();
+        miner.match("one two");
+        miner.match("alpha beta gamma");
+        miner.match("completely different message here now");
+
+        assertEquals(2, miner.size());
+        assertTrue(miner.getTemplates().stream().anyMatch(t -> t.templateId().equals(first)));
+        assertTrue(miner.getTemplates().stream().noneMatch(t -> t.template().equals("one two")));
+    }
+}
@@ -0,0 +1,75 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NewPatternDetectorTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long START = 1_700_000_000_000L;
+
+    private NewPatternDetector detector() {
+        AnalysisConfig config = new AnalysisConfig();
+        config.getNewPattern().setGenerations(2);
+        config.getNewPattern().setExpectedPatterns(1000);
+        NewPatternDetector detector = new NewPatternDetector(config, new SimpleMeterRegistry());
+        detector.markReady();
+        return detector;
+    }
+
+    @Test
+    void shouldFlagOnlyFirstSightingPerService() {
+        NewPatternDetector detector = detector();
+
+        assertTrue(detector.observe("orders", "c1", START));
+        assertFalse(detector.observe("orders", "c1", START + 1));
+        assertTrue(detector.observe("payments", "c1", START + 2));
+    }
+
+    @Test
+    void shouldForgetPatternsUnseenForAllGenerations() {
+        NewPatternDetector detector = detector();
+        detector.observe("orders", "c1", START);
+
+        // Still known one generation later, which also refreshes it
+        assertFalse(detector.observe("orders", "c1", START + 24 * HOUR));
+        detector.observe("orders", "other", START + 48 * HOUR);
+        assertFalse(detector.observe("orders", "c1", START + 49 * HOUR));
+
+        detector.observe("orders", "other", START + 96 * HOUR);
+        detector.observe("orders", "other", START + 120 * HOUR);
+        assertTrue(detector.observe("orders", "c1", START + 121 * HOUR));
+    }
+
+    @Test
+    void shouldNotReportBeforeReady() {
+        AnalysisConfig config = new AnalysisConfig();
+        NewPatternDetector detector = new NewPatternDetector(config, new SimpleMeterRegistry());
+
+        assertFalse(detector.observe("orders", "c1", START));
+        detector.markReady();
+        assertFalse(detector.observe("orders", "c1", START + 1));
+    }
+
+    @Test
+    void shouldRestoreFromSnapshot() throws IOException {
+        NewPatternDetector detector = detector();
+        for (int i = 0; i < 100; i++) {
+            detector.observe("orders", "c" + i, START);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        detector.writeTo(new DataOutputStream(bytes));
+
+        NewPatternDetector restored = detector();
+        assertTrue(restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(restored.observe("orders", "c" + i, START + 1));
+        }
+        assertTrue(restored.observe("orders", "c-new", START + 1));
+    }
+}
@@ -0,0 +1,65 @@
+package com.company.loganalyzer.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void shouldCountEventsWithinWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000, 1_000);
+        long start = 1_700_000_000_000L;
+
+        for (int i = 0; i < 5; i++) {
+            counter.incrementAndSum(start + i * 1_000);
+        }
+        assertEquals(6, counter.incrementAndSum(start + 59_000));
+    }
+
+    @Test
+    void shouldExpireOldBuckets() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000, 1_000);
+        long start = 1_700_000_000_000L;
+
+        counter.incrementAndSum(start);
+        counter.incrementAndSum(start + 30_000);
+
+        assertEquals(1, counter.sum(start + 60_000));
+        assertEquals(1, counter.incrementAndSum(start + 120_000));
+    }
+
+    @Test
+    void shouldPlaceOutOfOrderEventsInTheirOwnBucket() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(10_000, 20_000, 1_000);
+        long start = 1_700_000_000_000L;
+
+        counter.incrementAndSum(start + 15_000);
+        // Late by 15s: within retention, but outside the window ending at start + 15s
+        assertEquals(1, counter.incrementAndSum(start));
+        assertEquals(1, counter.sum(start + 15_000));
+        assertEquals(2, counter.sum(start + 9_000) + counter.sum(start + 15_000));
+    }
+
+    @Test
+    void shouldNotLoseConcurrentIncrements()throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000, 1_000);
+        long now = 1_700_000_000_000L;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.incrementAndSum(now + (i % 3) * 1_000);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(80_000, counter.sum(now + 2_000));
+    }
+}
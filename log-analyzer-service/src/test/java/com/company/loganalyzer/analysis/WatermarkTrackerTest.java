@@ -0,0 +1,30 @@
+package com.company.loganalyzer.analysis;
+
+import com.company.loganalyzer.config.AnalysisConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatermarkTrackerTest {
+
+    @Test
+    void shouldClampEventTimesAheadOfTheWallClock() {
+        AnalysisConfig config = new AnalysisConfig();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WatermarkTracker tracker = new WatermarkTracker(config, registry);
+        long outOfOrderness = config.getAnomaly().getOutOfOrdernessMs();
+
+        long before = System.currentTimeMillis();
+        long clamped = tracker.observe(0, before + 86_400_000L);
+        long after = System.currentTimeMillis();
+
+        assertTrue(clamped >= before + outOfOrderness && clamped <= after + outOfOrderness);
+        assertTrue(tracker.currentWatermark() <= after);
+        assertEquals(1.0, registry.counter("loganalyzer.watermark.clamped.events").count());
+
+        // Ordinary event times pass through untouched
+        assertEquals(before - 1_000, tracker.observe(1, before - 1_000));
+        assertEquals(1.0, registry.counter("loganalyzer.watermark.clamped.events").count());
+    }
+}
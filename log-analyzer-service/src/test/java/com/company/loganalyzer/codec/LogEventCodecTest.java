@@ -0,0 +1,96 @@
+package com.company.loganalyzer.codec;
+
+import com.company.loganalyzer.model.LogEvent;
+import com.company.loganalyzer.model.LogEventView;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogEventCodecTest {
+
+    private static final String TOPIC = "app-logs";
+
+    private final LogEventSerializer serializer = new LogEventSerializer();
+    private final LogEventDeserializer deserializer = new LogEventDeserializer();
+
+    LogEventCodecTest() {
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "com.company.loganalyzer.model",
+                JsonDeserializer.VALUE_DEFAULT_TYPE, LogEvent.class.getName()), false);
+    }
+
+    @Test
+    void shouldRoundTripThroughTheBinaryFormat() {
+        LogEvent event = new LogEvent("payment-service", "ERROR", "Payment declined for order 42",
+                "java.lang.IllegalStateException: declined\n\tat com.demo.Pay.run(Pay.java:10)\n",
+                Instant.parse("2024-05-01T10:15:30.123456789Z"), Map.of("traceId", "abc123", "spanId", "def456"));
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] data = serializer.serialize(TOPIC, headers, event);
+
+        assertArrayEquals(LogEventCodec.FORMAT_BINARY_V1_BYTES,
+                headers.lastHeader(LogEventCodec.FORMAT_HEADER).value());
+        LazyLogEvent view = (LazyLogEvent) deserializer.deserialize(TOPIC, headers, data);
+        assertEquals(event, view.toLogEvent());
+
+        LogEvent sparse = new LogEvent("svc", "notice", null, null, Instant.ofEpochSecond(-5, 1), null);
+        assertEquals(sparse, LogEventCodec.decode(LogEventCodec.encode(sparse)));
+    }
+
+    @Test
+    void shouldDecodeViewFieldsOnlyAsFarAsNeeded() {
+        LogEvent event = new LogEvent("inventory-service", "WARN", "Stock low",
+                "java.lang.RuntimeException: low\n\tat a.B.c(B.java:1)\n\tat d.E.f(E.java:2)\n",
+                Instant.parse("2024-05-01T10:15:30Z"), Map.of("traceId", "abc123", "région", "eu"));
+        RecordHeaders headers = new RecordHeaders();
+        LazyLogEvent first = (LazyLogEvent) deserializer.deserialize(TOPIC, headers,
+                serializer.serialize(TOPIC, headers, event));
+        LazyLogEvent second = (LazyLogEvent) deserializer.deserialize(TOPIC, headers,
+                serializer.serialize(TOPIC, headers, event));
+
+        assertSame(first.serviceName(), second.serviceName(), "service names are interned");
+        assertEquals("java.lang.RuntimeException: low\n\tat a.B.c(B.java:1)", first.stackTrace(2));
+        assertEquals(event.stackTrace(), first.stackTrace(10));
+        assertEquals(LogEventView.firstLines(event.stackTrace(), 2), first.stackTrace(2));
+        assertEquals("abc123", first.metadata("traceId"));
+        assertEquals("eu", first.metadata("région"));
+        assertNull(first.metadata("spanId"));
+    }
+
+    @Test
+    void shouldFallBackToJsonForRecordsWithoutTheFormatHeader() {
+        String json = "{\"serviceName\":\"order-service\",\"level\":\"INFO\",\"message\":\"Order created\","
+                + "\"stackTrace\":null,\"timestamp\":\"2024-05-01T10:15:30Z\",\"metadata\":{\"traceId\":\"t1\"}}";
+        RecordHeaders headers = new RecordHeaders();
+
+        Object event = deserializer.deserialize(TOPIC, headers, json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(new LogEvent("order-service", "INFO", "Order created", null,
+                Instant.parse("2024-05-01T10:15:30Z"), Map.of("traceId", "t1")), event);
+
+        byte[] binary = LogEventCodec.encode((LogEvent) event);
+        assertTrue(binary.length < json.length() / 2, binary.length + " bytes vs " + json.length() + " as JSON");
+    }
+
+    @Test
+    void shouldRejectTruncatedOrUnknownEncodings() {
+        LogEvent event = new LogEvent("svc", "INFO", "hello", null, Instant.now(), Map.of());
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data = serializer.serialize(TOPIC, headers, event);
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize(TOPIC, headers, Arrays.copyOf(data, data.length - 3)));
+
+        RecordHeaders future = new RecordHeaders();
+        future.add(LogEventCodec.FORMAT_HEADER, "binary-v9".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, future, data));
+    }
+}
@@ -0,0 +1,183 @@
+package com.company.loganalyzer.codec;
+
+import com.company.loganalyzer.model.LogEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtlpLogsDecoderTest {
+
+    private static final Instant TIME = Instant.parse("2024-05-01T10:15:30.123456789Z");
+    private static final byte[] TRACE_ID = HexFormat.of().parseHex("5b8efff798038103d269b633813fc60c");
+    private static final byte[] SPAN_ID = HexFormat.of().parseHex("eee19b7ec3c1b174");
+
+    private final OtlpLogsDecoder decoder = new OtlpLogsDecoder(1 << 20, 100);
+
+    @Test
+    void shouldMapResourceSeverityBodyAndTraceContext() throws IOException {
+        byte[] request = message(
+                field(1, resourceLogs(true,
+                        logRecord(17, null, "Payment declined", "java.lang.IllegalStateException\n\tat a.B.c(B.java:1)",
+                                true),
+                        logRecord(0, "warning", null, null, false))),
+                field(1, resourceLogs(false, logRecord(9, null, "no resource", null, false))));
+
+        List<LogEvent> events = decode(new ByteArrayInputStream(request));
+
+        assertEquals(3, events.size());
+        assertEquals(new LogEvent("payment-service", "ERROR", "Payment declined",
+                "java.lang.IllegalStateException\n\tat a.B.c(B.java:1)", TIME,
+                Map.of("traceId", "5b8efff798038103d269b633813fc60c", "spanId", "eee19b7ec3c1b174")), events.get(0));
+        assertEquals("WARNING", events.get(1).level());
+        assertNull(events.get(1).message());
+        assertNull(events.get(1).metadata());
+        assertEquals(OtlpLogsDecoder.UNKNOWN_SERVICE, events.get(2).serviceName());
+        assertEquals("INFO", events.get(2).level());
+    }
+
+    @Test
+    void shouldStreamRecordsBeforeTheWholeRequestIsRead() throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            records.add(logRecord(9, null, "order " + i + " created", null, false));
+        }
+        byte[] request = message(field(1, resourceLogs(true, records.toArray(byte[][]::new))));
+        CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(request));
+
+        List<Long> readWhenEmitted = new ArrayList<>();
+        long count = decoder.decode(in, event -> readWhenEmitted.add(in.read));
+
+        assertEquals(2000, count);
+        assertTrue(readWhenEmitted.get(0) < request.length / 10,
+                "first record emitted after " + readWhenEmitted.get(0) + " of " + request.length + " bytes");
+    }
+
+    @Test
+    void shouldRejectTruncatedAndOversizedRequests() {
+        byte[] request = message(field(1, resourceLogs(true, logRecord(9, null, "hello", null, false))));
+
+        assertThrows(EOFException.class,
+                () -> decode(new ByteArrayInputStream(Arrays.copyOf(request, request.length - 2))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OtlpLogsDecoder(4, 100).decode(new ByteArrayInputStream(request), event -> { }));
+        byte[] withoutResource = message(field(1, resourceLogs(false,
+                logRecord(9, null, "first", null, false), logRecord(9, null, "second", null, false))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OtlpLogsDecoder(1 << 20, 1).decode(new ByteArrayInputStream(withoutResource), event -> { }));
+    }
+
+    private List<LogEvent> decode(InputStream in) throws IOException {
+        List<LogEvent> events = new ArrayList<>();
+        decoder.decode(in, events::add);
+        return events;
+    }
+
+    // Minimal protobuf writer for the OTLP messages used above
+
+    private static byte[] resourceLogs(boolean withResource, byte[]... records) {
+        byte[][] scopeRecords = Arrays.stream(records).map(record -> field(2, record)).toArray(byte[][]::new);
+        byte[] scopeLogs = field(2, message(field(1, message(field(1, "io.demo".getBytes(StandardCharsets.UTF_8)))),
+                message(scopeRecords)));
+        if (!withResource) {
+            return scopeLogs;
+        }
+        byte[] resource = field(1, message(
+                field(1, keyValue("host.name", "node-1")),
+                field(1, keyValue("service.name", "payment-service"))));
+        return message(resource, scopeLogs);
+    }
+
+    private static byte[] logRecord(int severity, String severityText, String body, String stackTrace,
+            boolean traceContext) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTag(out, 1, 1);
+        long nanos = TIME.getEpochSecond() * 1_000_000_000L + TIME.getNano();
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (nanos >>> (8 * i)));
+        }
+        if (severity > 0) {
+            writeTag(out, 2, 0);
+            writeVarint(out, severity);
+        }
+        if (severityText != null) {
+            out.writeBytes(field(3, severityText.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (body != null) {
+            out.writeBytes(field(5, field(1, body.getBytes(StandardCharsets.UTF_8))));
+        }
+        if (stackTrace != null) {
+            out.writeBytes(field(6, keyValue("exception.stacktrace", stackTrace)));
+        }
+        out.writeBytes(field(6, keyValue("http.status", "502")));
+        if (traceContext) {
+            out.writeBytes(field(9, TRACE_ID));
+            out.writeBytes(field(10, SPAN_ID));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] keyValue(String key, String value) {
+        return message(field(1, key.getBytes(StandardCharsets.UTF_8)),
+                field(2, field(1, value.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static byte[] field(int number, byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTag(out, number, 2);
+        writeVarint(out, value.length);
+        out.writeBytes(value);
+        return out.toByteArray();
+    }
+
+    private static byte[] message(byte[]... fields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] field : fields) {
+            out.writeBytes(field);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeTag(ByteArrayOutputStream out, int number, int wireType) {
+        writeVarint(out, (long) number << 3 | wireType);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long read;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, Math.min(len, 512));
+            if (n > 0) {
+                read += n;
+            }
+            return n;
+        }
+    }
+}
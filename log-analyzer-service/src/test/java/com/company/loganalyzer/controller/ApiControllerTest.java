@@ -0,0 +1,68 @@
+package com.company.loganalyzer.controller;
+
+import com.company.loganalyzer.analysis.ClusterBurstDetector;
+import com.company.loganalyzer.analysis.ClusterRegistry;
+import com.company.loganalyzer.analysis.LogTemplateMiner;
+import com.company.loganalyzer.ingestion.LogRollupStore;
+import com.company.loganalyzer.model.AnomalyType;
+import com.company.loganalyzer.model.IncidentEntity;
+import com.company.loganalyzer.repository.IncidentRepository;
+import com.company.loganalyzer.repository.LogRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ApiControllerTest {
+
+    private final IncidentRepository incidentRepository = mock(IncidentRepository.class);
+    private final ApiController controller = new ApiController(incidentRepository, mock(LogRepository.class),
+            mock(LogTemplateMiner.class), mock(ClusterBurstDetector.class), mock(ClusterRegistry.class),
+            mock(LogRollupStore.class));
+
+    @Test
+    void shouldPassFiltersAndPageToRepository() {
+        IncidentEntity incident = new IncidentEntity("payments", AnomalyType.ERROR_BURST, Instant.now(),
+                "burst", IncidentEntity.IncidentStatus.OPEN);
+        when(incidentRepository.search(any(), any(), any(), any())).thenReturn(new SliceImpl<>(List.of(incident)));
+
+        ResponseEntity<List<IncidentEntity>> response = controller.getIncidents("open", "payments", "error_burst", 2, 25);
+
+        assertEquals(List.of(incident), response.getBody());
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(incidentRepository).search(eq(IncidentEntity.IncidentStatus.OPEN), eq("payments"),
+                eq(AnomalyType.ERROR_BURST), page.capture());
+        assertEquals(2, page.getValue().getPageNumber());
+        assertEquals(25, page.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "startTime").and(Sort.by(Sort.Direction.DESC, "id")),
+                page.getValue().getSort());
+    }
+
+    @Test
+    void shouldClampPageAndTreatEmptyFiltersAsAbsent() {
+        when(incidentRepository.search(any(), any(), any(), any())).thenReturn(new SliceImpl<>(List.of()));
+
+        controller.getIncidents("", "", "", -1, 100_000);
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(incidentRepository).search(isNull(), isNull(), isNull(), page.capture());
+        assertEquals(0, page.getValue().getPageNumber());
+        assertEquals(1000, page.getValue().getPageSize());
+    }
+
+    @Test
+    void shouldReturnNothingForUnknownStatusOrType() {
+        assertEquals(List.of(), controller.getIncidents("pending", null, null, 0, 100).getBody());
+        assertEquals(List.of(), controller.getIncidents(null, null, "disk_full", 0, 100).getBody());
+        verifyNoInteractions(incidentRepository);
+    }
+}
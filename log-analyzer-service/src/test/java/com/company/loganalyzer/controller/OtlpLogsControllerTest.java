@@ -0,0 +1,164 @@
+package com.company.loganalyzer.controller;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.ingestion.BackpressureController;
+import com.company.loganalyzer.ingestion.LogIngestionService;
+import com.company.loganalyzer.model.LogEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OtlpLogsControllerTest {
+
+    private static final Instant TIME = Instant.parse("2024-05-01T10:15:30.123456789Z");
+
+    private final LogIngestionService ingestionService = mock(LogIngestionService.class);
+    private final BackpressureController backpressure = mock(BackpressureController.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<LogEvent>> chunks = new ArrayList<>();
+    private final List<String> ids = new ArrayList<>();
+    private OtlpLogsController controller;
+
+    @BeforeEach
+    void setUp() {
+        IngestionConfig config = new IngestionConfig();
+        config.getOtlp().setBatchSize(2);
+        controller = new OtlpLogsController(ingestionService, backpressure, config, meterRegistry);
+        // The controller reuses its chunk lists, so copy them when they are handed over
+        doAnswer(invocation -> {
+            chunks.add(List.copyOf(invocation.<List<LogEvent>>getArgument(0)));
+            ids.addAll(invocation.<List<String>>getArgument(1));
+            return null;
+        }).when(ingestionService).ingest(anyList(), anyList());
+    }
+
+    @Test
+    void shouldIngestGzippedRequestInChunksWithStableIds() throws IOException {
+        byte[] body = request("one", "two", "three", "one");
+
+        ResponseEntity<byte[]> response = controller.export(post(gzip(body), "gzip"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(2, 2), chunks.stream().map(List::size).toList());
+        assertEquals("three", chunks.get(1).get(0).message());
+        assertEquals(4, ids.stream().distinct().count(), "equal records at different positions differ");
+
+        // A retry of the same request indexes under the same ids
+        List<String> first = List.copyOf(ids);
+        ids.clear();
+        controller.export(post(body, null));
+        assertEquals(first, ids);
+    }
+
+    @Test
+    void shouldLeaveIdOfUntimedRecordsToTheIndexer() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        LogEvent untimed = new LogEvent("payment-service", "INFO", "healthy", null, null, null);
+        LogEvent timed = new LogEvent("payment-service", "INFO", "healthy", null, TIME, null);
+
+        assertNull(OtlpLogsController.documentId(digest, 0, untimed));
+        assertEquals(OtlpLogsController.documentId(digest, 0, timed), OtlpLogsController.documentId(digest, 0, timed));
+        assertNotEquals(OtlpLogsController.documentId(digest, 0, timed),
+                OtlpLogsController.documentId(digest, 1, timed));
+    }
+
+    @Test
+    void shouldRefuseWhilePausedWithRetryAfter() throws IOException {
+        when(backpressure.isPaused()).thenReturn(true);
+
+        ResponseEntity<byte[]> response = controller.export(post(request("one"), null));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(ingestionService, never()).ingest(any(), any());
+    }
+
+    @Test
+    void shouldRejectMalformedRequests() throws IOException {
+        byte[] body = request("one");
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.export(post(Arrays.copyOf(body, body.length - 2), null)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.export(post(body, "gzip")).getStatusCode());
+        assertEquals(2, meterRegistry.counter("loganalyzer.ingestion.otlp.rejected", "reason", "malformed").count());
+    }
+
+    private static MockHttpServletRequest post(byte[] body, String contentEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/logs");
+        request.setContentType(OtlpLogsController.PROTOBUF);
+        request.setContent(body);
+        if (contentEncoding != null) {
+            request.addHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        return request;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    // Minimal OTLP request: one resource with service.name and one timed record per body
+
+    private static byte[] request(String... bodies) {
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        for (String body : bodies) {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            writeVarint(record, 1 << 3 | 1);
+            long nanos = TIME.getEpochSecond() * 1_000_000_000L + TIME.getNano();
+            for (int i = 0; i < 8; i++) {
+                record.write((int) (nanos >>> (8 * i)));
+            }
+            record.writeBytes(field(5, field(1, body.getBytes(StandardCharsets.UTF_8))));
+            records.writeBytes(field(2, record.toByteArray()));
+        }
+        byte[] serviceName = concat(field(1, "service.name".getBytes(StandardCharsets.UTF_8)),
+                field(2, field(1, "payment-service".getBytes(StandardCharsets.UTF_8))));
+        byte[] resource = field(1, field(1, serviceName));
+        return field(1, concat(resource, field(2, records.toByteArray())));
+    }
+
+    private static byte[] field(int number, byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, (long) number << 3 | 2);
+        writeVarint(out, value.length);
+        out.writeBytes(value);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,76 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BackpressureControllerTest {
+
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final BulkIndexer bulkIndexer = mock(BulkIndexer.class);
+    private final BackpressureController controller;
+
+    BackpressureControllerTest() {
+        when(registry.getListenerContainer("logIngestionBatch")).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+
+        IngestionConfig config = new IngestionConfig();
+        config.getBulk().setEnabled(true);
+        config.getBackpressure().setEnabled(false); // checks are driven by the test
+        config.getBackpressure().setPauseLatencyMs(1000);
+        config.getBackpressure().setResumeLatencyMs(200);
+        config.getBackpressure().setPauseQueueDocs(1000);
+        config.getBackpressure().setResumeQueueDocs(100);
+        config.getBackpressure().setMaxPauseMs(60_000);
+        controller = new BackpressureController(registry, bulkIndexer, config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldPauseOnSlowWritesAndResumeWhenTheyRecover() {
+        controller.recordWriteLatency(50);
+        controller.check();
+        assertFalse(controller.isPaused());
+
+        for (int i = 0; i < 10; i++) {
+            controller.recordWriteLatency(3000);
+        }
+        controller.check();
+        assertTrue(controller.isPaused());
+        verify(container).pause();
+
+        // Hysteresis: below the pause threshold but above the resume threshold
+        for (int i = 0; i < 10; i++) {
+            controller.recordWriteLatency(500);
+        }
+        controller.check();
+        assertTrue(controller.isPaused());
+
+        for (int i = 0; i < 20; i++) {
+            controller.recordWriteLatency(20);
+        }
+        controller.check();
+        assertFalse(controller.isPaused());
+        verify(container).resume();
+    }
+
+    @Test
+    void shouldPauseWhileTheBulkBufferIsFull() {
+        when(bulkIndexer.getQueueDepth()).thenReturn(5000);
+        controller.check();
+        assertTrue(controller.isPaused());
+
+        when(bulkIndexer.getQueueDepth()).thenReturn(500);
+        controller.check();
+        assertTrue(controller.isPaused());
+
+        when(bulkIndexer.getQueueDepth()).thenReturn(50);
+        controller.check();
+        assertFalse(controller.isPaused());
+    }
+}
@@ -0,0 +1,150 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BulkIndexerTest {
+
+    private static final IndexCoordinates INDEX = IndexCoordinates.of("logs");
+
+    private final ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+    private BulkIndexer indexer;
+
+    @AfterEach
+    void tearDown() {
+        indexer.shutdown();
+    }
+
+    @Test
+    void shouldFlushWhenDocumentCountIsReached() throws Exception {
+        indexer = indexer(bulk -> bulk.setMaxDocs(2));
+
+        CompletableFuture<Void> first = indexer.submit(document("a", "payment failed"));
+        verify(operations, never()).bulkIndex(anyList(), any(IndexCoordinates.class));
+        CompletableFuture<Void> second = indexer.submit(document("b", "timeout"));
+
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("a", "b"), ids(captureRequests(1).get(0)));
+        assertEquals(0, indexer.getQueueDepth());
+    }
+
+    @Test
+    void shouldFlushWhenPayloadSizeIsReached() throws Exception {
+        indexer = indexer(bulk -> bulk.setMaxBytes(1024));
+
+        indexer.submit(document("a", "x".repeat(2048))).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a"), ids(captureRequests(1).get(0)));
+    }
+
+    @Test
+    void shouldFlushWhenOldestDocumentExceedsMaxLatency() throws Exception {
+        indexer = indexer(bulk -> bulk.setMaxLatencyMs(20));
+
+        indexer.submit(document("a", "payment failed")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a"), ids(captureRequests(1).get(0)));
+    }
+
+    @Test
+    void shouldRetryOnlyThrottledDocumentsOfPartiallyFailedRequest() throws Exception {
+        indexer = indexer(bulk -> {
+            bulk.setMaxDocs(2);
+            bulk.setMaxLatencyMs(20);
+        });
+        when(operations.bulkIndex(anyList(), any(IndexCoordinates.class)))
+                .thenThrow(rejected("b", 429))
+                .thenReturn(List.of());
+
+        CompletableFuture<Void> first = indexer.submit(document("a", "payment failed"));
+        CompletableFuture<Void> second = indexer.submit(document("b", "timeout"));
+
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        List<List<IndexQuery>> requests = captureRequests(2);
+        assertEquals(List.of("a", "b"), ids(requests.get(0)));
+        assertEquals(List.of("b"), ids(requests.get(1)));
+        assertEquals(0, indexer.getQueueDepth());
+    }
+
+    @Test
+    void shouldFailDocumentOnceRetriesAreExhausted() throws Exception {
+        indexer = indexer(bulk -> {
+            bulk.setMaxRetries(1);
+            bulk.setMaxLatencyMs(20);
+        });
+        when(operations.bulkIndex(anyList(), any(IndexCoordinates.class))).thenThrow(rejected("a", 429));
+
+        CompletableFuture<Void> future = indexer.submit(document("a", "payment failed"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BulkFailureException.class, e.getCause());
+        captureRequests(2);
+        assertEquals(0, indexer.getQueueDepth());
+    }
+
+    @Test
+    void shouldDrainBufferedDocumentsOnShutdown() throws Exception {
+        indexer = indexer(bulk -> { });
+
+        CompletableFuture<Void> future = indexer.submit(document("a", "payment failed"));
+        indexer.shutdown();
+
+        future.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("a"), ids(captureRequests(1).get(0)));
+    }
+
+    private BulkIndexer indexer(Consumer<IngestionConfig.Bulk> customizer) {
+        when(operations.getIndexCoordinatesFor(LogDocument.class)).thenReturn(INDEX);
+        IngestionConfig config = new IngestionConfig();
+        IngestionConfig.Bulk bulk = config.getBulk();
+        bulk.setEnabled(true);
+        bulk.setAdaptive(false);
+        bulk.setMaxLatencyMs(60_000);
+        bulk.setRetryBackoffMs(1);
+        customizer.accept(bulk);
+        return new BulkIndexer(operations, config, new SimpleMeterRegistry());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<IndexQuery>> captureRequests(int expected) {
+        ArgumentCaptor<List<IndexQuery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(operations, timeout(5000).times(expected)).bulkIndex(captor.capture(), eq(INDEX));
+        return captor.getAllValues();
+    }
+
+    private static List<String> ids(List<IndexQuery> queries) {
+        return queries.stream().map(IndexQuery::getId).toList();
+    }
+
+    private static BulkFailureException rejected(String id, int status) {
+        return new BulkFailureException("rejected",
+                Map.of(id, new BulkFailureException.FailureDetails(status, "es_rejected_execution_exception")));
+    }
+
+    private static LogDocument document(String id, String message) {
+        LogDocument document = new LogDocument();
+        document.setId(id);
+        document.setMessage(message);
+        return document;
+    }
+}
@@ -0,0 +1,60 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedDispatcherTest {
+
+    private final KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(new IngestionConfig());
+    private final ProcessedRecordFilter processedRecords = new ProcessedRecordFilter();
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void shouldNotReprocessGroupsCommittedAfterTheFailedRecord() {
+        List<ConsumerRecord<String, String>> poll = List.of(
+                record(0, "orders"), record(1, "payments"), record(2, "orders"), record(3, "users"));
+        Map<Long, Integer> processedCounts = new ConcurrentHashMap<>();
+        AtomicBoolean ordersDown = new AtomicBoolean(true);
+
+        KeyOrderedDispatcher.Failure failure = dispatcher.dispatch(poll, ConsumerRecord::value, group -> {
+            if (group.get(0).value().equals("orders") && ordersDown.get()) {
+                throw new IllegalStateException("store unavailable");
+            }
+            group.forEach(record -> processedCounts.merge(record.offset(), 1, Integer::sum));
+        });
+
+        assertNotNull(failure);
+        assertEquals(0, failure.index());
+        assertEquals(List.of(1, 3), failure.processed().stream().boxed().toList());
+        failure.processed().stream().forEach(index -> processedRecords.remember(poll.get(index)));
+
+        // The whole poll is redelivered from the failed record; only the failed group runs again
+        ordersDown.set(false);
+        List<ConsumerRecord<String, String>> redelivered = processedRecords.skipProcessed(new ArrayList<>(poll));
+        assertEquals(List.of(0L, 2L), redelivered.stream().map(ConsumerRecord::offset).toList());
+        assertNull(dispatcher.dispatch(redelivered, ConsumerRecord::value,
+                group -> group.forEach(record -> processedCounts.merge(record.offset(), 1, Integer::sum))));
+        processedRecords.forget(poll);
+
+        assertEquals(Map.of(0L, 1, 1L, 1, 2L, 1, 3L, 1), processedCounts);
+        assertEquals(poll, processedRecords.skipProcessed(poll));
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String service) {
+        return new ConsumerRecord<>("app-logs", 0, offset, service, service);
+    }
+}
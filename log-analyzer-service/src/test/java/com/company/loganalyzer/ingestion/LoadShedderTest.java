@@ -0,0 +1,74 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoadShedderTest {
+
+    private final SpoolingLogWriter logWriter = mock(SpoolingLogWriter.class);
+    private final BackpressureController backpressure = mock(BackpressureController.class);
+    private final LoadShedder shedder = new LoadShedder(logWriter, backpressure, new IngestionConfig(),
+            new SimpleMeterRegistry());
+
+    @Test
+    void shouldAdmitEverythingWithinTheLagBudget() {
+        shedder.observeLag(1000);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(shedder.admit(document("INFO", "cache-refresh")));
+        }
+        shedder.flushSummaries();
+        verifyNoInteractions(logWriter);
+    }
+
+    @Test
+    void shouldSampleLowPriorityLevelsAndSummarizeWhatWasShed() {
+        shedder.observeLag(60_000);
+
+        int admittedInfo = 0;
+        for (int i = 0; i < 100; i++) {
+            if (shedder.admit(document("INFO", "cache-refresh"))) {
+                admittedInfo++;
+            }
+            assertTrue(shedder.admit(document("ERROR", "db-timeout")));
+            assertTrue(shedder.admit(document("WARN", "slow-query")));
+        }
+        assertEquals(10, admittedInfo);
+
+        shedder.flushSummaries();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LogDocument>> summaries = ArgumentCaptor.forClass(List.class);
+        verify(logWriter).write(summaries.capture());
+        LogDocument summary = summaries.getValue().get(0);
+        assertEquals("cache-refresh", summary.getClusterId());
+        assertEquals(LoadShedder.SUMMARY_SOURCE, summary.getSource());
+        assertTrue(summary.getMessage().startsWith("[shed] 90 INFO logs"));
+        assertEquals(LoadShedder.summaryId(new LoadShedder.ShedKey(summary.getServiceName(), "cache-refresh", "INFO"),
+                summary.getFirstTimestamp(), summary.getLastTimestamp(), 90), summary.getId());
+
+        // Back under half the budget: no more shedding
+        shedder.observeLag(20_000);
+        assertTrue(shedder.isShedding(), "hysteresis keeps shedding above half the budget");
+        shedder.observeLag(1_000);
+        assertFalse(shedder.isShedding());
+    }
+
+    @Test
+    void shouldShedWhileIngestionIsPausedForBackpressure() {
+        when(backpressure.isPaused()).thenReturn(true);
+        assertTrue(shedder.isShedding());
+    }
+
+    private static LogDocument document(String level, String clusterId) {
+        return new LogDocument("inventory-service", level, "message of " + clusterId, "message of " + clusterId,
+                clusterId, Instant.now());
+    }
+}
@@ -0,0 +1,67 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogDeduplicatorTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LogDeduplicator deduplicator;
+
+    LogDeduplicatorTest() {
+        IngestionConfig config = new IngestionConfig();
+        config.getDedup().setEnabled(true);
+        config.getDedup().setWindowMs(10_000);
+        config.getDedup().setMaxSamples(2);
+        deduplicator = new LogDeduplicator(config, meterRegistry);
+    }
+
+    @Test
+    void shouldCollapseRepeatedLinesIntoOneCountedDocument() {
+        List<LogDocument> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(document("INFO", "cache-refresh", "refreshed cache in " + (i % 5) + " ms", START.plusMillis(i * 50)));
+        }
+        batch.add(document("ERROR", "db-timeout", "db timeout", START.plusMillis(10)));
+        batch.add(document("ERROR", "db-timeout", "db timeout", START.plusMillis(20)));
+
+        List<LogDocument> deduplicated = deduplicator.deduplicate(batch);
+
+        assertEquals(3, deduplicated.size(), "one INFO summary, both ERRORs untouched");
+        LogDocument summary = deduplicated.get(0);
+        assertEquals(100L, summary.getOccurrenceCount());
+        assertEquals(START, summary.getFirstTimestamp());
+        assertEquals(START.plusMillis(99 * 50), summary.getLastTimestamp());
+        assertEquals(List.of("refreshed cache in 0 ms", "refreshed cache in 1 ms"), summary.getSampleMessages());
+        assertNull(deduplicated.get(1).getOccurrenceCount());
+        // The batch itself is left as it was for the registry and rollups
+        assertNull(batch.get(0).getOccurrenceCount());
+        assertEquals(START, batch.get(0).getTimestamp());
+        assertEquals(99.0, meterRegistry.counter("loganalyzer.ingestion.deduplicated").count());
+    }
+
+    @Test
+    void shouldKeepSeparateWindowsAndSingleLinesUnchanged() {
+        List<LogDocument> batch = List.of(
+                document("INFO", "cache-refresh", "refreshed", START),
+                document("INFO", "cache-refresh", "refreshed", START.plusSeconds(15)),
+                document("DEBUG", "cache-refresh", "refreshed", START));
+
+        assertSame(batch, deduplicator.deduplicate(batch));
+        assertNull(batch.get(0).getOccurrenceCount());
+    }
+
+    private static LogDocument document(String level, String clusterId, String message, Instant timestamp) {
+        return new LogDocument("inventory-service", level, message, message, clusterId, timestamp);
+    }
+}
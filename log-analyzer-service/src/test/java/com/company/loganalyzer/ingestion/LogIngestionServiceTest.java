@@ -0,0 +1,167 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.alerting.AlertDispatcher;
+import com.company.loganalyzer.analysis.AnomalyDetector;
+import com.company.loganalyzer.analysis.ClusterRegistry;
+import com.company.loganalyzer.analysis.ErrorClusterer;
+import com.company.loganalyzer.analysis.LogNormalizer;
+import com.company.loganalyzer.analysis.WatermarkTracker;
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import com.company.loganalyzer.model.LogEvent;
+import com.company.loganalyzer.model.LogEventView;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.mock.env.MockPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LogIngestionServiceTest {
+
+    private final IngestionConfig config = new IngestionConfig();
+    private final SpoolingLogWriter logWriter = mock(SpoolingLogWriter.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final Acknowledgment ack = mock(Acknowledgment.class);
+    private KeyOrderedDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void shouldAcknowledgeBatchAfterItIsWrittenAndCommitted() {
+        LogIngestionService service = service(false);
+
+        service.consumeLogBatch(List.of(record(0, "payments"), record(1, "orders")), ack);
+
+        InOrder inOrder = inOrder(logWriter, transactionManager, ack);
+        inOrder.verify(logWriter).write(argThat(documents -> documents.size() == 2));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(ack).acknowledge();
+        verify(ack, never()).nack(anyInt(), any(Duration.class));
+    }
+
+    @Test
+    void shouldNotAcknowledgeWhenSequentialBatchFails() {
+        LogIngestionService service = service(false);
+        doThrow(new IllegalStateException("spool full")).when(logWriter).write(anyList());
+
+        assertThrows(IllegalStateException.class,
+                () -> service.consumeLogBatch(List.of(record(0, "payments")), ack));
+
+        verifyNoInteractions(ack);
+    }
+
+    @Test
+    void shouldNackAtFirstRecordOfFailedService() {
+        LogIngestionService service = service(true);
+        doAnswer(invocation -> {
+            List<LogDocument> documents = invocation.getArgument(0);
+            if (documents.get(0).getServiceName().equals("orders")) {
+                throw new IllegalStateException("spool full");
+            }
+            return null;
+        }).when(logWriter).write(anyList());
+
+        service.consumeLogBatch(List.of(record(0, "payments"), record(1, "orders"), record(2, "payments"),
+                record(3, "orders")), ack);
+
+        verify(ack).nack(eq(1), eq(Duration.ofMillis(config.getParallel().getRetryBackoffMs())));
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    void shouldAcknowledgeParallelBatchOnceEveryServiceIsWritten() {
+        LogIngestionService service = service(true);
+
+        service.consumeLogBatch(List.of(record(0, "payments"), record(1, "orders"), record(2, "payments")), ack);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LogDocument>> written = ArgumentCaptor.forClass(List.class);
+        verify(logWriter, times(2)).write(written.capture());
+        assertEquals(3, written.getAllValues().stream().mapToInt(List::size).sum());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void shouldAcknowledgeEmptyPollWithoutWriting() {
+        service(false).consumeLogBatch(List.of(), ack);
+        service(true).consumeLogBatch(List.of(), ack);
+
+        verify(ack, times(2)).acknowledge();
+        verifyNoInteractions(logWriter);
+    }
+
+    @Test
+    void shouldStartExactlyOneListenerPerIngestionMode() throws Exception {
+        assertEquals(Map.of("logIngestionRecord", true, "logIngestionBatch", false), startedListeners(null));
+        assertEquals(Map.of("logIngestionRecord", true, "logIngestionBatch", false), startedListeners("record"));
+        assertEquals(Map.of("logIngestionRecord", false, "logIngestionBatch", true), startedListeners("batch"));
+    }
+
+    private static Map<String, Boolean> startedListeners(String mode) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        if (mode != null) {
+            environment.getPropertySources().addFirst(new MockPropertySource().withProperty("ingestion.mode", mode));
+        }
+        SpelExpressionParser parser = new SpelExpressionParser();
+        Map<String, Boolean> started = new HashMap<>();
+        for (Method method : List.of(
+                LogIngestionService.class.getMethod("consumeLogs", LogEventView.class, int.class, long.class),
+                LogIngestionService.class.getMethod("consumeLogBatch", List.class, Acknowledgment.class))) {
+            KafkaListener listener = method.getAnnotation(KafkaListener.class);
+            String expression = environment.resolvePlaceholders(listener.autoStartup());
+            started.put(listener.id(), parser.parseExpression(expression, new TemplateParserContext())
+                    .getValue(Boolean.class));
+        }
+        return started;
+    }
+
+    private LogIngestionService service(boolean parallel) {
+        config.getParallel().setEnabled(parallel);
+        if (dispatcher == null) {
+            dispatcher = new KeyOrderedDispatcher(config);
+        }
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        LoadShedder loadShedder = mock(LoadShedder.class);
+        when(loadShedder.admit(any())).thenReturn(true);
+        LogDeduplicator deduplicator = mock(LogDeduplicator.class);
+        when(deduplicator.deduplicate(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        return new LogIngestionService(mock(LogNormalizer.class), mock(ErrorClusterer.class),
+                mock(AnomalyDetector.class), mock(AlertDispatcher.class), new TransactionTemplate(transactionManager),
+                logWriter, config, dispatcher, mock(WatermarkTracker.class), mock(ClusterRegistry.class),
+                mock(LogRollupStore.class), mock(OpenIncidentCache.class), mock(BackpressureController.class),
+                loadShedder, deduplicator);
+    }
+
+    private static ConsumerRecord<String, LogEventView> record(long offset, String serviceName) {
+        LogEvent event = new LogEvent(serviceName, "ERROR", "payment failed", null,
+                Instant.parse("2026-01-01T00:00:00Z").plusSeconds(offset), null);
+        return new ConsumerRecord<>("app-logs", 0, offset, serviceName, event);
+    }
+}
@@ -0,0 +1,71 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import com.company.loganalyzer.repository.LogRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LogRollupStoreTest {
+
+    private static final Instant MINUTE = Instant.parse("2024-01-01T10:15:00Z");
+
+    private final LogRollupRepository repository = mock(LogRollupRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final LogRollupStore store = new LogRollupStore(repository, transactionTemplate, new IngestionConfig());
+
+    LogRollupStoreTest() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static LogDocument log(String service, String level, Instant timestamp) {
+        return new LogDocument(service, level, "msg", "msg", "c", timestamp);
+    }
+
+    @Test
+    void shouldMergeFlushedAndPendingCounts() {
+        when(repository.sumByBucketAndLevel(any())).thenReturn(List.<Object[]>of(new Object[] { MINUTE, "ERROR", 5L }));
+        store.recordAll(List.of(
+                log("orders", "error", MINUTE.plusSeconds(10)),
+                log("payments", "INFO", MINUTE.plusSeconds(70))));
+
+        Map<Instant, Map<String, Long>> timeline = store.timeline(MINUTE);
+        assertEquals(6L, timeline.get(MINUTE).get("ERROR"));
+        assertEquals(1L, timeline.get(MINUTE.plusSeconds(60)).get("INFO"));
+        assertEquals(List.of("orders", "payments"), store.services());
+    }
+
+    @Test
+    void shouldFlushPendingCountsOnce() {
+        store.record(log("orders", "ERROR", MINUTE));
+        store.record(log("orders", "ERROR", MINUTE.plusSeconds(30)));
+
+        store.flush();
+        store.flush();
+
+        verify(repository, times(1)).addCount(MINUTE, "MINUTE", "orders", "ERROR", 2L);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void shouldKeepCountsWhenFlushFails() {
+        store.record(log("orders", "ERROR", MINUTE));
+        doThrow(new IllegalStateException("db down")).when(transactionTemplate).executeWithoutResult(any());
+        store.flush();
+
+        when(repository.sumByBucketAndLevel(any())).thenReturn(List.of());
+        assertEquals(1L, store.timeline(MINUTE).get(MINUTE).get("ERROR"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.AnomalyType;
+import com.company.loganalyzer.model.IncidentEntity;
+import com.company.loganalyzer.repository.IncidentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OpenIncidentCacheTest {
+
+    private static final List<AnomalyType> BURST = List.of(AnomalyType.ERROR_BURST);
+
+    private final IncidentRepository repository = mock(IncidentRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final OpenIncidentCache cache = new OpenIncidentCache(repository, transactionTemplate,
+            new IngestionConfig());
+
+    OpenIncidentCacheTest() {
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(repository.findFirstByServiceNameAndStatusOrderByStartTimeDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(repository.save(any())).thenAnswer(invocation -> {
+            IncidentEntity incident = invocation.getArgument(0);
+            incident.setId(42L);
+            return incident;
+        });
+    }
+
+    @Test
+    void shouldCreateOnceAndAbsorbRepeatedAnomalies() {
+        IncidentEntity created = cache.recordAnomalies("orders", BURST);
+        assertNotNull(created);
+        assertEquals(AnomalyType.ERROR_BURST, created.getType());
+
+        for (int i = 0; i < 100; i++) {
+            assertNull(cache.recordAnomalies("orders", BURST));
+        }
+        verify(repository, times(1)).findFirstByServiceNameAndStatusOrderByStartTimeDesc(any(), any());
+        verify(repository, times(1)).save(any());
+
+        when(repository.addOccurrences(eq(42L), anyLong(), any())).thenReturn(1);
+        cache.flush();
+        cache.flush();
+        verify(repository, times(1)).addOccurrences(eq(42L), eq(100L), any());
+    }
+
+    @Test
+    void shouldOpenNewIncidentOnceResolvedElsewhere() {
+        cache.recordAnomalies("orders", BURST);
+        assertNull(cache.recordAnomalies("orders", BURST));
+
+        // Row is no longer OPEN
+        when(repository.addOccurrences(eq(42L), anyLong(), any())).thenReturn(0);
+        cache.flush();
+
+        assertNotNull(cache.recordAnomalies("orders", BURST));
+    }
+
+    @Test
+    void shouldAttachToExistingOpenIncident() {
+        IncidentEntity existing = new IncidentEntity("orders", AnomalyType.ERROR_BURST, null, "",
+                IncidentEntity.IncidentStatus.OPEN);
+        existing.setId(7L);
+        when(repository.findFirstByServiceNameAndStatusOrderByStartTimeDesc("orders",
+                IncidentEntity.IncidentStatus.OPEN)).thenReturn(Optional.of(existing));
+
+        assertNull(cache.recordAnomalies("orders", BURST));
+        when(repository.addOccurrences(eq(7L), anyLong(), any())).thenReturn(1);
+        cache.flush();
+        verify(repository).addOccurrences(eq(7L), eq(1L), any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldNotFlushIncidentBeforeItsTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            assertNotNull(cache.recordAnomalies("orders", BURST));
+            assertNull(cache.recordAnomalies("orders", BURST));
+
+            // The flush transaction cannot see the new row yet
+            when(repository.addOccurrences(eq(42L), anyLong(), any())).thenReturn(0);
+            cache.flush();
+            verify(repository, never()).addOccurrences(any(), anyLong(), any());
+            assertNull(cache.recordAnomalies("orders", BURST));
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        when(repository.addOccurrences(eq(42L), anyLong(), any())).thenReturn(1);
+        cache.flush();
+        verify(repository).addOccurrences(eq(42L), eq(2L), any());
+        verify(repository, times(1)).save(any());
+    }
+}
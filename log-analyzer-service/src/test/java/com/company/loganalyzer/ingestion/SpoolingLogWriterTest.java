@@ -0,0 +1,92 @@
+package com.company.loganalyzer.ingestion;
+
+import com.company.loganalyzer.config.IngestionConfig;
+import com.company.loganalyzer.model.LogDocument;
+import com.company.loganalyzer.repository.LogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SpoolingLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private final LogRepository repository = mock(LogRepository.class);
+    private SpoolingLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    void shouldSpoolWhileStoreIsDownAndReplayOnceItRecovers() {
+        writer = writer();
+        when(repository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        writer.write(List.of(document("payment failed"), document("timeout")));
+        writer.write(List.of(document("connection reset")));
+        // The second write went straight to the spool
+        verify(repository, times(1)).saveAll(anyList());
+
+        writer.drain();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LogDocument>> replayed = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).saveAll(replayed.capture());
+        List<LogDocument> documents = replayed.getAllValues().get(1);
+        assertEquals(List.of("payment failed", "timeout", "connection reset"),
+                documents.stream().map(LogDocument::getMessage).toList());
+        assertTrue(documents.stream().allMatch(d -> d.getId() != null && d.getTimestamp() != null));
+
+        // Healthy again: writes go to the store directly
+        writer.write(List.of(document("ok")));
+        verify(repository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void shouldPropagateFailuresUnrelatedToAvailability() {
+        writer = writer();
+        when(repository.saveAll(anyList())).thenThrow(new IllegalArgumentException("mapping conflict"));
+
+        assertThrows(IllegalArgumentException.class, () -> writer.write(List.of(document("bad"))));
+    }
+
+    private SpoolingLogWriter writer() {
+        IngestionConfig config = new IngestionConfig();
+        config.getSpool().setEnabled(true);
+        config.getSpool().setDirectory(directory.toString());
+        config.getSpool().setSegmentBytes(64 * 1024);
+        config.getSpool().setDrainIntervalMs(3_600_000);
+
+        MappingElasticsearchConverter converter = new MappingElasticsearchConverter(
+                new SimpleElasticsearchMappingContext());
+        converter.afterPropertiesSet();
+        ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+        when(operations.getElasticsearchConverter()).thenReturn(converter);
+
+        return new SpoolingLogWriter(repository, mock(BulkIndexer.class), operations, config,
+                new SimpleMeterRegistry());
+    }
+
+    private static LogDocument document(String message) {
+        return new LogDocument("payment-service", "ERROR", message, message, "cluster-1", Instant.now());
+    }
+}
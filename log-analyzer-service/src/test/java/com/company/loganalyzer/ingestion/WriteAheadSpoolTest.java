@@ -0,0 +1,111 @@
+package com.company.loganalyzer.ingestion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadSpoolTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayUnacknowledgedRecordsAfterReopen() throws IOException {
+        try (WriteAheadSpool spool = open(1 << 20, WriteAheadSpool.OverflowPolicy.REJECT)) {
+            assertTrue(spool.append(records(0, 500)));
+            WriteAheadSpool.Batch batch = spool.read(40);
+            assertEquals(40, batch.records().size());
+            spool.acknowledge(batch);
+        }
+
+        try (WriteAheadSpool spool = open(1 << 20, WriteAheadSpool.OverflowPolicy.REJECT)) {
+            List<String> replayed = new ArrayList<>();
+            for (WriteAheadSpool.Batch batch = spool.read(25); !batch.records().isEmpty(); batch = spool.read(25)) {
+                batch.records().forEach(r -> replayed.add(new String(r, StandardCharsets.UTF_8)));
+                spool.acknowledge(batch);
+            }
+            assertEquals(strings(40, 500), replayed);
+            assertTrue(spool.isEmpty());
+            assertEquals(1, segmentFiles().size(), "consumed segments are deleted");
+        }
+    }
+
+    @Test
+    void shouldDiscardTornRecordAtTail() throws IOException {
+        try (WriteAheadSpool spool = open(1 << 20, WriteAheadSpool.OverflowPolicy.REJECT)) {
+            spool.append(records(0, 3));
+        }
+        // Corrupt the payload of the last record as if the write had been torn
+        Path segment = segmentFiles().get(segmentFiles().size() - 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            int lastPayload = 16 + 2 * (8 + "record-0".length()) + 8;
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), lastPayload);
+        }
+
+        try (WriteAheadSpool spool = open(1 << 20, WriteAheadSpool.OverflowPolicy.REJECT)) {
+            assertEquals(2, spool.read(10).records().size());
+            spool.append(List.of("after".getBytes(StandardCharsets.UTF_8)));
+            List<byte[]> records = spool.read(10).records();
+            assertEquals("after", new String(records.get(2), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void shouldApplyOverflowPolicy() throws IOException {
+        try (WriteAheadSpool spool = open(2 * SEGMENT_BYTES, WriteAheadSpool.OverflowPolicy.REJECT)) {
+            int accepted = 0;
+            while (spool.append(records(accepted, 1))) {
+                accepted++;
+            }
+            assertEquals(2L * SEGMENT_BYTES, spool.diskBytes());
+            assertEquals(accepted, spool.read(Integer.MAX_VALUE).records().size());
+        }
+
+        try (WriteAheadSpool spool = new WriteAheadSpool(directory.resolve("drop"), SEGMENT_BYTES,
+                2 * SEGMENT_BYTES, WriteAheadSpool.OverflowPolicy.DROP_OLDEST)) {
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(spool.append(records(i, 1)));
+            }
+            assertEquals(2L * SEGMENT_BYTES, spool.diskBytes());
+            List<byte[]> kept = spool.read(Integer.MAX_VALUE).records();
+            assertEquals(1000, kept.size() + spool.droppedRecords());
+            assertEquals("record-999", new String(kept.get(kept.size() - 1), StandardCharsets.UTF_8));
+        }
+    }
+
+    private WriteAheadSpool open(long maxBytes, WriteAheadSpool.OverflowPolicy policy) throws IOException {
+        return new WriteAheadSpool(directory, SEGMENT_BYTES, maxBytes, policy);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static List<byte[]> records(int from, int count) {
+        return strings(from, from + count).stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    private static List<String> strings(int from, int to) {
+        List<String> strings = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            strings.add("record-" + i);
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,115 @@
+package com.company.loganalyzer.repository;
+
+import com.company.loganalyzer.model.AnomalyType;
+import com.company.loganalyzer.model.IncidentEntity;
+import com.company.loganalyzer.model.IncidentEntity.IncidentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// application.yml pins the PostgreSQL dialect; the embedded database needs its own
+@DataJpaTest(properties = {
+        "spring.docker.compose.enabled=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class IncidentRepositoryTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    private static final PageRequest NEWEST_FIRST = PageRequest.of(0, 10,
+            Sort.by(Sort.Direction.DESC, "startTime").and(Sort.by(Sort.Direction.DESC, "id")));
+
+    @Autowired
+    private IncidentRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        save("payments", AnomalyType.ERROR_BURST, 0, IncidentStatus.OPEN);
+        save("payments", AnomalyType.NEW_ERROR_PATTERN, 1, IncidentStatus.RESOLVED);
+        save("checkout", AnomalyType.ERROR_BURST, 2, IncidentStatus.OPEN);
+        save("checkout", AnomalyType.LATENCY_SPIKE, 3, IncidentStatus.RESOLVED);
+    }
+
+    @Test
+    void shouldReturnEverythingWithoutFilters() {
+        assertEquals(List.of(3, 2, 1, 0), minutes(repository.search(null, null, null, NEWEST_FIRST)));
+    }
+
+    @Test
+    void shouldApplyEachFilterOnItsOwn() {
+        assertEquals(List.of(2, 0), minutes(repository.search(IncidentStatus.OPEN, null, null, NEWEST_FIRST)));
+        assertEquals(List.of(1, 0), minutes(repository.search(null, "payments", null, NEWEST_FIRST)));
+        assertEquals(List.of(2, 0), minutes(repository.search(null, null, AnomalyType.ERROR_BURST, NEWEST_FIRST)));
+    }
+
+    @Test
+    void shouldCombineFilters() {
+        assertEquals(List.of(2), minutes(repository.search(IncidentStatus.OPEN, "checkout", AnomalyType.ERROR_BURST,
+                NEWEST_FIRST)));
+        assertEquals(List.of(), minutes(repository.search(IncidentStatus.RESOLVED, "checkout",
+                AnomalyType.ERROR_BURST, NEWEST_FIRST)));
+    }
+
+    @Test
+    void shouldPageWithSlices() {
+        Sort sort = NEWEST_FIRST.getSort();
+        Slice<IncidentEntity> first = repository.search(null, null, null, PageRequest.of(0, 3, sort));
+        Slice<IncidentEntity> second = repository.search(null, null, null, PageRequest.of(1, 3, sort));
+
+        assertEquals(List.of(3, 2, 1), minutes(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of(0), minutes(second));
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void shouldAddOccurrencesToOpenIncidentOnly() {
+        IncidentEntity open = save("search", AnomalyType.ERROR_BURST, 5, IncidentStatus.OPEN);
+        IncidentEntity resolved = save("search", AnomalyType.ERROR_BURST, 6, IncidentStatus.RESOLVED);
+        Instant lastSeen = START.plusSeconds(3600);
+
+        assertEquals(1, repository.addOccurrences(open.getId(), 4, lastSeen));
+        assertEquals(0, repository.addOccurrences(resolved.getId(), 4, lastSeen));
+        entityManager.clear();
+
+        IncidentEntity updated = repository.findById(open.getId()).orElseThrow();
+        assertEquals(5L, updated.getOccurrenceCount());
+        assertEquals(lastSeen, updated.getLastSeen());
+        assertEquals(1L, repository.findById(resolved.getId()).orElseThrow().getOccurrenceCount());
+    }
+
+    @Test
+    void shouldCountIncidentWithoutOccurrenceCountAsOne() {
+        IncidentEntity legacy = save("search", AnomalyType.ERROR_BURST, 5, IncidentStatus.OPEN);
+        legacy.setOccurrenceCount(null);
+        entityManager.flush();
+
+        repository.addOccurrences(legacy.getId(), 2, START);
+        entityManager.clear();
+
+        assertEquals(3L, repository.findById(legacy.getId()).orElseThrow().getOccurrenceCount());
+    }
+
+    private IncidentEntity save(String serviceName, AnomalyType type, int minute, IncidentStatus status) {
+        return entityManager.persistFlushFind(new IncidentEntity(serviceName, type, START.plusSeconds(60L * minute),
+                "test incident", status));
+    }
+
+    private static List<Integer> minutes(Slice<IncidentEntity> slice) {
+        return slice.getContent().stream()
+                .map(incident -> (int) ((incident.getStartTime().getEpochSecond() - START.getEpochSecond()) / 60))
+                .toList();
+    }
+}
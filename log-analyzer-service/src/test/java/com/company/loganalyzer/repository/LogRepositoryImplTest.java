@@ -0,0 +1,137 @@
+package com.company.loganalyzer.repository;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.company.loganalyzer.model.LogDocument;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LogRepositoryImplTest {
+
+    private final ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+    private final LogRepositoryImpl repository = new LogRepositoryImpl(operations);
+
+    @Test
+    void shouldFilterOnEveryCriterion() {
+        returnHits();
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        Instant to = Instant.parse("2026-01-02T00:00:00Z");
+
+        repository.search(new LogRepositoryCustom.LogSearchCriteria("payments", "error", "connection refused",
+                from, to, null, 50));
+
+        NativeQuery query = capturedQuery();
+        BoolQuery bool = query.getQuery().bool();
+        List<Query> filters = bool.filter();
+        assertEquals(3, filters.size());
+        assertEquals("serviceName", filters.get(0).term().field());
+        assertEquals("payments", filters.get(0).term().value().stringValue());
+        assertEquals("level", filters.get(1).term().field());
+        assertEquals("ERROR", filters.get(1).term().value().stringValue());
+        assertEquals("timestamp", filters.get(2).range().date().field());
+        assertEquals(from.toString(), filters.get(2).range().date().gte());
+        assertEquals(to.toString(), filters.get(2).range().date().lt());
+        assertEquals("connection refused", bool.must().get(0).match().query().stringValue());
+        assertEquals(50, query.getMaxResults());
+        assertNull(query.getSearchAfter());
+    }
+
+    @Test
+    void shouldOmitFiltersThatAreNotSet() {
+        returnHits();
+
+        repository.search(new LogRepositoryCustom.LogSearchCriteria(null, "", null, null, null, null, 10));
+
+        BoolQuery bool = capturedQuery().getQuery().bool();
+        assertTrue(bool.filter().isEmpty());
+        assertTrue(bool.must().isEmpty());
+    }
+
+    @Test
+    void shouldResumeFromCursorOfPreviousPage() {
+        returnHits(List.of(1767225600000L, "a"), List.of(1767225599000L, "b"));
+
+        LogRepositoryCustom.LogPage first = repository.search(criteria(null, 2));
+        assertEquals(2, first.logs().size());
+        assertNotNull(first.nextCursor());
+
+        returnHits();
+        repository.search(criteria(first.nextCursor(), 2));
+
+        verify(operations, times(2)).search(any(NativeQuery.class), eq(LogDocument.class));
+        assertEquals(List.of(1767225599000L, "b"), capturedQueries().get(1).getSearchAfter());
+    }
+
+    @Test
+    void shouldNotReturnCursorForLastPage() {
+        returnHits(List.of(1767225600000L, "a"));
+
+        assertNull(repository.search(criteria(null, 2)).nextCursor());
+    }
+
+    @Test
+    void shouldNotReturnCursorWhenLastDocumentHasNoId() {
+        List<Object> sortValues = new ArrayList<>();
+        sortValues.add(1767225600000L);
+        sortValues.add(null);
+        returnHits(sortValues);
+
+        assertNull(repository.search(criteria(null, 1)).nextCursor());
+    }
+
+    @Test
+    void shouldRejectInvalidCursors() {
+        for (String cursor : List.of("not base64!", encode("no separator"), encode("abc\nid"),
+                encode("1767225600000\nnull"), encode("1767225600000\n"))) {
+            assertThrows(IllegalArgumentException.class, () -> repository.search(criteria(cursor, 10)), cursor);
+        }
+        verifyNoInteractions(operations);
+    }
+
+    private static LogRepositoryCustom.LogSearchCriteria criteria(String cursor, int limit) {
+        return new LogRepositoryCustom.LogSearchCriteria(null, null, null, null, null, cursor, limit);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void returnHits(List<Object>... sortValues) {
+        List<SearchHit<LogDocument>> hits = new ArrayList<>();
+        for (List<Object> values : sortValues) {
+            SearchHit<LogDocument> hit = mock(SearchHit.class);
+            when(hit.getContent()).thenReturn(new LogDocument());
+            when(hit.getSortValues()).thenReturn(values);
+            hits.add(hit);
+        }
+        SearchHits<LogDocument> searchHits = mock(SearchHits.class);
+        when(searchHits.getSearchHits()).thenReturn(hits);
+        when(operations.search(any(NativeQuery.class), eq(LogDocument.class))).thenReturn(searchHits);
+    }
+
+    private NativeQuery capturedQuery() {
+        return capturedQueries().get(0);
+    }
+
+    private List<NativeQuery> capturedQueries() {
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(operations, atLeastOnce()).search(captor.capture(), eq(LogDocument.class));
+        return captor.getAllValues();
+    }
+}